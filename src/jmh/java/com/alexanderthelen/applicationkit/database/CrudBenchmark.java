@@ -0,0 +1,119 @@
+package com.alexanderthelen.applicationkit.database;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks für die Latenz einzelner Anfragen über {@link Connection} und die
+ * CRUD-Methoden einer {@link Table}.
+ *
+ * Eingefügte Zeilen werden nach jeder Iteration wieder gelöscht, sodass die
+ * Datenbank für alle Messungen gleich groß bleibt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CrudBenchmark {
+    /**
+     * Anzahl der Zeilen der Datenbank (siehe {@link DatabaseFixture}).
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int numberOfRows;
+
+    /**
+     * Verbindung zur Datenbank.
+     */
+    private Connection connection;
+    /**
+     * Tabelle, die gemessen wird.
+     */
+    private FixtureTable table;
+    /**
+     * Zufallsgenerator für die Auswahl der Zeilen.
+     */
+    private final Random random = new Random(42);
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        connection = DatabaseFixture.open(numberOfRows);
+        table = new FixtureTable();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteInsertedRows() throws SQLException {
+        connection.executeUpdate("DELETE FROM fixture WHERE id > " + numberOfRows + ";");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public Object executeQuery() throws SQLException {
+        ResultSet resultSet = connection
+                .executeQuery("SELECT * FROM fixture WHERE id = " + (random.nextInt(numberOfRows) + 1) + ";");
+        resultSet.next();
+        Object name = resultSet.getObject(2);
+        resultSet.close();
+        return name;
+    }
+
+    @Benchmark
+    public void insertRow() throws SQLException {
+        table.insertRowWithData(createData(0));
+    }
+
+    @Benchmark
+    public void updateRow() throws SQLException {
+        Data data = createData(random.nextInt(numberOfRows) + 1);
+        table.updateRowWithData(data, data);
+    }
+
+    @Benchmark
+    public void insertAndDeleteRow() throws SQLException {
+        table.insertRowWithData(createData(0));
+        Data data = new Data();
+        data.put("fixture.id", numberOfRows + 1);
+        table.deleteRowWithData(data);
+    }
+
+    /**
+     * Erzeugt die Daten einer Zeile.
+     *
+     * @param id
+     *            Primärschlüssel der Zeile.
+     * @return Daten der Zeile.
+     */
+    private Data createData(int id) {
+        Data data = new Data();
+        data.put("fixture.id", id);
+        data.put("fixture.name", "Benchmark " + id);
+        data.put("fixture.description", "Beschreibung");
+        data.put("fixture.amount", random.nextDouble());
+        data.put("fixture.quantity", random.nextInt(100));
+        data.put("fixture.price", 9.99);
+        data.put("fixture.image", null);
+        return data;
+    }
+}
@@ -0,0 +1,156 @@
+package com.alexanderthelen.applicationkit.database;
+
+import com.alexanderthelen.applicationkit.Application;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Random;
+
+/**
+ * Erzeugt SQLite-Datenbanken mit einer gegebenen Anzahl an Zeilen für die
+ * Benchmarks.
+ *
+ * Die Datenbanktabelle {@code fixture} enthält gemischte Datentypen und in
+ * jeder hundertsten Zeile einen Blob. Die Blobs sind PNG-Bilder, damit auch die
+ * Bildspalten des {@code TableViewController}s realistisch gemessen werden.
+ * Eine einmal erzeugte Datenbank wird im temporären Verzeichnis
+ * wiederverwendet, solange sie die erwartete Anzahl an Zeilen enthält.
+ */
+public class DatabaseFixture {
+    /**
+     * Anzahl der Zeilen, nach der jeweils ein Blob eingefügt wird.
+     */
+    public static final int BLOB_INTERVAL = 100;
+
+    /**
+     * Öffnet die Datenbank mit der gegebenen Anzahl an Zeilen und setzt sie
+     * als Verbindung des Programms (siehe {@link Application#getConnection()}).
+     *
+     * @param numberOfRows
+     *            Anzahl der Zeilen.
+     * @return Verbindung zur Datenbank.
+     * @throws IOException
+     *             wenn die Datei nicht angelegt werden kann.
+     * @throws SQLException
+     *             wenn die Datenbank nicht erzeugt werden kann.
+     */
+    public static Connection open(int numberOfRows) throws IOException, SQLException {
+        Path path = Paths.get(System.getProperty("java.io.tmpdir"), "applicationkit-jmh-" + numberOfRows + ".db");
+        Connection connection = new Connection("jdbc:sqlite:" + path);
+        if (countRows(connection) != numberOfRows) {
+            connection.close();
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(Paths.get(path + "-wal"));
+            Files.deleteIfExists(Paths.get(path + "-shm"));
+            connection = new Connection("jdbc:sqlite:" + path);
+            generate(connection, numberOfRows);
+        }
+        if (Application.getInstance() == null)
+            new BenchmarkApplication();
+        Application.getInstance().setConnection(connection);
+        return connection;
+    }
+
+    /**
+     * Gibt die Anzahl der Zeilen der Datenbanktabelle {@code fixture} zurück.
+     *
+     * @param connection
+     *            Verbindung zur Datenbank.
+     * @return Anzahl der Zeilen oder {@code -1}, wenn die Datenbanktabelle
+     *         nicht existiert.
+     */
+    private static long countRows(Connection connection) {
+        try {
+            ResultSet resultSet = connection.executeQuery("SELECT COUNT(*) FROM fixture;");
+            return resultSet.next() ? resultSet.getLong(1) : -1;
+        } catch (SQLException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Legt die Datenbanktabelle {@code fixture} an und füllt sie in einer
+     * Transaktion.
+     *
+     * @param connection
+     *            Verbindung zur Datenbank.
+     * @param numberOfRows
+     *            Anzahl der Zeilen.
+     * @throws SQLException
+     *             wenn die Datenbank nicht erzeugt werden kann.
+     */
+    private static void generate(Connection connection, int numberOfRows) throws SQLException {
+        connection.executeUpdate("CREATE TABLE fixture (id INTEGER PRIMARY KEY, name VARCHAR, description TEXT, "
+                + "amount REAL, quantity INTEGER, price NUMERIC, image BLOB);");
+        Random random = new Random(numberOfRows);
+        byte[][] images = new byte[16][];
+        for (int i = 0; i < images.length; i++) {
+            images[i] = createImage(random);
+        }
+        java.sql.Connection rawConnection = connection.getRawConnection();
+        rawConnection.setAutoCommit(false);
+        PreparedStatement statement = rawConnection.prepareStatement(
+                "INSERT INTO fixture (name, description, amount, quantity, price, image) VALUES (?, ?, ?, ?, ?, ?);");
+        for (int i = 0; i < numberOfRows; i++) {
+            statement.setString(1, "Name " + i);
+            statement.setString(2, "Beschreibung der Zeile " + i + " mit etwas mehr Text, " + random.nextLong());
+            statement.setDouble(3, random.nextDouble() * 1000);
+            statement.setInt(4, random.nextInt(100));
+            statement.setDouble(5, random.nextInt(100000) / 100.0);
+            if (i % BLOB_INTERVAL == 0) {
+                statement.setBytes(6, images[random.nextInt(images.length)]);
+            } else {
+                statement.setNull(6, java.sql.Types.BLOB);
+            }
+            statement.addBatch();
+            if (i % 10000 == 9999)
+                statement.executeBatch();
+        }
+        statement.executeBatch();
+        statement.close();
+        rawConnection.commit();
+        rawConnection.setAutoCommit(true);
+    }
+
+    /**
+     * Erzeugt ein PNG-Bild mit zufälligen Pixeln.
+     *
+     * @param random
+     *            Zufallsgenerator.
+     * @return PNG-Bild.
+     * @throws SQLException
+     *             wenn das Bild nicht kodiert werden kann.
+     */
+    private static byte[] createImage(Random random) throws SQLException {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", outputStream);
+        } catch (IOException e) {
+            throw new SQLException("Bild konnte nicht erzeugt werden.", e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Programm ohne Oberfläche, das nur als Träger der Verbindung dient.
+     */
+    private static class BenchmarkApplication extends Application {
+        @Override
+        public void start() {
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.alexanderthelen.applicationkit.database;
+
+import com.alexanderthelen.applicationkit.Application;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * {@link Table} über der Datenbanktabelle {@code fixture} (siehe
+ * {@link DatabaseFixture}).
+ *
+ * Die Anfragen entsprechen dem, was eine typische Unterklasse in einem
+ * Programm implementiert.
+ */
+public class FixtureTable extends Table {
+    /**
+     * Erstellt eine neue {@code FixtureTable}-Instanz.
+     */
+    public FixtureTable() {
+        setTitle("Fixture");
+    }
+
+    @Override
+    public String getSelectQueryForTableWithFilter(String filter) throws SQLException {
+        String query = "SELECT id, name, description, amount, quantity, price, image FROM fixture";
+        if (filter == null || filter.isEmpty())
+            return query;
+        return query + " WHERE name LIKE '%" + filter.replace("'", "''") + "%'";
+    }
+
+    @Override
+    public String getSelectQueryForRowWithData(Data data) throws SQLException {
+        return "SELECT id, name, description, amount, quantity, price, image FROM fixture WHERE id = "
+                + data.get("fixture.id");
+    }
+
+    @Override
+    public void insertRowWithData(Data data) throws SQLException {
+        PreparedStatement statement = Application.getInstance().getConnection().prepareStatement(
+                "INSERT INTO fixture (name, description, amount, quantity, price, image) VALUES (?, ?, ?, ?, ?, ?);");
+        statement.setObject(1, data.get("fixture.name"));
+        statement.setObject(2, data.get("fixture.description"));
+        statement.setObject(3, data.get("fixture.amount"));
+        statement.setObject(4, data.get("fixture.quantity"));
+        statement.setObject(5, data.get("fixture.price"));
+        statement.setObject(6, data.get("fixture.image"));
+        statement.executeUpdate();
+    }
+
+    @Override
+    public void updateRowWithData(Data oldData, Data newData) throws SQLException {
+        PreparedStatement statement = Application.getInstance().getConnection()
+                .prepareStatement("UPDATE fixture SET name = ?, amount = ? WHERE id = ?;");
+        statement.setObject(1, newData.get("fixture.name"));
+        statement.setObject(2, newData.get("fixture.amount"));
+        statement.setObject(3, oldData.get("fixture.id"));
+        statement.executeUpdate();
+    }
+
+    @Override
+    public void deleteRowWithData(Data data) throws SQLException {
+        PreparedStatement statement = Application.getInstance().getConnection()
+                .prepareStatement("DELETE FROM fixture WHERE id = ?;");
+        statement.setObject(1, data.get("fixture.id"));
+        statement.executeUpdate();
+    }
+}
@@ -0,0 +1,59 @@
+package com.alexanderthelen.applicationkit.database;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks für {@link Row#getData()} und {@link Column#getFullName()}, die
+ * bei jeder CRUD-Operation und jedem Öffnen einer Zeilenansicht aufgerufen
+ * werden.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RowBenchmark {
+    /**
+     * Zeile mit den Spalten der Datenbanktabelle {@code fixture}.
+     */
+    private Row row;
+    /**
+     * Einzelne Spalte.
+     */
+    private Column column;
+
+    @Setup
+    public void setUp() {
+        row = new Row();
+        row.put(new Column("id", "INTEGER", "fixture"), 1);
+        row.put(new Column("name", "VARCHAR", "fixture"), "Name 1");
+        row.put(new Column("description", "TEXT", "fixture"), "Beschreibung der Zeile 1");
+        row.put(new Column("amount", "REAL", "fixture"), 12.5);
+        row.put(new Column("quantity", "INTEGER", "fixture"), 7);
+        row.put(new Column("price", "NUMERIC", "fixture"), 9.99);
+        row.put(new Column("image", "BLOB", "fixture"), new byte[1024]);
+        column = row.keySet().iterator().next();
+    }
+
+    @Benchmark
+    public Data getData() {
+        return row.getData();
+    }
+
+    @Benchmark
+    public String getFullName() {
+        return column.getFullName();
+    }
+}
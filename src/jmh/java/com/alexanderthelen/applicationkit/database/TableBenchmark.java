@@ -0,0 +1,82 @@
+package com.alexanderthelen.applicationkit.database;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks für das Aufbauen, Füllen und Durchsuchen einer {@link Table}.
+ *
+ * Der Durchsatz von {@link Table#fill()} ergibt sich aus der Anzahl der Zeilen
+ * geteilt durch die gemessene Zeit. Mit dem GC-Profiler (siehe Gradle-Task
+ * {@code jmh}) ergibt {@code gc.alloc.rate.norm} geteilt durch
+ * {@link #numberOfRows} die Allokation pro Zeile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class TableBenchmark {
+    /**
+     * Anzahl der Zeilen der Datenbank (siehe {@link DatabaseFixture}).
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int numberOfRows;
+
+    /**
+     * Verbindung zur Datenbank.
+     */
+    private Connection connection;
+    /**
+     * Tabelle, die gemessen wird.
+     */
+    private FixtureTable table;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        connection = DatabaseFixture.open(numberOfRows);
+        table = new FixtureTable();
+        table.build();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        table.getRows().clear();
+        connection.close();
+    }
+
+    @Benchmark
+    public int build() throws SQLException {
+        table.build();
+        return table.getColumns().size();
+    }
+
+    @Benchmark
+    public int fill() throws SQLException {
+        table.setFilter(null);
+        table.fill();
+        return table.getRows().size();
+    }
+
+    @Benchmark
+    public int search() throws SQLException {
+        table.setFilter("Name " + (numberOfRows / 2));
+        table.fill();
+        return table.getRows().size();
+    }
+}
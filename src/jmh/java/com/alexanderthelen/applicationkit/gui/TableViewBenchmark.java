@@ -0,0 +1,340 @@
+package com.alexanderthelen.applicationkit.gui;
+
+import com.alexanderthelen.applicationkit.Application;
+import com.alexanderthelen.applicationkit.database.DatabaseFixture;
+import com.alexanderthelen.applicationkit.database.FixtureTable;
+import com.alexanderthelen.applicationkit.database.Row;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.control.TableColumn;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark der Oberfläche eines {@link TableViewController}s ohne Bildschirm.
+ *
+ * Das Programm startet JavaFX (mit Monocle im Headless-Modus, siehe
+ * Gradle-Task {@code uiBenchmark}), lädt einen {@link TableViewController}
+ * über den Datenbanken aus {@link DatabaseFixture} und führt folgende
+ * Szenarien aus:
+ * <ul>
+ * <li>Öffnen des Fensters bis zur ersten angezeigten Zeile</li>
+ * <li>Scrollen durch die gesamte Tabelle</li>
+ * <li>Sortieren nach einer Spalte</li>
+ * <li>Suchen</li>
+ * <li>Öffnen eines {@link RowViewController}s</li>
+ * </ul>
+ * Für jedes Szenario werden die Dauer, die Abstände zwischen den Frames (Pulse)
+ * und der belegte Heap nach einer Garbage Collection gemessen. Die Ergebnisse
+ * werden als JSON in die Datei geschrieben, die als erstes Argument übergeben
+ * wird. Die weiteren Argumente sind die Anzahlen der Zeilen der Datenbanken.
+ */
+public class TableViewBenchmark extends Application {
+	/**
+	 * Wird ausgelöst, sobald JavaFX gestartet ist.
+	 */
+	private static final CountDownLatch started = new CountDownLatch(1);
+
+	/**
+	 * Aufzeichnung der Frames.
+	 */
+	private static FrameRecorder frameRecorder;
+
+	/**
+	 * Startet den Benchmark.
+	 *
+	 * @param args
+	 *            Pfad zur Ergebnisdatei und Anzahlen der Zeilen.
+	 */
+	public static void main(String[] args) {
+		try {
+			run(args);
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Führt den Benchmark aus.
+	 *
+	 * @param args
+	 *            Pfad zur Ergebnisdatei und Anzahlen der Zeilen.
+	 * @throws Exception
+	 *             wenn ein Fehler auftritt.
+	 */
+	private static void run(String[] args) throws Exception {
+		Path resultFile = Paths.get(args.length > 0 ? args[0] : "build/reports/ui-benchmark/results.json");
+		ArrayList<Integer> sizes = new ArrayList<>();
+		for (int i = 1; i < args.length; i++) {
+			sizes.add(Integer.parseInt(args[i]));
+		}
+		if (sizes.isEmpty()) {
+			sizes.add(1000);
+			sizes.add(100000);
+		}
+
+		Thread launcher = new Thread(() -> launch(TableViewBenchmark.class), "JavaFX-Launcher");
+		launcher.setDaemon(true);
+		launcher.start();
+		started.await();
+		frameRecorder = new FrameRecorder();
+		onFxThread(() -> {
+			frameRecorder.start();
+			return null;
+		});
+
+		StringBuilder json = new StringBuilder("[\n");
+		for (int i = 0; i < sizes.size(); i++) {
+			if (i > 0)
+				json.append(",\n");
+			json.append(runScenarios(sizes.get(i)));
+		}
+		json.append("\n]\n");
+
+		if (resultFile.getParent() != null)
+			Files.createDirectories(resultFile.getParent());
+		Files.write(resultFile, json.toString().getBytes(StandardCharsets.UTF_8));
+		System.out.println(json);
+		Platform.exit();
+	}
+
+	/**
+	 * Wird von JavaFX aufgerufen, sobald das Programm gestartet ist.
+	 */
+	@Override
+	public void start() {
+		started.countDown();
+	}
+
+	/**
+	 * Führt alle Szenarien über einer Datenbank aus.
+	 *
+	 * @param numberOfRows
+	 *            Anzahl der Zeilen der Datenbank.
+	 * @return Ergebnisse als JSON-Objekt.
+	 * @throws Exception
+	 *             wenn ein Szenario fehlschlägt.
+	 */
+	private static String runScenarios(int numberOfRows) throws Exception {
+		DatabaseFixture.open(numberOfRows);
+		ArrayList<String> results = new ArrayList<>();
+		NavigationViewController[] navigationViewController = new NavigationViewController[1];
+		TableViewController[] tableViewController = new TableViewController[1];
+		WindowController[] windowController = new WindowController[1];
+
+		results.add(measure("timeToFirstRow", 2, () -> {
+			tableViewController[0] = TableViewController.createWithNameAndTable("table", new FixtureTable());
+			navigationViewController[0] = NavigationViewController.createWithName("navigation");
+			navigationViewController[0].setInitialViewController(tableViewController[0]);
+			windowController[0] = WindowController.createWithName("benchmark");
+			windowController[0].setViewController(navigationViewController[0]);
+			windowController[0].show();
+			return null;
+		}));
+
+		TableViewController controller = tableViewController[0];
+		results.add(measure("scroll", 0, () -> {
+			for (int i = 0; i <= 20; i++) {
+				int index = (int) ((long) (numberOfRows - 1) * i / 20);
+				onFxThread(() -> {
+					controller.tableView.scrollTo(index);
+					return null;
+				}, true);
+				frameRecorder.awaitFrames(1);
+			}
+			return null;
+		}));
+
+		results.add(measure("sort", 2, () -> {
+			TableColumn<Row, ?> column = controller.tableView.getColumns().get(1);
+			column.setSortType(TableColumn.SortType.DESCENDING);
+			controller.tableView.getSortOrder().setAll(Collections.singletonList(column));
+			return null;
+		}));
+		onFxThread(() -> {
+			controller.tableView.getSortOrder().clear();
+			return null;
+		});
+
+		results.add(measure("search", 2, () -> {
+			controller.searchTextField.setText("Name " + (numberOfRows / 2));
+			controller.searchInTable();
+			return null;
+		}));
+		onFxThread(() -> {
+			controller.searchTextField.setText(null);
+			controller.searchInTable();
+			return null;
+		});
+
+		results.add(measure("openRowViewController", 2, () -> {
+			controller.tableView.getSelectionModel().select(0);
+			controller.showEditRowViewController();
+			return null;
+		}));
+		onFxThread(() -> {
+			navigationViewController[0].popViewController();
+			windowController[0].hide();
+			return null;
+		});
+
+		StringBuilder json = new StringBuilder();
+		json.append("  {\n    \"numberOfRows\": ").append(numberOfRows).append(",\n    \"scenarios\": [\n");
+		json.append(String.join(",\n", results));
+		json.append("\n    ]\n  }");
+		Application.getInstance().getConnection().close();
+		return json.toString();
+	}
+
+	/**
+	 * Misst ein Szenario.
+	 *
+	 * @param name
+	 *            Name des Szenarios.
+	 * @param frames
+	 *            Anzahl der Frames, auf die nach der Aktion gewartet wird,
+	 *            damit Layout und Rendering mitgemessen werden.
+	 * @param action
+	 *            Aktion, die auf dem JavaFX-Thread ausgeführt wird.
+	 * @return Ergebnis als JSON-Objekt.
+	 * @throws Exception
+	 *             wenn die Aktion fehlschlägt.
+	 */
+	private static String measure(String name, int frames, Callable<Void> action) throws Exception {
+		frameRecorder.reset();
+		long start = System.nanoTime();
+		if (frames == 0) {
+			action.call();
+		} else {
+			onFxThread(action);
+			frameRecorder.awaitFrames(frames);
+		}
+		long duration = System.nanoTime() - start;
+		ArrayList<Long> intervals = frameRecorder.getIntervals();
+
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		long heap = runtime.totalMemory() - runtime.freeMemory();
+
+		Collections.sort(intervals);
+		long sum = 0;
+		for (long interval : intervals) {
+			sum += interval;
+		}
+		double mean = intervals.isEmpty() ? 0 : sum / (double) intervals.size();
+		long p95 = intervals.isEmpty() ? 0 : intervals.get((int) Math.ceil(intervals.size() * 0.95) - 1);
+		long max = intervals.isEmpty() ? 0 : intervals.get(intervals.size() - 1);
+
+		return String.format(java.util.Locale.ROOT,
+				"      {\"name\": \"%s\", \"durationMillis\": %.3f, \"frames\": %d, \"meanFrameMillis\": %.3f, "
+						+ "\"p95FrameMillis\": %.3f, \"maxFrameMillis\": %.3f, \"heapUsedBytes\": %d}",
+				name, duration / 1e6, intervals.size(), mean / 1e6, p95 / 1e6, max / 1e6, heap);
+	}
+
+	/**
+	 * Führt eine Aktion auf dem JavaFX-Thread aus und wartet auf das Ergebnis.
+	 *
+	 * @param callable
+	 *            Aktion.
+	 * @param <T>
+	 *            Typ des Ergebnisses.
+	 * @return Ergebnis der Aktion.
+	 * @throws Exception
+	 *             wenn die Aktion fehlschlägt.
+	 */
+	private static <T> T onFxThread(Callable<T> callable) throws Exception {
+		return onFxThread(callable, false);
+	}
+
+	/**
+	 * Führt eine Aktion auf dem JavaFX-Thread aus.
+	 *
+	 * @param callable
+	 *            Aktion.
+	 * @param direct
+	 *            {@code true}, wenn die Aktion direkt ausgeführt werden soll,
+	 *            weil der Aufrufer bereits auf dem JavaFX-Thread ist.
+	 * @param <T>
+	 *            Typ des Ergebnisses.
+	 * @return Ergebnis der Aktion.
+	 * @throws Exception
+	 *             wenn die Aktion fehlschlägt.
+	 */
+	private static <T> T onFxThread(Callable<T> callable, boolean direct) throws Exception {
+		if (direct && Platform.isFxApplicationThread())
+			return callable.call();
+		FutureTask<T> task = new FutureTask<>(callable);
+		Platform.runLater(task);
+		return task.get(5, TimeUnit.MINUTES);
+	}
+
+	/**
+	 * Zeichnet die Abstände zwischen den Frames auf.
+	 */
+	private static class FrameRecorder extends AnimationTimer {
+		/**
+		 * Zeitpunkt des letzten Frames in Nanosekunden.
+		 */
+		private long lastFrame;
+		/**
+		 * Abstände zwischen den Frames in Nanosekunden.
+		 */
+		private final ArrayList<Long> intervals = new ArrayList<>();
+		/**
+		 * Anzahl der Frames, auf die gewartet wird.
+		 */
+		private CountDownLatch pendingFrames = new CountDownLatch(0);
+
+		@Override
+		public synchronized void handle(long now) {
+			if (lastFrame != 0)
+				intervals.add(now - lastFrame);
+			lastFrame = now;
+			pendingFrames.countDown();
+		}
+
+		/**
+		 * Verwirft alle bisherigen Aufzeichnungen.
+		 */
+		synchronized void reset() {
+			intervals.clear();
+			lastFrame = 0;
+		}
+
+		/**
+		 * Wartet auf eine Anzahl von Frames.
+		 *
+		 * @param frames
+		 *            Anzahl der Frames.
+		 * @throws InterruptedException
+		 *             wenn das Warten unterbrochen wird.
+		 */
+		void awaitFrames(int frames) throws InterruptedException {
+			CountDownLatch latch;
+			synchronized (this) {
+				latch = new CountDownLatch(frames);
+				pendingFrames = latch;
+			}
+			latch.await(1, TimeUnit.MINUTES);
+		}
+
+		/**
+		 * Gibt eine Kopie der aufgezeichneten Abstände zurück.
+		 *
+		 * @return Abstände zwischen den Frames in Nanosekunden.
+		 */
+		synchronized ArrayList<Long> getIntervals() {
+			return new ArrayList<>(intervals);
+		}
+	}
+}
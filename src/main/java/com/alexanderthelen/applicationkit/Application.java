@@ -2,7 +2,14 @@ package com.alexanderthelen.applicationkit;
 
 import com.alexanderthelen.applicationkit.database.Connection;
 import com.alexanderthelen.applicationkit.database.Data;
+import com.alexanderthelen.applicationkit.database.InMemoryConnection;
+import com.alexanderthelen.applicationkit.database.ScopedConnectionProvider;
 import com.alexanderthelen.applicationkit.gui.WindowController;
+import com.alexanderthelen.applicationkit.metrics.StartupTimeline;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.ButtonType;
@@ -12,9 +19,11 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.stage.StageStyle;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.sql.SQLException;
 import java.util.Optional;
 
 /**
@@ -59,6 +68,22 @@ import java.util.Optional;
  * }
  * </pre>
  *
+ * Der Start kann in Phasen aufgeteilt werden, damit schnell etwas angezeigt
+ * wird:
+ * <ol>
+ * <li>{@link #createSplash()}: Ein Startbildschirm wird sofort angezeigt.</li>
+ * <li>{@link #initializeInBackground()}: Arbeiten ohne Oberfläche (z. B. das
+ * Öffnen der Datenbank per {@link #setConnection(Connection)}) laufen in einem
+ * Hintergrund-Thread.</li>
+ * <li>{@link #start()}: Controller werden im JavaFX-Thread erzeugt und das
+ * Fenster angezeigt.</li>
+ * <li>{@link #warmUp()}: Nach dem ersten Zeichnen des Fensters laufen
+ * aufschiebbare Arbeiten in einem Hintergrund-Thread.</li>
+ * </ol>
+ * Alle Methoden außer {@link #start()} sind optional. Die Dauer jeder Phase
+ * wird in der {@link StartupTimeline} erfasst (siehe
+ * {@link #getStartupTimeline()}).
+ *
  * For my mother. Return to energiser.
  *
  * @author Alexander Thelen
@@ -69,6 +94,10 @@ public abstract class Application extends javafx.application.Application {
 	 * Eindeutige Instanz des Programms.
 	 */
 	private static Application instance;
+	/**
+	 * Verlauf des Starts, der schon vor dem Erzeugen der Instanz beginnt.
+	 */
+	private static final StartupTimeline startupTimeline = new StartupTimeline();
 
 	/**
 	 * {@link WindowController}-Instanz zur Verwaltung des einzigen Fensters.
@@ -113,26 +142,142 @@ public abstract class Application extends javafx.application.Application {
 	 */
 	public Application() {
 		instance = this;
+		startupTimeline.mark("launch");
 	}
 
 	/**
 	 * Einstiegspunkt eines Programms.
 	 *
-	 * {@code primareStage} wird nicht gebraucht. Diese Methode wird von JavaFX
-	 * aufgerufen und ruft die zu implementierende Methode {@link #start()} auf.
+	 * {@code primareStage} wird nur für den Startbildschirm gebraucht (siehe
+	 * {@link #createSplash()}). Diese Methode wird von JavaFX aufgerufen. Sie
+	 * zeigt ggf. den Startbildschirm, ruft {@link #initializeInBackground()} in
+	 * einem Hintergrund-Thread und anschließend die zu implementierende Methode
+	 * {@link #start()} im JavaFX-Thread auf.
 	 *
 	 * @param primaryStage
-	 *            nicht gebrauchte {@code Stage}.
+	 *            {@code Stage} des Startbildschirms.
 	 * @throws Exception
 	 *             wenn ein Fehler auftritt
 	 */
 	@Override
 	public final void start(Stage primaryStage) throws Exception {
+		Connection.setForegroundThread(Thread.currentThread());
+		startupTimeline.begin("splash");
+		Parent splash = createSplash();
+		if (splash != null) {
+			primaryStage.initStyle(StageStyle.UNDECORATED);
+			primaryStage.setScene(new Scene(splash));
+			primaryStage.centerOnScreen();
+			primaryStage.show();
+		}
+		startupTimeline.end("splash");
+
+		Thread thread = new Thread(() -> {
+			startupTimeline.begin("initializeInBackground");
+			try {
+				initializeInBackground();
+			} catch (Exception e) {
+				startupTimeline.end("initializeInBackground");
+				Platform.runLater(() -> {
+					primaryStage.hide();
+					presentAlertDialog(AlertType.ERROR, "Kritischer Fehler!", "Programm wird beendet.", e,
+							ButtonType.OK);
+				});
+				return;
+			}
+			startupTimeline.end("initializeInBackground");
+			Platform.runLater(() -> startInForeground(primaryStage));
+		}, "Application-Initialization");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Ruft {@link #start()} auf, schließt den Startbildschirm und plant
+	 * {@link #warmUp()} nach dem ersten Zeichnen ein.
+	 *
+	 * @param primaryStage
+	 *            {@code Stage} des Startbildschirms.
+	 */
+	private void startInForeground(Stage primaryStage) {
+		startupTimeline.begin("start");
 		try {
 			start();
 		} catch (Exception e) {
+			startupTimeline.end("start");
+			primaryStage.hide();
 			presentAlertDialog(AlertType.ERROR, "Kritischer Fehler!", "Programm wird beendet.", e, ButtonType.OK);
+			return;
 		}
+		startupTimeline.end("start");
+		primaryStage.hide();
+
+		new AnimationTimer() {
+			/**
+			 * Anzahl der bisherigen Pulse.
+			 */
+			private int pulses;
+
+			@Override
+			public void handle(long now) {
+				// Der erste Puls zeichnet das Fenster, der zweite folgt danach.
+				if (++pulses < 2)
+					return;
+				stop();
+				startupTimeline.mark("firstPaint");
+				startupTimeline.finish();
+				Thread thread = new Thread(() -> {
+					startupTimeline.begin("warmUp");
+					try {
+						warmUp();
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+					startupTimeline.end("warmUp");
+				}, "Application-WarmUp");
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				thread.start();
+			}
+		}.start();
+	}
+
+	/**
+	 * Erzeugt den Startbildschirm, der während
+	 * {@link #initializeInBackground()} angezeigt wird.
+	 *
+	 * Standardmäßig wird kein Startbildschirm angezeigt.
+	 *
+	 * @return View des Startbildschirms oder {@code null}.
+	 */
+	protected Parent createSplash() {
+		return null;
+	}
+
+	/**
+	 * Führt Arbeiten ohne Oberfläche in einem Hintergrund-Thread aus, bevor
+	 * {@link #start()} aufgerufen wird.
+	 *
+	 * Hier sollte z. B. die Verbindung zur Datenbank geöffnet werden. Auf
+	 * Elemente der Oberfläche darf nicht zugegriffen werden.
+	 *
+	 * @throws Exception
+	 *             wenn ein Fehler auftritt
+	 */
+	protected void initializeInBackground() throws Exception {
+	}
+
+	/**
+	 * Führt aufschiebbare Arbeiten in einem Hintergrund-Thread aus, nachdem
+	 * das Fenster zum ersten Mal gezeichnet wurde.
+	 *
+	 * Auf Elemente der Oberfläche darf nur per {@link Platform#runLater(Runnable)}
+	 * zugegriffen werden.
+	 *
+	 * @throws Exception
+	 *             wenn ein Fehler auftritt
+	 */
+	protected void warmUp() throws Exception {
 	}
 
 	/**
@@ -162,18 +307,61 @@ public abstract class Application extends javafx.application.Application {
 	/**
 	 * Beendet das Programm.
 	 *
-	 * Ggf. wird noch eine Bestätigungsabfrage vorgeschaltet.
+	 * Ggf. wird noch eine Bestätigungsabfrage vorgeschaltet. Eine
+	 * {@link InMemoryConnection} wird vorher in ihre Datei geschrieben und die
+	 * gemeinsamen Verbindungen je Datenbank werden geschlossen (siehe
+	 * {@link ScopedConnectionProvider#forDatabase(String)}).
 	 */
 	public void quit() {
-		if (windowController == null)
+		if (windowController == null) {
+			flushConnections();
 			System.exit(0);
+		}
 		Optional<ButtonType> result = windowController.presentAlertDialog(AlertType.WARNING,
 				"Programm wird beendet!", "Das Programm wird beendet.", null, ButtonType.CANCEL, ButtonType.OK);
 		if (result.isPresent() && result.get() == ButtonType.OK) {
+			flushConnections();
 			System.exit(0);
 		}
 	}
 
+	/**
+	 * Wird von JavaFX aufgerufen, sobald das letzte Fenster geschlossen wurde.
+	 *
+	 * Wie bei {@link #quit()} werden ausstehende Änderungen geschrieben und die
+	 * gemeinsamen Verbindungen je Datenbank geschlossen.
+	 */
+	@Override
+	public void stop() {
+		flushConnections();
+	}
+
+	/**
+	 * Schreibt ausstehende Änderungen einer {@link InMemoryConnection} in ihre
+	 * Datei.
+	 *
+	 * Wird beim Beenden und beim Schließen des Hauptfensters aufgerufen (siehe
+	 * {@link WindowController#windowDidClose()}).
+	 */
+	public void flushConnection() {
+		if (connection instanceof InMemoryConnection) {
+			try {
+				((InMemoryConnection) connection).flush();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Schreibt ausstehende Änderungen einer {@link InMemoryConnection} in ihre
+	 * Datei und schließt die gemeinsamen Verbindungen je Datenbank.
+	 */
+	private void flushConnections() {
+		flushConnection();
+		ScopedConnectionProvider.closeAll();
+	}
+
 	/**
 	 * Zeigt eine Meldung an.
 	 *
@@ -259,6 +447,15 @@ public abstract class Application extends javafx.application.Application {
 		this.connection = connection;
 	}
 
+	/**
+	 * Getter für {@link #startupTimeline}.
+	 *
+	 * @return Verlauf des Starts.
+	 */
+	public static StartupTimeline getStartupTimeline() {
+		return startupTimeline;
+	}
+
 	/**
 	 * Getter für {@link #data}.
 	 *
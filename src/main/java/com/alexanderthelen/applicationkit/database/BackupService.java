@@ -0,0 +1,275 @@
+package com.alexanderthelen.applicationkit.database;
+
+import com.alexanderthelen.applicationkit.metrics.MetricRegistry;
+import com.alexanderthelen.applicationkit.metrics.Timer;
+import javafx.concurrent.Task;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.core.DB;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Der {@code BackupService} sichert eine Datenbank im laufenden Betrieb per
+ * Backup-API von SQLite.
+ *
+ * Die Sicherung liest über eine eigene Verbindung zur Datenbankdatei. So wird
+ * weder der JavaFX-Thread noch die {@link Connection} blockiert, über die die
+ * Oberfläche ihre Anfragen stellt. Im WAL-Modus blockiert der Lesezugriff der
+ * Sicherung auch keine Schreiber. Meldet der SQLite-Treiber den Fortschritt
+ * schrittweise, wird nach jedem Schritt {@link #throttle} Millisekunden
+ * pausiert. Da SQLite die Sicherung nach jeder Änderung über eine andere
+ * Verbindung von vorn beginnt, wird nach dem ersten Neubeginn nicht mehr
+ * pausiert, damit die Sicherung bei laufenden Änderungen trotzdem endet. Die Sicherung wird zunächst in eine temporäre Datei geschrieben,
+ * ggf. per GZIP komprimiert und erst zum Schluss an ihr Ziel verschoben.
+ *
+ * Die Dauer der Sicherungen wird in der Metrik {@code backup.backups} erfasst
+ * (siehe {@link MetricRegistry}).
+ */
+public class BackupService {
+    /**
+     * Fortschritt einer Sicherung.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * Wird aufgerufen, wenn die Sicherung fortschreitet.
+         *
+         * @param workDone
+         *            Erledigte Arbeit.
+         * @param totalWork
+         *            Gesamte Arbeit.
+         */
+        void progress(long workDone, long totalWork);
+    }
+
+    /**
+     * Standardpause nach jedem Schritt in Millisekunden.
+     */
+    public static final long DEFAULT_THROTTLE = 5;
+    /**
+     * Größe eines Schritts beim Komprimieren in Bytes.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Zeitmesser für Sicherungen.
+     */
+    private static final Timer backupTimer = MetricRegistry.getInstance().getTimer("backup.backups");
+
+    /**
+     * Zu sichernde Verbindung.
+     */
+    private final Connection connection;
+    /**
+     * Pause nach jedem Schritt in Millisekunden.
+     */
+    private volatile long throttle = DEFAULT_THROTTLE;
+
+    /**
+     * Erstellt eine neue {@code BackupService}-Instanz (per
+     * {@link Connection#getBackupService()}).
+     *
+     * @param connection
+     *            Zu sichernde Verbindung.
+     */
+    BackupService(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Startet eine Sicherung in einem Hintergrund-Thread.
+     *
+     * Der Fortschritt kann über {@link Task#progressProperty()} verfolgt
+     * werden. Das Ergebnis ist der Pfad der Sicherung.
+     *
+     * @param destination
+     *            Ziel der Sicherung.
+     * @param compress
+     *            {@code true}, wenn die Sicherung per GZIP komprimiert werden
+     *            soll.
+     * @return Laufende Sicherung.
+     */
+    public Task<Path> backup(Path destination, boolean compress) {
+        Task<Path> task = new Task<Path>() {
+            @Override
+            protected Path call() throws Exception {
+                updateProgress(-1, 1);
+                return backupNow(destination, compress, this::updateProgress);
+            }
+        };
+        Thread thread = new Thread(task, "Connection-Backup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        return task;
+    }
+
+    /**
+     * Sichert die Datenbank im aufrufenden Thread.
+     *
+     * Ohne Komprimierung entspricht der Fortschritt den kopierten Seiten, mit
+     * Komprimierung zusätzlich den komprimierten Bytes (jeweils zur Hälfte
+     * gewichtet).
+     *
+     * @param destination
+     *            Ziel der Sicherung.
+     * @param compress
+     *            {@code true}, wenn die Sicherung per GZIP komprimiert werden
+     *            soll.
+     * @param listener
+     *            Empfänger des Fortschritts (kann {@code null} sein).
+     * @return Pfad der Sicherung.
+     * @throws SQLException
+     *             wenn die Datenbank nur im Arbeitsspeicher liegt oder nicht
+     *             gesichert werden kann.
+     * @throws IOException
+     *             wenn die Sicherung nicht geschrieben werden kann.
+     */
+    public Path backupNow(Path destination, boolean compress, ProgressListener listener)
+            throws SQLException, IOException {
+        String path = connection.getDatabasePath();
+        if (path == null)
+            throw new SQLException("Eine Datenbank im Arbeitsspeicher kann nicht gesichert werden.");
+        Path directory = destination.toAbsolutePath().getParent();
+        Path copy = Files.createTempFile(directory, destination.getFileName().toString(), ".tmp");
+        long start = backupTimer.start();
+        try {
+            copy(copy, compress ? 2 : 1, listener);
+            if (compress) {
+                Path compressed = Files.createTempFile(directory, destination.getFileName().toString(), ".gz.tmp");
+                try {
+                    compress(copy, compressed, listener);
+                    Files.move(compressed, destination, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(compressed);
+                }
+            } else {
+                Files.move(copy, destination, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(copy);
+            backupTimer.stop(start);
+        }
+        return destination;
+    }
+
+    /**
+     * Kopiert die Datenbank per Backup-API über eine eigene Verbindung.
+     *
+     * @param target
+     *            Zieldatei.
+     * @param parts
+     *            Anzahl der Teile der Sicherung, auf die der Fortschritt
+     *            verteilt wird.
+     * @param listener
+     *            Empfänger des Fortschritts (kann {@code null} sein).
+     * @throws SQLException
+     *             wenn die Datenbank nicht kopiert werden kann.
+     */
+    private void copy(Path target, int parts, ProgressListener listener) throws SQLException {
+        DB.ProgressObserver observer = new DB.ProgressObserver() {
+            /**
+             * Bisher kopierte Seiten.
+             */
+            private long pagesDone;
+            /**
+             * Gibt an, ob die Sicherung schon einmal von vorn begonnen hat.
+             */
+            private boolean restarted;
+
+            @Override
+            public void progress(int remaining, int pageCount) {
+                long pagesDone = pageCount - remaining;
+                if (pagesDone < this.pagesDone)
+                    restarted = true;
+                this.pagesDone = pagesDone;
+                if (listener != null)
+                    listener.progress(pagesDone, (long) pageCount * parts);
+                if (!restarted)
+                    pause();
+            }
+        };
+        try (java.sql.Connection source = DriverManager.getConnection(connection.getURL())) {
+            int result = source.unwrap(SQLiteConnection.class).db().backup("main", target.toString(), observer);
+            if (result != SQLiteErrorCode.SQLITE_OK.code)
+                throw new SQLException("Die Datenbank konnte nicht gesichert werden (" + result + ").");
+        }
+        if (listener != null)
+            listener.progress(1, parts);
+    }
+
+    /**
+     * Komprimiert eine Datei per GZIP.
+     *
+     * @param source
+     *            Zu komprimierende Datei.
+     * @param target
+     *            Zieldatei.
+     * @param listener
+     *            Empfänger des Fortschritts (kann {@code null} sein).
+     * @throws IOException
+     *             wenn die Datei nicht komprimiert werden kann oder die
+     *             Sicherung abgebrochen wurde.
+     */
+    private void compress(Path source, Path target, ProgressListener listener) throws IOException {
+        long size = Files.size(source);
+        long done = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream inputStream = Files.newInputStream(source);
+             OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(target), BUFFER_SIZE)) {
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, length);
+                done += length;
+                if (listener != null)
+                    listener.progress(size + done, 2 * size);
+                pause();
+                if (Thread.currentThread().isInterrupted())
+                    throw new InterruptedIOException("Die Sicherung wurde abgebrochen.");
+            }
+        }
+    }
+
+    /**
+     * Pausiert nach einem Schritt für {@link #throttle} Millisekunden.
+     */
+    private void pause() {
+        if (throttle <= 0)
+            return;
+        try {
+            Thread.sleep(throttle);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Getter für {@link #throttle}.
+     *
+     * @return Pause nach jedem Schritt in Millisekunden.
+     */
+    public long getThrottle() {
+        return throttle;
+    }
+
+    /**
+     * Setter für {@link #throttle}.
+     *
+     * @param throttle
+     *            Pause nach jedem Schritt in Millisekunden. Bei {@code 0} wird
+     *            nicht pausiert.
+     */
+    public void setThrottle(long throttle) {
+        this.throttle = throttle;
+    }
+}
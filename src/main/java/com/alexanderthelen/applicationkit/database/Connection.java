@@ -1,12 +1,54 @@
 package com.alexanderthelen.applicationkit.database;
 
+import com.alexanderthelen.applicationkit.metrics.MetricRegistry;
+import com.alexanderthelen.applicationkit.metrics.Timer;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteErrorCode;
+
 import java.io.IOException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Die {@code Connection}-Klasse vereinfacht den Umgang mit SQLite-Datenbanken.
+ *
+ * Anzahl und Dauer aller Anfragen werden in den Metriken
+ * {@code connection.queries} und {@code connection.updates} erfasst (siehe
+ * {@link MetricRegistry}).
+ *
+ * Arbeiten, die die Oberfläche nicht blockieren sollen (z. B. das Vorladen von
+ * Tabellen), können auf dem Hintergrund-Thread der Verbindung ausgeführt
+ * werden (siehe {@link #getBackgroundExecutor()}). Dort läuft auch die
+ * Wartung der Datenbank (siehe {@link #getMaintenanceService()}).
+ *
+ * Seitencache, Memory-Mapping und temporäre Daten werden über ein
+ * {@link PragmaProfile} eingestellt.
  */
 public class Connection {
+    /**
+     * Zeitmesser für SELECT-Anfragen.
+     */
+    private static final Timer queryTimer = MetricRegistry.getInstance().getTimer("connection.queries");
+    /**
+     * Zeitmesser für INSERT/UPDATE/DELETE-Anfragen.
+     */
+    private static final Timer updateTimer = MetricRegistry.getInstance().getTimer("connection.updates");
+    /**
+     * Maximale Anzahl zwischengespeicherter vorbereiteter Anfragen.
+     */
+    private static final int MAXIMUM_CACHED_STATEMENTS = 64;
+    /**
+     * Thread der Oberfläche, dessen Anfragen als Aktivität des Benutzers
+     * gelten (siehe {@link #setForegroundThread(Thread)}).
+     */
+    private static volatile Thread foregroundThread;
+
     /**
      * URL zur Datenbank.
      */
@@ -16,12 +58,75 @@ public class Connection {
      * {@link java.sql.Connection} der Java-Dokumentation).
      */
     private final java.sql.Connection rawConnection;
+    /**
+     * Analysator der Ausführungspläne (siehe {@link QueryPlanAnalyzer}).
+     *
+     * Ist {@code null}, solange die Analyse nicht aktiviert wurde.
+     */
+    private QueryPlanAnalyzer queryPlanAnalyzer;
+    /**
+     * Hintergrund-Thread mit niedriger Priorität für Anfragen, die die
+     * Oberfläche nicht blockieren sollen.
+     *
+     * Wird erst beim ersten Abruf erzeugt und beim Schließen der Verbindung
+     * beendet, sodass danach keine Arbeiten mehr angenommen werden.
+     */
+    private ScheduledExecutorService backgroundExecutor;
+    /**
+     * Zeitpunkt der letzten Anfrage aus dem Thread der Oberfläche in
+     * Millisekunden.
+     */
+    private volatile long lastForegroundActivity;
+    /**
+     * Wartung der Datenbank (siehe {@link MaintenanceService}).
+     *
+     * Wird erst beim ersten Abruf erzeugt.
+     */
+    private MaintenanceService maintenanceService;
+    /**
+     * Sicherung der Datenbank (siehe {@link BackupService}).
+     *
+     * Wird erst beim ersten Abruf erzeugt.
+     */
+    private BackupService backupService;
+    /**
+     * Profil der PRAGMA-Einstellungen (siehe {@link PragmaProfile}).
+     */
+    private PragmaProfile profile;
+    /**
+     * Einstellungen, die die Werte des {@link #profile} überschreiben. Der
+     * Schlüssel ist der Name des PRAGMA.
+     */
+    private final LinkedHashMap<String, String> pragmaOverrides = new LinkedHashMap<>();
+    /**
+     * Zwischengespeicherte vorbereitete Anfragen (siehe
+     * {@link #prepareCachedStatement(String)}) in der Reihenfolge ihrer
+     * letzten Verwendung. Der Schlüssel ist die Anfrage.
+     */
+    private final LinkedHashMap<String, PreparedStatement> cachedStatements = new LinkedHashMap<String, PreparedStatement>(
+            16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() <= MAXIMUM_CACHED_STATEMENTS)
+                return false;
+            try {
+                eldest.getValue().close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            return true;
+        }
+    };
 
     /**
      * Erstellt eine neue {@code Connection}-Instanz mit einer URL. Eine neue
      * Instanz wird mit den gegebenen Parametern erstellt und anschließend
      * initialisiert (siehe {@link #initialize()}).
      *
+     * Das Profil der PRAGMA-Einstellungen wird per
+     * {@code -Dapplicationkit.pragmaProfile=<Profil>} festgelegt. Standard ist
+     * {@link PragmaProfile#SMALL}.
+     *
      * @param url
      *            URL zur Datenbank
      * @throws IOException
@@ -30,18 +135,87 @@ public class Connection {
      *             wenn die Verbindung nicht aufgebaut werden kann.
      */
     public Connection(String url) throws IOException, SQLException {
+        this(url, PragmaProfile.valueOf(System.getProperty("applicationkit.pragmaProfile", "SMALL")), null);
+    }
+
+    /**
+     * Erstellt eine neue {@code Connection}-Instanz mit einer URL und einem
+     * Profil der PRAGMA-Einstellungen (siehe {@link PragmaProfile}).
+     *
+     * @param url
+     *            URL zur Datenbank
+     * @param profile
+     *            Profil der PRAGMA-Einstellungen.
+     * @param pragmaOverrides
+     *            Einstellungen, die die Werte des Profils überschreiben (kann
+     *            {@code null} sein). Der Schlüssel ist der Name des PRAGMA.
+     * @throws IOException
+     *             wenn die Validierung fehlschlägt.
+     * @throws SQLException
+     *             wenn die Verbindung nicht aufgebaut werden kann.
+     */
+    public Connection(String url, PragmaProfile profile, Map<String, String> pragmaOverrides)
+            throws IOException, SQLException {
+        this(url, profile, pragmaOverrides, true);
+    }
+
+    /**
+     * Erstellt eine neue {@code Connection}-Instanz, die ggf. noch nicht
+     * initialisiert wird (für Unterklassen und Kopien der Datenbank).
+     *
+     * Eine Datenbank, die erst per {@link #restore(String)} geladen wird, darf
+     * vorher nicht initialisiert werden (siehe dort). {@link #initialize()}
+     * muss dann anschließend aufgerufen werden.
+     *
+     * @param url
+     *            URL zur Datenbank
+     * @param profile
+     *            Profil der PRAGMA-Einstellungen.
+     * @param pragmaOverrides
+     *            Einstellungen, die die Werte des Profils überschreiben (kann
+     *            {@code null} sein). Der Schlüssel ist der Name des PRAGMA.
+     * @param initialize
+     *            {@code true}, wenn die Datenbank sofort initialisiert werden
+     *            soll.
+     * @throws IOException
+     *             wenn die Validierung fehlschlägt.
+     * @throws SQLException
+     *             wenn die Verbindung nicht aufgebaut werden kann.
+     */
+    protected Connection(String url, PragmaProfile profile, Map<String, String> pragmaOverrides, boolean initialize)
+            throws IOException, SQLException {
         this.url = url;
+        this.profile = profile;
+        if (pragmaOverrides != null)
+            this.pragmaOverrides.putAll(pragmaOverrides);
         rawConnection = DriverManager.getConnection(this.url);
-        initialize();
+        if (initialize)
+            initialize();
     }
 
     /**
      * Schließt die Verbindung zur Datenbank.
      *
+     * Die Wartung wird beendet und noch ausstehende Arbeiten des
+     * Hintergrund-Threads werden abgebrochen.
+     *
      * @throws SQLException
      *             wenn die Verbindung nicht geschlossen werden kann.
      */
     public void close() throws SQLException {
+        MaintenanceService maintenanceService;
+        synchronized (this) {
+            maintenanceService = this.maintenanceService;
+        }
+        if (maintenanceService != null)
+            maintenanceService.stop();
+        getBackgroundExecutor().shutdownNow();
+        synchronized (cachedStatements) {
+            for (PreparedStatement statement : cachedStatements.values()) {
+                statement.close();
+            }
+            cachedStatements.clear();
+        }
         rawConnection.close();
     }
 
@@ -62,24 +236,197 @@ public class Connection {
      * sobald eine Instanz erstellt wird. Sie sorgt dafür, dass UTF-8 und
      * Fremdschlüssel verwendet werden.
      *
+     * Alle Einstellungen (siehe {@link #getPragmas()}) werden in einem
+     * Durchgang ausgeführt.
+     *
      * @throws SQLException
      *             wenn die Initialisierung fehlschlägt.
      */
     public void initialize() throws SQLException {
-        Statement statement = createStatement();
-        statement.execute("PRAGMA auto_vacuum = 1;");
-        statement.execute("PRAGMA automatic_index = 1;");
-        statement.execute("PRAGMA case_sensitive_like = 0;");
-        statement.execute("PRAGMA defer_foreign_keys = 0;");
-        statement.execute("PRAGMA encoding = 'UTF-8';");
-        statement.execute("PRAGMA foreign_keys = 1;");
-        statement.execute("PRAGMA ignore_check_constraints = 0;");
-        statement.execute("PRAGMA journal_mode= WAL;");
-        statement.execute("PRAGMA query_only = 0;");
-        statement.execute("PRAGMA recursive_triggers = 1;");
-        statement.execute("PRAGMA reverse_unordered_selects = 0;");
-        statement.execute("PRAGMA secure_delete = 0;");
-        statement.execute("PRAGMA synchronous = NORMAL;");
+        applyPragmas(getPragmas());
+    }
+
+    /**
+     * Wendet Einstellungen in einer einzigen Anfrage an.
+     *
+     * @param pragmas
+     *            Einstellungen mit dem Namen des PRAGMA als Schlüssel.
+     * @throws SQLException
+     *             wenn die Einstellungen nicht angewendet werden können.
+     */
+    private void applyPragmas(Map<String, String> pragmas) throws SQLException {
+        if (pragmas.isEmpty())
+            return;
+        StringBuilder sql = new StringBuilder();
+        for (Map.Entry<String, String> pragma : pragmas.entrySet()) {
+            sql.append("PRAGMA ").append(pragma.getKey()).append(" = ").append(pragma.getValue()).append(";\n");
+        }
+        try (Statement statement = rawConnection.createStatement()) {
+            statement.executeUpdate(sql.toString());
+        }
+    }
+
+    /**
+     * Lädt eine Datenbankdatei per Backup-API von SQLite in diese Datenbank
+     * und prüft anschließend, ob die Kopie dasselbe Schema wie die Datei
+     * besitzt (siehe {@link #verifyCopy(java.sql.Connection, java.sql.Connection, String)}).
+     *
+     * Die Datenbank darf vorher nicht initialisiert worden sein: Weicht die
+     * {@code page_size} der Datei von der eingestellten ab oder ist der
+     * WAL-Modus gesetzt, meldet SQLite Erfolg, lässt die Kopie aber leer.
+     *
+     * @param path
+     *            Pfad der Datenbankdatei.
+     * @throws SQLException
+     *             wenn die Datei nicht geladen werden kann oder die Kopie
+     *             nicht mit ihr übereinstimmt.
+     */
+    void restore(String path) throws SQLException {
+        int result = rawConnection.unwrap(SQLiteConnection.class).db().restore("main", path, null);
+        if (result != SQLiteErrorCode.SQLITE_OK.code)
+            throw new SQLException("Die Datenbank " + path + " konnte nicht geladen werden (" + result + ").");
+        try (java.sql.Connection original = DriverManager.getConnection("jdbc:sqlite:" + path)) {
+            verifyCopy(original, rawConnection, path);
+        }
+    }
+
+    /**
+     * Prüft, ob eine Kopie dieselben Einträge in {@code sqlite_master}
+     * (Tabellen, Indizes, Sichten und Trigger) wie das Original besitzt.
+     *
+     * @param original
+     *            Verbindung zum Original.
+     * @param copy
+     *            Verbindung zur Kopie.
+     * @param name
+     *            Name der Datenbank für die Fehlermeldung.
+     * @throws SQLException
+     *             wenn die Kopie nicht mit dem Original übereinstimmt.
+     */
+    static void verifyCopy(java.sql.Connection original, java.sql.Connection copy, String name)
+            throws SQLException {
+        if (!getSchema(original).equals(getSchema(copy)))
+            throw new SQLException("Die Kopie der Datenbank " + name + " stimmt nicht mit dem Original überein.");
+    }
+
+    /**
+     * Gibt alle Einträge in {@code sqlite_master} zurück.
+     *
+     * @param connection
+     *            Verbindung zur Datenbank.
+     * @return Einträge in der Reihenfolge von Typ und Name.
+     * @throws SQLException
+     *             wenn die Einträge nicht abgefragt werden können.
+     */
+    private static ArrayList<String> getSchema(java.sql.Connection connection) throws SQLException {
+        ArrayList<String> schema = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement
+                     .executeQuery("SELECT type, name, tbl_name, sql FROM sqlite_master ORDER BY type, name;")) {
+            while (resultSet.next()) {
+                schema.add(resultSet.getString(1) + " " + resultSet.getString(2) + " " + resultSet.getString(3)
+                        + " " + resultSet.getString(4));
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * Gibt alle Einstellungen zurück, mit denen die Datenbank initialisiert
+     * wird.
+     *
+     * Die Grundeinstellungen werden um die Werte des {@link #profile} ergänzt
+     * und anschließend von {@link #pragmaOverrides} überschrieben.
+     * {@code page_size} und {@code auto_vacuum} wirken nur bei neuen
+     * Datenbanken. Freie Seiten werden wegen {@code auto_vacuum = INCREMENTAL}
+     * nicht bei jedem Commit, sondern im Leerlauf freigegeben (siehe
+     * {@link MaintenanceService#incrementalVacuum()}).
+     *
+     * @return Einstellungen mit dem Namen des PRAGMA als Schlüssel.
+     */
+    public synchronized LinkedHashMap<String, String> getPragmas() {
+        LinkedHashMap<String, String> pragmas = new LinkedHashMap<>();
+        pragmas.put("page_size", "4096");
+        pragmas.put("auto_vacuum", "2");
+        pragmas.put("automatic_index", "1");
+        pragmas.put("case_sensitive_like", "0");
+        pragmas.put("defer_foreign_keys", "0");
+        pragmas.put("encoding", "'UTF-8'");
+        pragmas.put("foreign_keys", "1");
+        pragmas.put("ignore_check_constraints", "0");
+        pragmas.put("journal_mode", "WAL");
+        pragmas.put("query_only", "0");
+        pragmas.put("recursive_triggers", "1");
+        pragmas.put("reverse_unordered_selects", "0");
+        pragmas.put("secure_delete", "0");
+        pragmas.put("synchronous", "NORMAL");
+        pragmas.putAll(profile.getPragmas(getDatabasePath()));
+        pragmas.putAll(pragmaOverrides);
+        return pragmas;
+    }
+
+    /**
+     * Getter für {@link #profile}.
+     *
+     * @return Profil der PRAGMA-Einstellungen.
+     */
+    public synchronized PragmaProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Wechselt das Profil der PRAGMA-Einstellungen und wendet es sofort an
+     * (z. B. {@link PragmaProfile#BULK_LOAD} für die Dauer eines Imports).
+     *
+     * Angewendet werden nur die Einstellungen des alten und neuen Profils
+     * sowie {@link #pragmaOverrides}. Einstellungen, die nur das alte Profil
+     * gesetzt hat, erhalten wieder ihren Grundwert. Andere Einstellungen
+     * (z. B. {@code query_only} einer Kopie der Datenbank) bleiben unberührt.
+     *
+     * @param profile
+     *            Profil der PRAGMA-Einstellungen.
+     * @throws SQLException
+     *             wenn die Einstellungen nicht angewendet werden können.
+     */
+    public void setProfile(PragmaProfile profile) throws SQLException {
+        LinkedHashMap<String, String> pragmas = new LinkedHashMap<>();
+        synchronized (this) {
+            String databasePath = getDatabasePath();
+            LinkedHashSet<String> names = new LinkedHashSet<>(this.profile.getPragmas(databasePath).keySet());
+            names.addAll(profile.getPragmas(databasePath).keySet());
+            names.addAll(pragmaOverrides.keySet());
+            this.profile = profile;
+            LinkedHashMap<String, String> allPragmas = getPragmas();
+            for (String name : names) {
+                if (allPragmas.containsKey(name))
+                    pragmas.put(name, allPragmas.get(name));
+            }
+        }
+        applyPragmas(pragmas);
+    }
+
+    /**
+     * Überschreibt eine Einstellung des Profils und wendet sie sofort an.
+     *
+     * @param name
+     *            Name des PRAGMA (z. B. {@code cache_size}).
+     * @param value
+     *            Wert des PRAGMA oder {@code null}, um den Wert des Profils
+     *            wiederherzustellen.
+     * @throws SQLException
+     *             wenn die Einstellung nicht angewendet werden kann.
+     */
+    public void setPragma(String name, String value) throws SQLException {
+        synchronized (this) {
+            if (value == null) {
+                pragmaOverrides.remove(name);
+            } else {
+                pragmaOverrides.put(name, value);
+            }
+        }
+        String appliedValue = getPragmas().get(name);
+        if (appliedValue != null)
+            applyPragmas(Collections.singletonMap(name, appliedValue));
     }
 
     /**
@@ -111,7 +458,15 @@ public class Connection {
      *             wenn die Anfrage fehlerhaft ist.
      */
     public ResultSet executeQuery(String sql) throws SQLException {
-        return createStatement().executeQuery(sql);
+        if (queryPlanAnalyzer != null)
+            queryPlanAnalyzer.analyze(sql, null);
+        recordActivity();
+        long start = queryTimer.start();
+        try {
+            return createStatement().executeQuery(sql);
+        } finally {
+            queryTimer.stop(start);
+        }
     }
 
     /**
@@ -127,7 +482,37 @@ public class Connection {
      *             wenn die Anfrage fehlerhaft ist.
      */
     public int executeUpdate(String sql) throws SQLException {
-        return createStatement().executeUpdate(sql);
+        recordActivity();
+        long start = updateTimer.start();
+        try {
+            return createStatement().executeUpdate(sql);
+        } finally {
+            updateTimer.stop(start);
+        }
+    }
+
+    /**
+     * Führt eine vorbereitete INSERT/UPDATE/DELETE-Anfrage aus (siehe
+     * {@link #prepareCachedStatement(String)}).
+     *
+     * Wie bei {@link #executeUpdate(String)} wird die Anfrage in der Metrik
+     * {@code connection.updates} erfasst. Die Parameter müssen bereits gesetzt
+     * sein.
+     *
+     * @param statement
+     *            Vorbereitete Anfrage dieser Verbindung.
+     * @return Anzahl der betroffenen Zeilen.
+     * @throws SQLException
+     *             wenn die Anfrage fehlerhaft ist.
+     */
+    public int executeUpdate(PreparedStatement statement) throws SQLException {
+        recordActivity();
+        long start = updateTimer.start();
+        try {
+            return statement.executeUpdate();
+        } finally {
+            updateTimer.stop(start);
+        }
     }
 
     /**
@@ -144,12 +529,165 @@ public class Connection {
      *             wenn die Anfrage fehlerhaft ist.
      */
     public PreparedStatement prepareStatement(String sql) throws SQLException {
+        recordActivity();
         PreparedStatement statement = rawConnection.prepareStatement(sql);
         statement.setQueryTimeout(5);
         statement.closeOnCompletion();
         return statement;
     }
 
+    /**
+     * Gibt eine zwischengespeicherte vorbereitete Anfrage zurück und bereitet
+     * sie ggf. vor.
+     *
+     * Anders als bei {@link #prepareStatement(String)} wird die Anfrage nach
+     * der Ausführung nicht geschlossen, sondern bei der nächsten Verwendung
+     * ohne erneutes Kompilieren wiederverwendet. Da sich alle Aufrufer
+     * dieselbe Instanz teilen, müssen alle Parameter gesetzt werden und
+     * während des Setzens und der Ausführung muss auf die Anfrage
+     * synchronisiert werden.
+     *
+     * @param sql
+     *            Anfrage, die Platzhalter beinhaltet.
+     * @return vorbereitete Anfrage.
+     * @throws SQLException
+     *             wenn die Anfrage fehlerhaft ist.
+     */
+    public PreparedStatement prepareCachedStatement(String sql) throws SQLException {
+        recordActivity();
+        synchronized (cachedStatements) {
+            PreparedStatement statement = cachedStatements.get(sql);
+            if (statement == null || statement.isClosed()) {
+                statement = rawConnection.prepareStatement(sql);
+                statement.setQueryTimeout(5);
+                cachedStatements.put(sql, statement);
+            }
+            return statement;
+        }
+    }
+
+    /**
+     * Gibt den Hintergrund-Thread der Verbindung zurück und erzeugt ihn ggf.
+     *
+     * Der Thread hat eine niedrige Priorität und hält das Programm nicht am
+     * Leben. Alle Arbeiten werden nacheinander ausgeführt. Nach dem Schließen
+     * der Verbindung werden neue Arbeiten mit einer
+     * {@link java.util.concurrent.RejectedExecutionException} abgelehnt.
+     *
+     * @return Hintergrund-Thread.
+     */
+    public synchronized ScheduledExecutorService getBackgroundExecutor() {
+        if (backgroundExecutor == null) {
+            backgroundExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Connection-Background");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+        return backgroundExecutor;
+    }
+
+    /**
+     * Gibt die Wartung der Datenbank zurück und erzeugt sie ggf.
+     *
+     * Die Wartung muss per {@link MaintenanceService#start()} gestartet
+     * werden.
+     *
+     * @return Wartung der Datenbank.
+     */
+    public synchronized MaintenanceService getMaintenanceService() {
+        if (maintenanceService == null)
+            maintenanceService = new MaintenanceService(this);
+        return maintenanceService;
+    }
+
+    /**
+     * Gibt die Sicherung der Datenbank zurück und erzeugt sie ggf.
+     *
+     * @return Sicherung der Datenbank.
+     */
+    public synchronized BackupService getBackupService() {
+        if (backupService == null)
+            backupService = new BackupService(this);
+        return backupService;
+    }
+
+    /**
+     * Gibt die Zeit seit der letzten Anfrage aus dem Thread der Oberfläche
+     * zurück (siehe {@link #setForegroundThread(Thread)}).
+     *
+     * Arbeiten im Hintergrund können so zurückgestellt werden, solange der
+     * Benutzer aktiv Anfragen auslöst.
+     *
+     * @return Zeit in Millisekunden.
+     */
+    public long getTimeSinceLastForegroundActivity() {
+        return System.currentTimeMillis() - lastForegroundActivity;
+    }
+
+    /**
+     * Merkt sich den aktuellen Zeitpunkt als Aktivität des Benutzers.
+     *
+     * Anfragen aus dem Thread der Oberfläche werden automatisch erfasst. Die
+     * Oberfläche kann weitere Aktivitäten (z. B. Arbeiten, die sie selbst in
+     * den Hintergrund verlagert) mit dieser Methode melden.
+     */
+    public void markForegroundActivity() {
+        lastForegroundActivity = System.currentTimeMillis();
+    }
+
+    /**
+     * Merkt sich den Zeitpunkt einer Anfrage, wenn sie aus dem Thread der
+     * Oberfläche stammt.
+     */
+    private void recordActivity() {
+        if (foregroundThread != null && Thread.currentThread() == foregroundThread)
+            markForegroundActivity();
+    }
+
+    /**
+     * Setter für {@link #foregroundThread}.
+     *
+     * Wird von der {@link com.alexanderthelen.applicationkit.Application} mit
+     * dem JavaFX-Thread aufgerufen. Ohne Thread der Oberfläche (z. B. in
+     * Programmen ohne Oberfläche) gelten Anfragen nie als Aktivität des
+     * Benutzers.
+     *
+     * @param foregroundThread
+     *            Thread der Oberfläche oder {@code null}.
+     */
+    public static void setForegroundThread(Thread foregroundThread) {
+        Connection.foregroundThread = foregroundThread;
+    }
+
+    /**
+     * Aktiviert oder deaktiviert die Analyse der Ausführungspläne aller
+     * SELECT-Anfragen (siehe {@link QueryPlanAnalyzer}).
+     *
+     * Beim Deaktivieren werden die bisherigen Ergebnisse verworfen.
+     *
+     * @param enabled
+     *            {@code true}, wenn die Anfragen analysiert werden sollen.
+     */
+    public void setQueryPlanAnalysisEnabled(boolean enabled) {
+        if (enabled && queryPlanAnalyzer == null) {
+            queryPlanAnalyzer = new QueryPlanAnalyzer(this);
+        } else if (!enabled) {
+            queryPlanAnalyzer = null;
+        }
+    }
+
+    /**
+     * Getter für {@link #queryPlanAnalyzer}.
+     *
+     * @return Analysator der Ausführungspläne oder {@code null}, wenn die
+     *         Analyse nicht aktiviert ist.
+     */
+    public QueryPlanAnalyzer getQueryPlanAnalyzer() {
+        return queryPlanAnalyzer;
+    }
+
     /**
      * Getter für {@link #rawConnection}.
      *
@@ -159,6 +697,24 @@ public class Connection {
         return rawConnection;
     }
 
+    /**
+     * Gibt den Pfad der Datenbankdatei zurück.
+     *
+     * @return Pfad der Datenbankdatei oder {@code null}, wenn die Datenbank
+     *         nur im Arbeitsspeicher liegt.
+     */
+    public String getDatabasePath() {
+        String path = url.startsWith("jdbc:sqlite:") ? url.substring("jdbc:sqlite:".length()) : url;
+        if (path.startsWith("file:"))
+            path = path.substring("file:".length());
+        int indexOfQuery = path.indexOf('?');
+        if (indexOfQuery >= 0)
+            path = path.substring(0, indexOfQuery);
+        if (path.isEmpty() || path.equals(":memory:") || path.startsWith(":resource:"))
+            return null;
+        return path;
+    }
+
     /**
      * Getter für {@link #url}.
      *
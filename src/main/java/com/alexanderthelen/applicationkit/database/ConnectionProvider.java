@@ -0,0 +1,51 @@
+package com.alexanderthelen.applicationkit.database;
+
+import com.alexanderthelen.applicationkit.Application;
+
+import java.sql.SQLException;
+
+/**
+ * Ein {@code ConnectionProvider} liefert die Verbindung, über die eine
+ * {@link Table} oder ein Fenster auf die Datenbank zugreift.
+ *
+ * Ohne eigenen Anbieter wird die Verbindung der {@link Application} verwendet
+ * (siehe {@link #ofApplication()}). Eigene Verbindungen je Fenster oder je
+ * Datenbank stellt {@link ScopedConnectionProvider} bereit.
+ */
+@FunctionalInterface
+public interface ConnectionProvider {
+    /**
+     * Gibt die Verbindung zur Datenbank zurück.
+     *
+     * @return Verbindung zur Datenbank.
+     * @throws SQLException
+     *             wenn keine Verbindung zur Verfügung steht.
+     */
+    Connection getConnection() throws SQLException;
+
+    /**
+     * Erstellt einen Anbieter, der immer dieselbe Verbindung liefert.
+     *
+     * @param connection
+     *            Verbindung zur Datenbank.
+     * @return Anbieter der Verbindung.
+     */
+    static ConnectionProvider of(Connection connection) {
+        return () -> connection;
+    }
+
+    /**
+     * Erstellt einen Anbieter, der die Verbindung der {@link Application}
+     * liefert (siehe {@link Application#getConnection()}).
+     *
+     * @return Anbieter der Verbindung.
+     */
+    static ConnectionProvider ofApplication() {
+        return () -> {
+            Connection connection = Application.getInstance().getConnection();
+            if (connection == null)
+                throw new SQLException("Keine Verbindung zur Datenbank gesetzt.");
+            return connection;
+        };
+    }
+}
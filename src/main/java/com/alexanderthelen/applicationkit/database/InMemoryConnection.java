@@ -0,0 +1,462 @@
+package com.alexanderthelen.applicationkit.database;
+
+import com.alexanderthelen.applicationkit.metrics.MetricRegistry;
+import com.alexanderthelen.applicationkit.metrics.Timer;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteErrorCode;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Die {@code InMemoryConnection} lädt eine Datenbankdatei beim Öffnen in den
+ * Arbeitsspeicher und beantwortet alle Anfragen von dort.
+ *
+ * Sie eignet sich für kleine Datenbanken, bei denen die Latenz des
+ * Datenträgers überwiegt. Änderungen werden per Backup-API von SQLite in die
+ * Datei zurückgeschrieben (siehe {@link #persist()}). Wann das geschieht,
+ * bestimmen {@link #durability}, {@link #persistInterval} und
+ * {@link #changeThreshold}. Beim Schließen der Verbindung und per
+ * {@link #flush()} (z. B. in
+ * {@link com.alexanderthelen.applicationkit.Application#quit()} und beim
+ * Schließen des Hauptfensters, siehe
+ * {@link com.alexanderthelen.applicationkit.Application#flushConnection()})
+ * werden ausstehende Änderungen immer geschrieben.
+ *
+ * Die Datei wird zunächst als temporäre Datei daneben geschrieben und dann
+ * ersetzt, sodass sie auch bei einem Absturz während des Schreibens
+ * konsistent bleibt. Sowohl beim Laden als auch vor dem Ersetzen wird geprüft,
+ * ob die Kopie dasselbe Schema besitzt (siehe {@link #restore(String)}); sonst
+ * wird ein Fehler gemeldet und die Datei nicht angetastet. Die Dauer wird in der Metrik {@code inMemory.persists}
+ * erfasst (siehe {@link MetricRegistry}).
+ */
+public class InMemoryConnection extends Connection {
+    /**
+     * Zeitpunkt, zu dem Änderungen in die Datei geschrieben werden.
+     */
+    public enum Durability {
+        /**
+         * Nur beim Schließen bzw. per {@link InMemoryConnection#flush()}.
+         * Nach einem Absturz fehlen alle Änderungen seit dem Öffnen.
+         */
+        ON_CLOSE,
+        /**
+         * Im Hintergrund nach {@link InMemoryConnection#persistInterval}
+         * Millisekunden oder {@link InMemoryConnection#changeThreshold}
+         * Änderungen. Nach einem Absturz fehlen höchstens die Änderungen seit
+         * dem letzten Schreiben.
+         */
+        ASYNCHRONOUS,
+        /**
+         * Wie {@link #ASYNCHRONOUS}, aber nach
+         * {@link InMemoryConnection#changeThreshold} Änderungen wird die Datei
+         * geschrieben, bevor {@link InMemoryConnection#executeUpdate(String)}
+         * zurückkehrt. Bei einem Schwellwert von {@code 1} ist jede Änderung
+         * sofort dauerhaft.
+         */
+        SYNCHRONOUS
+    }
+
+    /**
+     * Standardabstand zwischen zwei Schreibvorgängen in Millisekunden.
+     */
+    public static final long DEFAULT_PERSIST_INTERVAL = 10000;
+    /**
+     * Standardanzahl der Änderungen, nach denen die Datei geschrieben wird.
+     */
+    public static final int DEFAULT_CHANGE_THRESHOLD = 100;
+
+    /**
+     * Zeitmesser für das Schreiben der Datei.
+     */
+    private static final Timer persistTimer = MetricRegistry.getInstance().getTimer("inMemory.persists");
+
+    /**
+     * Pfad der Datenbankdatei.
+     */
+    private final Path file;
+    /**
+     * Zeitpunkt, zu dem Änderungen in die Datei geschrieben werden.
+     */
+    private volatile Durability durability = Durability.ASYNCHRONOUS;
+    /**
+     * Abstand zwischen zwei Schreibvorgängen in Millisekunden. Bei {@code 0}
+     * wird nicht regelmäßig geschrieben.
+     */
+    private long persistInterval = DEFAULT_PERSIST_INTERVAL;
+    /**
+     * Anzahl der Änderungen, nach denen die Datei geschrieben wird. Bei
+     * {@code 0} wird nicht nach einer Anzahl von Änderungen geschrieben.
+     */
+    private volatile int changeThreshold = DEFAULT_CHANGE_THRESHOLD;
+    /**
+     * Anzahl aller Änderungen der Verbindung (siehe
+     * {@code total_changes()}) beim letzten Schreiben.
+     */
+    private long persistedChanges;
+    /**
+     * Gibt an, ob seit dem letzten Schreiben eine Anfrage per
+     * {@link #executeUpdate(String)} oder
+     * {@link #executeUpdate(PreparedStatement)} ausgeführt wurde. Erfasst auch Änderungen
+     * am Schema, die {@code total_changes()} nicht zählt.
+     */
+    private volatile boolean modified;
+    /**
+     * Gibt an, ob ein Schreiben im Hintergrund bereits geplant ist.
+     */
+    private boolean persistScheduled;
+    /**
+     * Geplantes regelmäßiges Schreiben oder {@code null}.
+     */
+    private ScheduledFuture<?> future;
+
+    /**
+     * Erstellt eine neue {@code InMemoryConnection}-Instanz und lädt die
+     * Datenbankdatei in den Arbeitsspeicher. Existiert die Datei nicht, wird
+     * sie beim ersten Schreiben angelegt.
+     *
+     * @param path
+     *            Pfad der Datenbankdatei.
+     * @throws IOException
+     *             wenn die Validierung fehlschlägt.
+     * @throws SQLException
+     *             wenn die Datei nicht geladen werden kann.
+     */
+    public InMemoryConnection(String path) throws IOException, SQLException {
+        this(path, PragmaProfile.SMALL, null);
+    }
+
+    /**
+     * Erstellt eine neue {@code InMemoryConnection}-Instanz mit einem Profil
+     * der PRAGMA-Einstellungen und lädt die Datenbankdatei in den
+     * Arbeitsspeicher.
+     *
+     * @param path
+     *            Pfad der Datenbankdatei.
+     * @param profile
+     *            Profil der PRAGMA-Einstellungen.
+     * @param pragmaOverrides
+     *            Einstellungen, die die Werte des Profils überschreiben (kann
+     *            {@code null} sein).
+     * @throws IOException
+     *             wenn die Validierung fehlschlägt.
+     * @throws SQLException
+     *             wenn die Datei nicht geladen werden kann.
+     */
+    public InMemoryConnection(String path, PragmaProfile profile, Map<String, String> pragmaOverrides)
+            throws IOException, SQLException {
+        super("jdbc:sqlite::memory:", profile, pragmaOverrides, false);
+        file = Paths.get(path).toAbsolutePath();
+        try {
+            if (Files.exists(file))
+                restore(file.toString());
+            initialize();
+        } catch (SQLException e) {
+            getRawConnection().close();
+            throw e;
+        }
+        persistedChanges = getTotalChanges();
+        schedule();
+    }
+
+    /**
+     * Führt eine INSERT/UPDATE/DELETE-Anfrage aus und schreibt die Datei ggf.
+     * zurück (siehe {@link #changeThreshold}).
+     *
+     * @param sql
+     *            Anfrage, die ausgeführt werden soll.
+     * @return Anzahl der betroffenen Zeilen.
+     * @throws SQLException
+     *             wenn die Anfrage fehlerhaft ist.
+     */
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        int result = super.executeUpdate(sql);
+        updated();
+        return result;
+    }
+
+    /**
+     * Führt eine vorbereitete INSERT/UPDATE/DELETE-Anfrage aus und schreibt
+     * die Datei ggf. zurück (siehe {@link #changeThreshold}).
+     *
+     * @param statement
+     *            Vorbereitete Anfrage dieser Verbindung.
+     * @return Anzahl der betroffenen Zeilen.
+     * @throws SQLException
+     *             wenn die Anfrage fehlerhaft ist.
+     */
+    @Override
+    public int executeUpdate(PreparedStatement statement) throws SQLException {
+        int result = super.executeUpdate(statement);
+        updated();
+        return result;
+    }
+
+    /**
+     * Merkt sich eine Änderung und schreibt die Datei zurück, sobald
+     * {@link #changeThreshold} erreicht ist.
+     *
+     * @throws SQLException
+     *             wenn die Datei synchron nicht geschrieben werden kann.
+     */
+    private void updated() throws SQLException {
+        modified = true;
+        int changeThreshold = this.changeThreshold;
+        if (durability != Durability.ON_CLOSE && changeThreshold > 0 && getPendingChanges() >= changeThreshold) {
+            if (durability == Durability.SYNCHRONOUS) {
+                persist();
+            } else {
+                persistInBackground();
+            }
+        }
+    }
+
+    /**
+     * Schreibt ausstehende Änderungen sofort im aufrufenden Thread in die
+     * Datei.
+     *
+     * @throws SQLException
+     *             wenn die Datei nicht geschrieben werden kann.
+     */
+    public void flush() throws SQLException {
+        if (hasPendingChanges() || !Files.exists(file))
+            persist();
+    }
+
+    /**
+     * Schreibt die Datenbank in die Datei.
+     *
+     * Währenddessen warten Anfragen anderer Threads an diese Verbindung.
+     *
+     * @throws SQLException
+     *             wenn die Datei nicht geschrieben werden kann.
+     */
+    public synchronized void persist() throws SQLException {
+        long start = persistTimer.start();
+        Path copy = null;
+        boolean persisted = false;
+        try {
+            long changes = getTotalChanges();
+            modified = false;
+            copy = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            int result = getRawConnection().unwrap(SQLiteConnection.class).db().backup("main", copy.toString(), null);
+            if (result != SQLiteErrorCode.SQLITE_OK.code)
+                throw new SQLException("Die Datenbank " + file + " konnte nicht geschrieben werden (" + result + ").");
+            try (java.sql.Connection written = DriverManager.getConnection("jdbc:sqlite:" + copy)) {
+                verifyCopy(getRawConnection(), written, file.toString());
+            }
+            try {
+                Files.move(copy, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(copy, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            persistedChanges = changes;
+            persisted = true;
+        } catch (IOException e) {
+            throw new SQLException("Die Datenbank " + file + " konnte nicht geschrieben werden.", e);
+        } finally {
+            if (!persisted)
+                modified = true;
+            if (copy != null)
+                copy.toFile().delete();
+            persistTimer.stop(start);
+        }
+    }
+
+    /**
+     * Plant das Schreiben der Datei auf dem Hintergrund-Thread der Verbindung,
+     * sofern es nicht schon geplant ist.
+     */
+    private synchronized void persistInBackground() {
+        if (persistScheduled)
+            return;
+        try {
+            getBackgroundExecutor().execute(() -> {
+                synchronized (this) {
+                    persistScheduled = false;
+                }
+                persistSafely();
+            });
+            persistScheduled = true;
+        } catch (RejectedExecutionException e) {
+            // Die Verbindung wurde geschlossen.
+        }
+    }
+
+    /**
+     * Schreibt ausstehende Änderungen und protokolliert Fehler, damit das
+     * regelmäßige Schreiben nicht abbricht.
+     */
+    private void persistSafely() {
+        try {
+            if (!isClosed() && hasPendingChanges())
+                persist();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Plant das regelmäßige Schreiben entsprechend {@link #durability} und
+     * {@link #persistInterval} neu.
+     */
+    private synchronized void schedule() {
+        if (future != null)
+            future.cancel(false);
+        future = null;
+        if (durability == Durability.ON_CLOSE || persistInterval <= 0)
+            return;
+        try {
+            future = getBackgroundExecutor().scheduleWithFixedDelay(this::persistSafely, persistInterval,
+                    persistInterval, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Die Verbindung wurde geschlossen.
+        }
+    }
+
+    /**
+     * Schreibt ausstehende Änderungen in die Datei und schließt die
+     * Verbindung.
+     *
+     * @throws SQLException
+     *             wenn die Datei nicht geschrieben oder die Verbindung nicht
+     *             geschlossen werden kann.
+     */
+    @Override
+    public void close() throws SQLException {
+        synchronized (this) {
+            if (future != null)
+                future.cancel(false);
+            future = null;
+        }
+        try {
+            if (!isClosed())
+                flush();
+        } finally {
+            super.close();
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der Änderungen seit dem letzten Schreiben zurück.
+     *
+     * @return Anzahl der geänderten Zeilen.
+     * @throws SQLException
+     *             wenn die Anzahl nicht abgefragt werden kann.
+     */
+    public synchronized long getPendingChanges() throws SQLException {
+        return getTotalChanges() - persistedChanges;
+    }
+
+    /**
+     * Gibt an, ob es Änderungen seit dem letzten Schreiben gibt.
+     *
+     * @return {@code true}, wenn die Datei geschrieben werden muss.
+     * @throws SQLException
+     *             wenn die Anzahl der Änderungen nicht abgefragt werden kann.
+     */
+    private boolean hasPendingChanges() throws SQLException {
+        return modified || getPendingChanges() > 0;
+    }
+
+    /**
+     * Fragt die Anzahl aller Änderungen der Verbindung ab. Dazu zählen auch
+     * Änderungen über {@link #prepareStatement(String)}.
+     *
+     * @return Anzahl der geänderten Zeilen seit dem Öffnen.
+     * @throws SQLException
+     *             wenn die Anzahl nicht abgefragt werden kann.
+     */
+    private long getTotalChanges() throws SQLException {
+        try (Statement statement = getRawConnection().createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT total_changes();")) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Getter für {@link #file}.
+     *
+     * @return Pfad der Datenbankdatei.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Getter für {@link #durability}.
+     *
+     * @return Zeitpunkt, zu dem Änderungen in die Datei geschrieben werden.
+     */
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Setter für {@link #durability}.
+     *
+     * @param durability
+     *            Zeitpunkt, zu dem Änderungen in die Datei geschrieben
+     *            werden.
+     */
+    public void setDurability(Durability durability) {
+        this.durability = durability;
+        schedule();
+    }
+
+    /**
+     * Getter für {@link #persistInterval}.
+     *
+     * @return Abstand zwischen zwei Schreibvorgängen in Millisekunden.
+     */
+    public synchronized long getPersistInterval() {
+        return persistInterval;
+    }
+
+    /**
+     * Setter für {@link #persistInterval}.
+     *
+     * @param persistInterval
+     *            Abstand zwischen zwei Schreibvorgängen in Millisekunden. Bei
+     *            {@code 0} wird nicht regelmäßig geschrieben.
+     */
+    public synchronized void setPersistInterval(long persistInterval) {
+        this.persistInterval = persistInterval;
+        schedule();
+    }
+
+    /**
+     * Getter für {@link #changeThreshold}.
+     *
+     * @return Anzahl der Änderungen, nach denen die Datei geschrieben wird.
+     */
+    public int getChangeThreshold() {
+        return changeThreshold;
+    }
+
+    /**
+     * Setter für {@link #changeThreshold}.
+     *
+     * @param changeThreshold
+     *            Anzahl der Änderungen, nach denen die Datei geschrieben
+     *            wird. Bei {@code 0} wird nicht nach einer Anzahl von
+     *            Änderungen geschrieben.
+     */
+    public void setChangeThreshold(int changeThreshold) {
+        this.changeThreshold = changeThreshold;
+    }
+}
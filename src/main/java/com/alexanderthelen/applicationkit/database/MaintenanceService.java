@@ -0,0 +1,453 @@
+package com.alexanderthelen.applicationkit.database;
+
+import com.alexanderthelen.applicationkit.metrics.Counter;
+import com.alexanderthelen.applicationkit.metrics.MetricRegistry;
+import com.alexanderthelen.applicationkit.metrics.Timer;
+
+import java.io.File;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Der {@code MaintenanceService} pflegt eine Datenbank im Hintergrund.
+ *
+ * Die Wartung läuft in regelmäßigen Abständen auf dem Hintergrund-Thread der
+ * Verbindung (siehe {@link Connection#getBackgroundExecutor()}) und umfasst:
+ * <ul>
+ * <li>Checkpoints der WAL-Datei: Überschreitet sie
+ * {@link #passiveCheckpointThreshold}, wird ein {@code PASSIVE}-Checkpoint
+ * durchgeführt. Überschreitet sie {@link #truncateCheckpointThreshold} und ist
+ * der Benutzer untätig, wird sie per {@code TRUNCATE}-Checkpoint geleert.</li>
+ * <li>Statistiken für den Anfrageplaner: Alle {@link #optimizeInterval}
+ * Millisekunden wird im Leerlauf {@code PRAGMA optimize} bzw. bei älteren
+ * SQLite-Versionen {@code ANALYZE} ausgeführt.</li>
+ * <li>Ein inkrementelles Vacuum im Leerlauf, sofern die Datenbank
+ * {@code PRAGMA auto_vacuum = INCREMENTAL} verwendet. Das ist bei allen
+ * Datenbanken der Fall, die über eine {@link Connection} angelegt werden
+ * (siehe {@link Connection#getPragmas()}).</li>
+ * </ul>
+ * Als untätig gilt der Benutzer, wenn seit {@link #idleDelay} Millisekunden
+ * keine Anfrage aus dem JavaFX-Thread kam (siehe
+ * {@link Connection#getTimeSinceLastForegroundActivity()}).
+ *
+ * Die Größe der WAL-Datei wird in der Metrik {@code maintenance.walSize}, die
+ * Dauer der Checkpoints in {@code maintenance.checkpoints} und die Anzahl der
+ * blockierten Checkpoints in {@code maintenance.busyCheckpoints} erfasst
+ * (siehe {@link MetricRegistry}).
+ */
+public class MaintenanceService {
+    /**
+     * Standardabstand zwischen zwei Wartungen in Millisekunden.
+     */
+    public static final long DEFAULT_INTERVAL = 30000;
+    /**
+     * Standardgröße der WAL-Datei in Bytes, ab der ein
+     * {@code PASSIVE}-Checkpoint durchgeführt wird.
+     */
+    public static final long DEFAULT_PASSIVE_CHECKPOINT_THRESHOLD = 4L * 1024 * 1024;
+    /**
+     * Standardgröße der WAL-Datei in Bytes, ab der im Leerlauf ein
+     * {@code TRUNCATE}-Checkpoint durchgeführt wird.
+     */
+    public static final long DEFAULT_TRUNCATE_CHECKPOINT_THRESHOLD = 64L * 1024 * 1024;
+    /**
+     * Standardzeit ohne Anfragen in Millisekunden, nach der der Benutzer als
+     * untätig gilt.
+     */
+    public static final long DEFAULT_IDLE_DELAY = 5000;
+    /**
+     * Standardabstand zwischen zwei Aktualisierungen der Statistiken in
+     * Millisekunden.
+     */
+    public static final long DEFAULT_OPTIMIZE_INTERVAL = 60L * 60 * 1000;
+    /**
+     * Standardanzahl der Seiten, die pro Wartung per inkrementellem Vacuum
+     * freigegeben werden.
+     */
+    public static final int DEFAULT_INCREMENTAL_VACUUM_PAGES = 1000;
+
+    /**
+     * Zeitmesser für Checkpoints.
+     */
+    private static final Timer checkpointTimer = MetricRegistry.getInstance().getTimer("maintenance.checkpoints");
+    /**
+     * Zähler für Checkpoints, die durch Leser oder Schreiber blockiert wurden.
+     */
+    private static final Counter busyCheckpointCounter = MetricRegistry.getInstance()
+            .getCounter("maintenance.busyCheckpoints");
+    /**
+     * Zeitmesser für das Aktualisieren der Statistiken.
+     */
+    private static final Timer optimizeTimer = MetricRegistry.getInstance().getTimer("maintenance.optimizations");
+    /**
+     * Zeitmesser für inkrementelle Vacuums.
+     */
+    private static final Timer vacuumTimer = MetricRegistry.getInstance().getTimer("maintenance.vacuums");
+
+    /**
+     * Zu pflegende Verbindung.
+     */
+    private final Connection connection;
+    /**
+     * Abstand zwischen zwei Wartungen in Millisekunden.
+     */
+    private long interval = DEFAULT_INTERVAL;
+    /**
+     * Größe der WAL-Datei in Bytes, ab der ein {@code PASSIVE}-Checkpoint
+     * durchgeführt wird.
+     */
+    private volatile long passiveCheckpointThreshold = DEFAULT_PASSIVE_CHECKPOINT_THRESHOLD;
+    /**
+     * Größe der WAL-Datei in Bytes, ab der im Leerlauf ein
+     * {@code TRUNCATE}-Checkpoint durchgeführt wird.
+     */
+    private volatile long truncateCheckpointThreshold = DEFAULT_TRUNCATE_CHECKPOINT_THRESHOLD;
+    /**
+     * Zeit ohne Anfragen in Millisekunden, nach der der Benutzer als untätig
+     * gilt.
+     */
+    private volatile long idleDelay = DEFAULT_IDLE_DELAY;
+    /**
+     * Abstand zwischen zwei Aktualisierungen der Statistiken in Millisekunden.
+     * Bei {@code 0} werden die Statistiken nicht aktualisiert.
+     */
+    private volatile long optimizeInterval = DEFAULT_OPTIMIZE_INTERVAL;
+    /**
+     * Maximale Anzahl der Seiten, die pro Wartung per inkrementellem Vacuum
+     * freigegeben werden. Bei {@code 0} findet kein Vacuum statt.
+     */
+    private volatile int incrementalVacuumPages = DEFAULT_INCREMENTAL_VACUUM_PAGES;
+    /**
+     * Zeitpunkt der letzten Aktualisierung der Statistiken in Millisekunden.
+     */
+    private volatile long lastOptimized;
+    /**
+     * Geplante Wartung oder {@code null}, solange der Dienst nicht läuft.
+     */
+    private ScheduledFuture<?> future;
+
+    /**
+     * Erstellt eine neue {@code MaintenanceService}-Instanz (per
+     * {@link Connection#getMaintenanceService()}).
+     *
+     * @param connection
+     *            Zu pflegende Verbindung.
+     */
+    MaintenanceService(Connection connection) {
+        this.connection = connection;
+        lastOptimized = System.currentTimeMillis();
+    }
+
+    /**
+     * Startet die regelmäßige Wartung.
+     */
+    public synchronized void start() {
+        if (future != null)
+            return;
+        try {
+            future = connection.getBackgroundExecutor().scheduleWithFixedDelay(this::runSafely, interval, interval,
+                    TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Die Verbindung wurde geschlossen.
+            return;
+        }
+        MetricRegistry.getInstance().registerGauge("maintenance.walSize", this::getWALSize);
+    }
+
+    /**
+     * Beendet die regelmäßige Wartung.
+     */
+    public synchronized void stop() {
+        if (future == null)
+            return;
+        future.cancel(false);
+        future = null;
+        MetricRegistry.getInstance().remove("maintenance.walSize");
+    }
+
+    /**
+     * Gibt an, ob die regelmäßige Wartung läuft.
+     *
+     * @return {@code true}, wenn die Wartung läuft.
+     */
+    public synchronized boolean isRunning() {
+        return future != null;
+    }
+
+    /**
+     * Führt die Wartung aus und protokolliert Fehler, damit die regelmäßige
+     * Ausführung nicht abbricht.
+     */
+    private void runSafely() {
+        try {
+            runMaintenance();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Führt eine Wartung sofort im aufrufenden Thread aus.
+     *
+     * @throws SQLException
+     *             wenn eine Anweisung fehlschlägt.
+     */
+    public void runMaintenance() throws SQLException {
+        if (connection.isClosed())
+            return;
+        boolean idle = connection.getTimeSinceLastForegroundActivity() >= idleDelay;
+        long walSize = getWALSize();
+        if (idle && walSize >= truncateCheckpointThreshold) {
+            checkpoint("TRUNCATE");
+        } else if (walSize >= passiveCheckpointThreshold) {
+            checkpoint("PASSIVE");
+        }
+        if (idle && optimizeInterval > 0 && System.currentTimeMillis() - lastOptimized >= optimizeInterval) {
+            optimize();
+        }
+        if (idle && incrementalVacuumPages > 0) {
+            incrementalVacuum();
+        }
+    }
+
+    /**
+     * Führt einen Checkpoint der WAL-Datei durch.
+     *
+     * @param mode
+     *            Modus des Checkpoints ({@code PASSIVE}, {@code FULL},
+     *            {@code RESTART} oder {@code TRUNCATE}).
+     * @return {@code true}, wenn der Checkpoint nicht blockiert wurde.
+     * @throws SQLException
+     *             wenn der Checkpoint fehlschlägt.
+     */
+    public boolean checkpoint(String mode) throws SQLException {
+        long start = checkpointTimer.start();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA wal_checkpoint(" + mode + ");")) {
+            boolean busy = resultSet.next() && resultSet.getInt(1) != 0;
+            if (busy)
+                busyCheckpointCounter.increment();
+            return !busy;
+        } finally {
+            checkpointTimer.stop(start);
+        }
+    }
+
+    /**
+     * Aktualisiert die Statistiken für den Anfrageplaner.
+     *
+     * Ab SQLite 3.18 wird {@code PRAGMA optimize} verwendet, das nur die
+     * nötigen Tabellen analysiert. Ältere Versionen kennen diese Anweisung
+     * nicht, dort wird {@code ANALYZE} ausgeführt.
+     *
+     * @throws SQLException
+     *             wenn die Statistiken nicht aktualisiert werden können.
+     */
+    public void optimize() throws SQLException {
+        long start = optimizeTimer.start();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(supportsOptimize() ? "PRAGMA optimize;" : "ANALYZE;");
+        } finally {
+            optimizeTimer.stop(start);
+        }
+        lastOptimized = System.currentTimeMillis();
+    }
+
+    /**
+     * Gibt freie Seiten der Datenbank per inkrementellem Vacuum frei.
+     *
+     * Verwendet die Datenbank nicht {@code PRAGMA auto_vacuum = INCREMENTAL},
+     * passiert nichts.
+     *
+     * @throws SQLException
+     *             wenn das Vacuum fehlschlägt.
+     */
+    public void incrementalVacuum() throws SQLException {
+        if (getPragma("auto_vacuum") != 2 || getPragma("freelist_count") == 0)
+            return;
+        long start = vacuumTimer.start();
+        try (Statement statement = connection.createStatement()) {
+            // execute() führt nur den ersten Schritt aus und gibt damit nur
+            // eine Seite frei.
+            statement.executeUpdate("PRAGMA incremental_vacuum(" + incrementalVacuumPages + ");");
+        } finally {
+            vacuumTimer.stop(start);
+        }
+    }
+
+    /**
+     * Gibt die Größe der WAL-Datei zurück.
+     *
+     * @return Größe in Bytes oder {@code 0}, wenn es keine WAL-Datei gibt.
+     */
+    public long getWALSize() {
+        String path = connection.getDatabasePath();
+        if (path == null)
+            return 0;
+        return new File(path + "-wal").length();
+    }
+
+    /**
+     * Gibt an, ob die verwendete SQLite-Version {@code PRAGMA optimize} kennt.
+     *
+     * @return {@code true} ab SQLite 3.18.
+     * @throws SQLException
+     *             wenn die Version nicht abgefragt werden kann.
+     */
+    private boolean supportsOptimize() throws SQLException {
+        String[] version = connection.getRawConnection().getMetaData().getDatabaseProductVersion().split("\\.");
+        int major = Integer.parseInt(version[0]);
+        int minor = version.length > 1 ? Integer.parseInt(version[1]) : 0;
+        return major > 3 || (major == 3 && minor >= 18);
+    }
+
+    /**
+     * Fragt einen ganzzahligen PRAGMA-Wert ab.
+     *
+     * @param name
+     *            Name des PRAGMA.
+     * @return Wert.
+     * @throws SQLException
+     *             wenn der Wert nicht abgefragt werden kann.
+     */
+    private long getPragma(String name) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA " + name + ";")) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Getter für {@link #interval}.
+     *
+     * @return Abstand zwischen zwei Wartungen in Millisekunden.
+     */
+    public synchronized long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Setter für {@link #interval}.
+     *
+     * Läuft der Dienst bereits, wird er mit dem neuen Abstand neu gestartet.
+     *
+     * @param interval
+     *            Abstand zwischen zwei Wartungen in Millisekunden.
+     */
+    public synchronized void setInterval(long interval) {
+        this.interval = interval;
+        if (future != null) {
+            stop();
+            start();
+        }
+    }
+
+    /**
+     * Getter für {@link #passiveCheckpointThreshold}.
+     *
+     * @return Größe der WAL-Datei in Bytes, ab der ein
+     *         {@code PASSIVE}-Checkpoint durchgeführt wird.
+     */
+    public long getPassiveCheckpointThreshold() {
+        return passiveCheckpointThreshold;
+    }
+
+    /**
+     * Setter für {@link #passiveCheckpointThreshold}.
+     *
+     * @param passiveCheckpointThreshold
+     *            Größe der WAL-Datei in Bytes, ab der ein
+     *            {@code PASSIVE}-Checkpoint durchgeführt wird.
+     */
+    public void setPassiveCheckpointThreshold(long passiveCheckpointThreshold) {
+        this.passiveCheckpointThreshold = passiveCheckpointThreshold;
+    }
+
+    /**
+     * Getter für {@link #truncateCheckpointThreshold}.
+     *
+     * @return Größe der WAL-Datei in Bytes, ab der im Leerlauf ein
+     *         {@code TRUNCATE}-Checkpoint durchgeführt wird.
+     */
+    public long getTruncateCheckpointThreshold() {
+        return truncateCheckpointThreshold;
+    }
+
+    /**
+     * Setter für {@link #truncateCheckpointThreshold}.
+     *
+     * @param truncateCheckpointThreshold
+     *            Größe der WAL-Datei in Bytes, ab der im Leerlauf ein
+     *            {@code TRUNCATE}-Checkpoint durchgeführt wird.
+     */
+    public void setTruncateCheckpointThreshold(long truncateCheckpointThreshold) {
+        this.truncateCheckpointThreshold = truncateCheckpointThreshold;
+    }
+
+    /**
+     * Getter für {@link #idleDelay}.
+     *
+     * @return Zeit ohne Anfragen in Millisekunden, nach der der Benutzer als
+     *         untätig gilt.
+     */
+    public long getIdleDelay() {
+        return idleDelay;
+    }
+
+    /**
+     * Setter für {@link #idleDelay}.
+     *
+     * @param idleDelay
+     *            Zeit ohne Anfragen in Millisekunden, nach der der Benutzer
+     *            als untätig gilt.
+     */
+    public void setIdleDelay(long idleDelay) {
+        this.idleDelay = idleDelay;
+    }
+
+    /**
+     * Getter für {@link #optimizeInterval}.
+     *
+     * @return Abstand zwischen zwei Aktualisierungen der Statistiken in
+     *         Millisekunden.
+     */
+    public long getOptimizeInterval() {
+        return optimizeInterval;
+    }
+
+    /**
+     * Setter für {@link #optimizeInterval}.
+     *
+     * @param optimizeInterval
+     *            Abstand zwischen zwei Aktualisierungen der Statistiken in
+     *            Millisekunden. Bei {@code 0} werden die Statistiken nicht
+     *            aktualisiert.
+     */
+    public void setOptimizeInterval(long optimizeInterval) {
+        this.optimizeInterval = optimizeInterval;
+    }
+
+    /**
+     * Getter für {@link #incrementalVacuumPages}.
+     *
+     * @return Maximale Anzahl der Seiten, die pro Wartung freigegeben werden.
+     */
+    public int getIncrementalVacuumPages() {
+        return incrementalVacuumPages;
+    }
+
+    /**
+     * Setter für {@link #incrementalVacuumPages}.
+     *
+     * @param incrementalVacuumPages
+     *            Maximale Anzahl der Seiten, die pro Wartung freigegeben
+     *            werden. Bei {@code 0} findet kein Vacuum statt.
+     */
+    public void setIncrementalVacuumPages(int incrementalVacuumPages) {
+        this.incrementalVacuumPages = incrementalVacuumPages;
+    }
+}
@@ -0,0 +1,151 @@
+package com.alexanderthelen.applicationkit.database;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.LinkedHashMap;
+
+/**
+ * Profile der PRAGMA-Einstellungen, mit denen eine {@link Connection}
+ * geöffnet wird.
+ *
+ * Jedes Profil ergänzt die Grundeinstellungen (siehe
+ * {@link Connection#initialize()}) um {@code cache_size}, {@code mmap_size},
+ * {@code temp_store} und ggf. {@code synchronous}. Einzelne Werte können beim
+ * Öffnen überschrieben werden (siehe
+ * {@link Connection#Connection(String, PragmaProfile, java.util.Map)}).
+ */
+public enum PragmaProfile {
+    /**
+     * Standardwerte von SQLite (2 MiB Seitencache, kein Memory-Mapping) für
+     * kleine Datenbanken.
+     */
+    SMALL("-2000", "0", "DEFAULT", null),
+    /**
+     * Desktop-Programme mit großen Datenbanken (64 MiB Seitencache, 256 MiB
+     * Memory-Mapping, temporäre Daten im Arbeitsspeicher).
+     */
+    DESKTOP("-65536", "268435456", "MEMORY", null),
+    /**
+     * Wie {@link #DESKTOP}, aber Seitencache und Memory-Mapping werden anhand
+     * der Größe der Datenbankdatei und des verfügbaren Arbeitsspeichers
+     * bemessen (siehe {@link #getPragmas(String)}).
+     */
+    AUTO("-65536", "268435456", "MEMORY", null),
+    /**
+     * Massenimport (256 MiB Seitencache, ohne Synchronisierung mit dem
+     * Datenträger). Nach einem Absturz können die zuletzt importierten Daten
+     * fehlen, die Datenbank bleibt aber konsistent.
+     */
+    BULK_LOAD("-262144", "268435456", "MEMORY", "OFF"),
+    /**
+     * Geräte mit wenig Arbeitsspeicher (512 KiB Seitencache, kein
+     * Memory-Mapping, temporäre Daten in Dateien).
+     */
+    LOW_MEMORY("-512", "0", "FILE", null);
+
+    /**
+     * Maximale Größe des Seitencaches in KiB bei {@link #AUTO}.
+     */
+    private static final long MAXIMUM_AUTO_CACHE_SIZE = 512L * 1024;
+    /**
+     * Maximale Größe des Memory-Mappings in Bytes bei {@link #AUTO}.
+     */
+    private static final long MAXIMUM_AUTO_MMAP_SIZE = 1024L * 1024 * 1024;
+
+    /**
+     * Wert von {@code PRAGMA cache_size}.
+     */
+    private final String cacheSize;
+    /**
+     * Wert von {@code PRAGMA mmap_size}.
+     */
+    private final String mmapSize;
+    /**
+     * Wert von {@code PRAGMA temp_store}.
+     */
+    private final String tempStore;
+    /**
+     * Wert von {@code PRAGMA synchronous} oder {@code null}, wenn die
+     * Grundeinstellung gilt.
+     */
+    private final String synchronous;
+
+    /**
+     * Erstellt ein Profil.
+     *
+     * @param cacheSize
+     *            Wert von {@code PRAGMA cache_size}.
+     * @param mmapSize
+     *            Wert von {@code PRAGMA mmap_size}.
+     * @param tempStore
+     *            Wert von {@code PRAGMA temp_store}.
+     * @param synchronous
+     *            Wert von {@code PRAGMA synchronous} oder {@code null}.
+     */
+    PragmaProfile(String cacheSize, String mmapSize, String tempStore, String synchronous) {
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+        this.tempStore = tempStore;
+        this.synchronous = synchronous;
+    }
+
+    /**
+     * Gibt die Einstellungen des Profils zurück.
+     *
+     * @param databasePath
+     *            Pfad der Datenbankdatei oder {@code null} (nur für
+     *            {@link #AUTO} relevant).
+     * @return Einstellungen mit dem Namen des PRAGMA als Schlüssel.
+     */
+    public LinkedHashMap<String, String> getPragmas(String databasePath) {
+        LinkedHashMap<String, String> pragmas = new LinkedHashMap<>();
+        pragmas.put("cache_size", cacheSize);
+        pragmas.put("mmap_size", mmapSize);
+        pragmas.put("temp_store", tempStore);
+        if (synchronous != null)
+            pragmas.put("synchronous", synchronous);
+        if (this == AUTO && databasePath != null)
+            tune(pragmas, new File(databasePath).length());
+        return pragmas;
+    }
+
+    /**
+     * Bemisst Seitencache und Memory-Mapping anhand der Größe der
+     * Datenbankdatei und des Arbeitsspeichers.
+     *
+     * Das Memory-Mapping umfasst die ganze Datei plus 25 % Reserve, höchstens
+     * aber ein Viertel des Arbeitsspeichers und 1 GiB. Der Seitencache umfasst
+     * ein Viertel der Datei, höchstens aber ein Sechzehntel des
+     * Arbeitsspeichers und 512 MiB. Kleinere Werte als die von {@link #SMALL}
+     * werden nicht verwendet.
+     *
+     * @param pragmas
+     *            Einstellungen, die angepasst werden.
+     * @param fileSize
+     *            Größe der Datenbankdatei in Bytes.
+     */
+    private static void tune(LinkedHashMap<String, String> pragmas, long fileSize) {
+        long memory = getPhysicalMemory();
+        long mmapSize = Math.min(fileSize + fileSize / 4, Math.min(memory / 4, MAXIMUM_AUTO_MMAP_SIZE));
+        long cacheSize = Math.min(fileSize / 4 / 1024, Math.min(memory / 16 / 1024, MAXIMUM_AUTO_CACHE_SIZE));
+        pragmas.put("cache_size", String.valueOf(-Math.max(cacheSize, 2000)));
+        pragmas.put("mmap_size", String.valueOf(Math.max(mmapSize, 0)));
+    }
+
+    /**
+     * Gibt die Größe des Arbeitsspeichers zurück.
+     *
+     * @return Größe des physischen Arbeitsspeichers in Bytes oder, falls sie
+     *         nicht ermittelt werden kann, die maximale Größe des Heaps.
+     */
+    // getTotalPhysicalMemorySize() ist erst ab Java 14 zugunsten von
+    // getTotalMemorySize() veraltet, das es unter Java 8 noch nicht gibt.
+    @SuppressWarnings("deprecation")
+    private static long getPhysicalMemory() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean)
+            return ((com.sun.management.OperatingSystemMXBean) bean).getTotalPhysicalMemorySize();
+        return Runtime.getRuntime().maxMemory();
+    }
+}
@@ -0,0 +1,390 @@
+package com.alexanderthelen.applicationkit.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Der {@code QueryPlanAnalyzer} ist ein Diagnosewerkzeug, das für jede
+ * ausgeführte Anfrage den Ausführungsplan ({@code EXPLAIN QUERY PLAN}) erfasst.
+ *
+ * Vollständige Durchläufe ({@code SCAN}) über große Datenbanktabellen und
+ * automatische Indizes, die SQLite bei jeder Anfrage neu erstellt (siehe
+ * {@code PRAGMA automatic_index} in {@link Connection#initialize()}), werden
+ * markiert. Zu diesen Anfragen werden passende {@code CREATE INDEX}-Anweisungen
+ * vorgeschlagen. Jede Anfrage wird nur einmal analysiert. Der Bericht kann pro
+ * {@link Table} (siehe {@link #getReportForTable(Table)}) oder insgesamt
+ * (siehe {@link #getReport()}) abgerufen werden.
+ *
+ * Der Analysator wird über
+ * {@link Connection#setQueryPlanAnalysisEnabled(boolean)} aktiviert und ist
+ * nur für die Entwicklung gedacht.
+ */
+public class QueryPlanAnalyzer {
+    /**
+     * Muster für einen vollständigen Durchlauf einer Datenbanktabelle.
+     *
+     * Ältere SQLite-Versionen geben {@code SCAN TABLE name [AS alias]} aus,
+     * neuere {@code SCAN name}.
+     */
+    private static final Pattern SCAN_PATTERN = Pattern
+            .compile("^SCAN (?:TABLE )?(\\S+)(?: AS (\\S+))?(.*)$", Pattern.CASE_INSENSITIVE);
+    /**
+     * Muster für einen automatischen Index, den SQLite für eine Anfrage
+     * temporär erstellt.
+     */
+    private static final Pattern AUTOMATIC_INDEX_PATTERN = Pattern.compile(
+            "^SEARCH (?:TABLE )?(\\S+)(?: AS (\\S+))? USING AUTOMATIC (?:COVERING |PARTIAL )*INDEX \\((.*)\\)",
+            Pattern.CASE_INSENSITIVE);
+    /**
+     * Muster für einen Tabellennamen mit optionalem Alias in FROM- und
+     * JOIN-Klauseln.
+     */
+    private static final Pattern FROM_PATTERN = Pattern.compile(
+            "\\b(?:FROM|JOIN)\\s+[\"`\\[]?(\\w+)[\"`\\]]?(?:\\s+(?:AS\\s+)?(?!WHERE\\b|ON\\b|JOIN\\b|LEFT\\b|INNER\\b|CROSS\\b|NATURAL\\b|GROUP\\b|ORDER\\b|LIMIT\\b|USING\\b)(\\w+))?",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Verbindung, deren Anfragen analysiert werden.
+     */
+    private final Connection connection;
+    /**
+     * Anzahl der Zeilen, ab der eine Datenbanktabelle als groß gilt.
+     */
+    private long largeTableThreshold = 10000;
+    /**
+     * Ausführungspläne aller bisher analysierten Anfragen.
+     */
+    private final LinkedHashMap<String, ArrayList<String>> plans = new LinkedHashMap<>();
+    /**
+     * Analysierte Anfragen, gruppiert nach der Tabelle, die sie ausgeführt
+     * hat. Anfragen ohne zugehörige Tabelle stehen unter dem Schlüssel
+     * {@code null}.
+     */
+    private final LinkedHashMap<String, LinkedHashSet<String>> queriesByTable = new LinkedHashMap<>();
+    /**
+     * Zwischenspeicher für die Anzahl der Zeilen einer Datenbanktabelle.
+     */
+    private final HashMap<String, Long> rowCounts = new HashMap<>();
+
+    /**
+     * Erstellt eine neue {@code QueryPlanAnalyzer}-Instanz für eine
+     * Verbindung.
+     *
+     * @param connection
+     *            Verbindung, deren Anfragen analysiert werden.
+     */
+    public QueryPlanAnalyzer(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Analysiert eine Anfrage, sofern dies noch nicht geschehen ist.
+     *
+     * Fehler bei der Analyse werden im Ausführungsplan vermerkt und nicht
+     * weitergegeben, damit die eigentliche Anfrage nicht beeinträchtigt wird.
+     *
+     * @param sql
+     *            Anfrage.
+     * @param table
+     *            Tabelle, die die Anfrage ausführt (kann {@code null} sein).
+     */
+    public synchronized void analyze(String sql, Table table) {
+        if (sql == null)
+            return;
+        String nameOfTable = table == null ? null : table.getClass().getName();
+        if (nameOfTable != null || !plans.containsKey(sql)) {
+            queriesByTable.computeIfAbsent(nameOfTable, key -> new LinkedHashSet<>()).add(sql);
+        }
+        if (plans.containsKey(sql))
+            return;
+
+        ArrayList<String> plan = new ArrayList<>();
+        try {
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("EXPLAIN QUERY PLAN " + sql);
+            while (resultSet.next()) {
+                plan.add(resultSet.getString("detail"));
+            }
+            resultSet.close();
+        } catch (SQLException e) {
+            plan.add("Analyse fehlgeschlagen: " + e.getMessage());
+        }
+        plans.put(sql, plan);
+    }
+
+    /**
+     * Gibt den Ausführungsplan einer bereits analysierten Anfrage zurück.
+     *
+     * @param sql
+     *            Anfrage.
+     * @return Ausführungsplan oder {@code null}, wenn die Anfrage noch nicht
+     *         analysiert wurde.
+     */
+    public synchronized ArrayList<String> getPlan(String sql) {
+        return plans.get(sql);
+    }
+
+    /**
+     * Gibt alle bedenklichen Schritte des Ausführungsplans einer Anfrage
+     * zurück.
+     *
+     * Bedenklich sind vollständige Durchläufe über große Datenbanktabellen
+     * (siehe {@link #largeTableThreshold}) und automatische Indizes.
+     *
+     * @param sql
+     *            Anfrage.
+     * @return Liste der bedenklichen Schritte.
+     */
+    public synchronized ArrayList<String> getWarnings(String sql) {
+        ArrayList<String> warnings = new ArrayList<>();
+        ArrayList<String> plan = plans.get(sql);
+        if (plan == null)
+            return warnings;
+        for (String detail : plan) {
+            Matcher scan = SCAN_PATTERN.matcher(detail);
+            if (scan.matches() && !scan.group(3).toUpperCase(Locale.ROOT).contains("USING")) {
+                String nameOfTable = resolveTableName(sql, scan.group(1));
+                long rowCount = getRowCount(nameOfTable);
+                if (rowCount >= largeTableThreshold) {
+                    warnings.add(detail + " (" + rowCount + " Zeilen)");
+                }
+            } else if (AUTOMATIC_INDEX_PATTERN.matcher(detail).find()) {
+                warnings.add(detail);
+            }
+        }
+        return warnings;
+    }
+
+    /**
+     * Schlägt {@code CREATE INDEX}-Anweisungen für eine Anfrage vor.
+     *
+     * Bei automatischen Indizes werden die von SQLite gewählten Spalten
+     * übernommen. Bei vollständigen Durchläufen werden die Spalten der
+     * Datenbanktabelle vorgeschlagen, die in WHERE-, ON- oder ORDER-BY-Klauseln
+     * vorkommen.
+     *
+     * @param sql
+     *            Anfrage.
+     * @return Liste der vorgeschlagenen Anweisungen.
+     */
+    public synchronized ArrayList<String> suggestIndexes(String sql) {
+        LinkedHashSet<String> suggestions = new LinkedHashSet<>();
+        ArrayList<String> plan = plans.get(sql);
+        if (plan == null)
+            return new ArrayList<>();
+        for (String detail : plan) {
+            ArrayList<String> columns = new ArrayList<>();
+            String nameOfTable;
+            Matcher automaticIndex = AUTOMATIC_INDEX_PATTERN.matcher(detail);
+            Matcher scan = SCAN_PATTERN.matcher(detail);
+            if (automaticIndex.find()) {
+                nameOfTable = resolveTableName(sql, automaticIndex.group(1));
+                for (String term : automaticIndex.group(3).split(" AND ")) {
+                    columns.add(term.replaceAll("[<>=?\\s]", ""));
+                }
+            } else if (scan.matches() && !scan.group(3).toUpperCase(Locale.ROOT).contains("USING")) {
+                nameOfTable = resolveTableName(sql, scan.group(1));
+                if (getRowCount(nameOfTable) < largeTableThreshold)
+                    continue;
+                String alias = scan.group(2) != null ? scan.group(2) : scan.group(1);
+                columns.addAll(getFilteredColumns(sql, nameOfTable, alias));
+            } else {
+                continue;
+            }
+            if (columns.isEmpty())
+                continue;
+            suggestions.add("CREATE INDEX IF NOT EXISTS \"idx_" + nameOfTable + "_" + String.join("_", columns)
+                    + "\" ON \"" + nameOfTable + "\" (\"" + String.join("\", \"", columns) + "\");");
+        }
+        return new ArrayList<>(suggestions);
+    }
+
+    /**
+     * Gibt einen Bericht über alle Anfragen einer Tabelle zurück.
+     *
+     * Zusätzlich zu den bisher ausgeführten Anfragen wird die aktuelle
+     * Select-Anfrage der Tabelle (siehe
+     * {@link Table#getSelectQueryForTableWithFilter(String)}) analysiert.
+     *
+     * @param table
+     *            Tabelle.
+     * @return Bericht.
+     */
+    public synchronized String getReportForTable(Table table) {
+        try {
+            analyze(table.getSelectQueryForTableWithFilter(table.getFilter()), table);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        StringBuilder report = new StringBuilder();
+        appendReport(report, table.getClass().getName(), queriesByTable.get(table.getClass().getName()));
+        return report.toString();
+    }
+
+    /**
+     * Gibt einen Bericht über alle bisher analysierten Anfragen zurück.
+     *
+     * @return Bericht.
+     */
+    public synchronized String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, LinkedHashSet<String>> entry : queriesByTable.entrySet()) {
+            appendReport(report, entry.getKey() == null ? "Sonstige Anfragen" : entry.getKey(), entry.getValue());
+        }
+        return report.toString();
+    }
+
+    /**
+     * Verwirft alle bisher analysierten Anfragen.
+     */
+    public synchronized void clear() {
+        plans.clear();
+        queriesByTable.clear();
+        rowCounts.clear();
+    }
+
+    /**
+     * Hängt den Bericht zu einer Liste von Anfragen an.
+     *
+     * @param report
+     *            Bericht, an den angehängt wird.
+     * @param title
+     *            Überschrift des Abschnitts.
+     * @param queries
+     *            Anfragen (kann {@code null} sein).
+     */
+    private void appendReport(StringBuilder report, String title, LinkedHashSet<String> queries) {
+        report.append("== ").append(title).append(" ==\n");
+        if (queries == null || queries.isEmpty()) {
+            report.append("Keine Anfragen erfasst.\n\n");
+            return;
+        }
+        for (String sql : queries) {
+            report.append(sql).append('\n');
+            for (String detail : plans.get(sql)) {
+                report.append("  ").append(detail).append('\n');
+            }
+            for (String warning : getWarnings(sql)) {
+                report.append("  WARNUNG: ").append(warning).append('\n');
+            }
+            for (String suggestion : suggestIndexes(sql)) {
+                report.append("  VORSCHLAG: ").append(suggestion).append('\n');
+            }
+            report.append('\n');
+        }
+    }
+
+    /**
+     * Löst einen Namen aus dem Ausführungsplan, der auch ein Alias sein kann,
+     * zum Namen der Datenbanktabelle auf.
+     *
+     * @param sql
+     *            Anfrage.
+     * @param name
+     *            Name oder Alias.
+     * @return Name der Datenbanktabelle.
+     */
+    private String resolveTableName(String sql, String name) {
+        Matcher matcher = FROM_PATTERN.matcher(sql);
+        while (matcher.find()) {
+            if (name.equalsIgnoreCase(matcher.group(2)))
+                return matcher.group(1);
+        }
+        return name;
+    }
+
+    /**
+     * Gibt die Spalten einer Datenbanktabelle zurück, die in WHERE-, ON- oder
+     * ORDER-BY-Klauseln der Anfrage vorkommen.
+     *
+     * @param sql
+     *            Anfrage.
+     * @param nameOfTable
+     *            Name der Datenbanktabelle.
+     * @param alias
+     *            Alias der Datenbanktabelle in der Anfrage.
+     * @return Liste der Spalten.
+     */
+    private ArrayList<String> getFilteredColumns(String sql, String nameOfTable, String alias) {
+        ArrayList<String> columns = new ArrayList<>();
+        Matcher clause = Pattern.compile("\\b(WHERE|ON|ORDER\\s+BY)\\b", Pattern.CASE_INSENSITIVE).matcher(sql);
+        if (!clause.find())
+            return columns;
+        String conditions = sql.substring(clause.start());
+        try {
+            ResultSet resultSet = connection.createStatement()
+                    .executeQuery("PRAGMA table_info(\"" + nameOfTable + "\");");
+            while (resultSet.next()) {
+                String name = resultSet.getString("name");
+                Pattern qualified = Pattern.compile("\\b(?:" + Pattern.quote(nameOfTable) + "|" + Pattern.quote(alias)
+                        + ")\\.[\"`\\[]?" + Pattern.quote(name) + "\\b", Pattern.CASE_INSENSITIVE);
+                Pattern unqualified = Pattern.compile("(?<![.\\w])[\"`\\[]?" + Pattern.quote(name) + "\\b",
+                        Pattern.CASE_INSENSITIVE);
+                if (qualified.matcher(conditions).find()
+                        || (!sql.matches("(?is).*\\bJOIN\\b.*") && unqualified.matcher(conditions).find())) {
+                    columns.add(name);
+                }
+            }
+            resultSet.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return columns;
+    }
+
+    /**
+     * Gibt die Anzahl der Zeilen einer Datenbanktabelle zurück.
+     *
+     * Das Ergebnis wird zwischengespeichert.
+     *
+     * @param nameOfTable
+     *            Name der Datenbanktabelle.
+     * @return Anzahl der Zeilen oder {@code -1}, wenn sie nicht ermittelt
+     *         werden kann.
+     */
+    private long getRowCount(String nameOfTable) {
+        Long rowCount = rowCounts.get(nameOfTable);
+        if (rowCount != null)
+            return rowCount;
+        rowCount = -1L;
+        try {
+            ResultSet resultSet = connection.createStatement()
+                    .executeQuery("SELECT COUNT(*) FROM \"" + nameOfTable + "\";");
+            if (resultSet.next())
+                rowCount = resultSet.getLong(1);
+            resultSet.close();
+        } catch (SQLException e) {
+            // Kein Name einer Datenbanktabelle (z.B. eine Unterabfrage).
+        }
+        rowCounts.put(nameOfTable, rowCount);
+        return rowCount;
+    }
+
+    /**
+     * Getter für {@link #largeTableThreshold}.
+     *
+     * @return Anzahl der Zeilen, ab der eine Datenbanktabelle als groß gilt.
+     */
+    public long getLargeTableThreshold() {
+        return largeTableThreshold;
+    }
+
+    /**
+     * Setter für {@link #largeTableThreshold}.
+     *
+     * @param largeTableThreshold
+     *            Anzahl der Zeilen, ab der eine Datenbanktabelle als groß gilt.
+     */
+    public synchronized void setLargeTableThreshold(long largeTableThreshold) {
+        this.largeTableThreshold = largeTableThreshold;
+    }
+}
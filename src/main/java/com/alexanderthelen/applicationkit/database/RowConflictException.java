@@ -0,0 +1,53 @@
+package com.alexanderthelen.applicationkit.database;
+
+import java.sql.SQLException;
+
+/**
+ * Eine {@code RowConflictException} wird ausgelöst, wenn eine Zeile seit dem
+ * Laden von einer anderen Verbindung geändert oder gelöscht wurde.
+ *
+ * Tabellen mit optimistischer Sperre (siehe
+ * {@link SchemaTable#setOptimisticLocking(boolean)}) erkennen den Konflikt in
+ * der Bedingung der Update- bzw. Delete-Anfrage: Trifft die Anfrage keine
+ * Zeile, stimmen die geladenen Daten nicht mehr mit der Datenbank überein.
+ * Die Zeile sollte dann neu geladen (siehe {@link Table#fetchRow(Data)}) und
+ * die Änderung erneut angewandt werden.
+ */
+public class RowConflictException extends SQLException {
+    /**
+     * Version der serialisierten Form.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * SQLState eines Konflikts (Abbruch wegen Serialisierung).
+     */
+    public static final String SQL_STATE = "40001";
+
+    /**
+     * Daten, mit denen die Zeile geladen wurde.
+     */
+    private final Data expectedData;
+
+    /**
+     * Erstellt eine neue {@code RowConflictException}-Instanz.
+     *
+     * @param message
+     *            Nachricht.
+     * @param expectedData
+     *            Daten, mit denen die Zeile geladen wurde.
+     */
+    public RowConflictException(String message, Data expectedData) {
+        super(message, SQL_STATE);
+        this.expectedData = expectedData;
+    }
+
+    /**
+     * Getter für {@link #expectedData}.
+     *
+     * @return Daten, mit denen die Zeile geladen wurde.
+     */
+    public Data getExpectedData() {
+        return expectedData;
+    }
+}
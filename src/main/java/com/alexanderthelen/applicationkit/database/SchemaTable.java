@@ -0,0 +1,446 @@
+package com.alexanderthelen.applicationkit.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Die {@code SchemaTable} ist eine {@link Table} über genau einer
+ * Datenbanktabelle, die ihre Anfragen aus dem Schema der Datenbanktabelle
+ * erzeugt.
+ *
+ * Spalten und Primärschlüssel werden per {@code PRAGMA table_info} ermittelt.
+ * Einfügen, Aktualisieren und Löschen verwenden vorbereitete Anfragen mit
+ * Platzhaltern, die je Verbindung zwischengespeichert werden (siehe
+ * {@link Connection#prepareCachedStatement(String)}). Die Werte aus
+ * {@link Data} werden direkt gebunden, sodass die Anfragen nur einmal
+ * kompiliert werden und keine Werte in SQL eingesetzt werden müssen. Hat die
+ * Datenbanktabelle keinen Primärschlüssel, werden Zeilen über alle Spalten
+ * identifiziert.
+ *
+ * Mit optimistischer Sperre (siehe {@link #setOptimisticLocking(boolean)})
+ * enthält die Bedingung beim Aktualisieren und Löschen zusätzlich die
+ * geladenen Werte: die Versionsspalte (siehe {@link #setVersionColumn(String)})
+ * oder, ohne Versionsspalte, alle geladenen Spalten. Trifft die Anfrage keine
+ * Zeile, wird eine {@link RowConflictException} ausgelöst. Eine
+ * Aktualisierung, deren Daten keine Spalte der Datenbanktabelle enthalten, löst
+ * eine {@link SQLException} aus.
+ *
+ * Für Tabellen, die mehrere Datenbanktabellen verbinden, muss weiterhin eine
+ * eigene Unterklasse von {@link Table} implementiert werden.
+ */
+public class SchemaTable extends Table {
+    /**
+     * Name der Datenbanktabelle.
+     */
+    private final String nameOfTable;
+    /**
+     * Namen aller Spalten der Datenbanktabelle oder {@code null}, solange das
+     * Schema nicht gelesen wurde.
+     */
+    private ArrayList<String> namesOfColumns;
+    /**
+     * Namen der Spalten, die eine Zeile identifizieren.
+     */
+    private ArrayList<String> namesOfKeyColumns;
+    /**
+     * Verbindung, von der das Schema gelesen wurde.
+     */
+    private Connection introspectedConnection;
+    /**
+     * Name der Versionsspalte oder {@code null}, wenn es keine gibt.
+     *
+     * Die Versionsspalte wird bei jeder Aktualisierung um eins erhöht.
+     */
+    private String versionColumn;
+    /**
+     * Gibt an, ob Änderungen anderer Verbindungen beim Aktualisieren und
+     * Löschen erkannt werden.
+     */
+    private boolean optimisticLocking;
+
+    /**
+     * Erstellt eine neue {@code SchemaTable}-Instanz mit dem Namen einer
+     * Datenbanktabelle. Der Name ist gleichzeitig der Titel.
+     *
+     * @param nameOfTable
+     *            Name der Datenbanktabelle.
+     */
+    public SchemaTable(String nameOfTable) {
+        this(nameOfTable, nameOfTable);
+    }
+
+    /**
+     * Erstellt eine neue {@code SchemaTable}-Instanz mit dem Namen einer
+     * Datenbanktabelle und einem Titel.
+     *
+     * @param nameOfTable
+     *            Name der Datenbanktabelle.
+     * @param title
+     *            Titel der Tabelle.
+     */
+    public SchemaTable(String nameOfTable, String title) {
+        this.nameOfTable = nameOfTable;
+        setTitle(title);
+    }
+
+    /**
+     * Liest die Spalten und Primärschlüssel der Datenbanktabelle, sofern sie
+     * für die aktuelle Verbindung noch nicht bekannt sind.
+     *
+     * @return Verbindung, von der das Schema gelesen wurde.
+     * @throws SQLException
+     *             wenn die Datenbanktabelle nicht existiert.
+     */
+    private synchronized Connection introspect() throws SQLException {
+        Connection connection = getConnection();
+        if (connection == introspectedConnection && namesOfColumns != null)
+            return connection;
+        ArrayList<String> namesOfColumns = new ArrayList<>();
+        ArrayList<String> namesOfPrimaryKeys = new ArrayList<>();
+        ArrayList<Integer> positionsOfPrimaryKeys = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + quote(nameOfTable) + ");")) {
+            while (resultSet.next()) {
+                String name = resultSet.getString("name");
+                int position = resultSet.getInt("pk");
+                namesOfColumns.add(name);
+                if (position > 0) {
+                    int index = 0;
+                    while (index < positionsOfPrimaryKeys.size() && positionsOfPrimaryKeys.get(index) < position) {
+                        index++;
+                    }
+                    positionsOfPrimaryKeys.add(index, position);
+                    namesOfPrimaryKeys.add(index, name);
+                }
+            }
+        }
+        if (namesOfColumns.isEmpty())
+            throw new SQLException("Datenbanktabelle \"" + nameOfTable + "\" nicht vorhanden.");
+        this.namesOfColumns = namesOfColumns;
+        namesOfKeyColumns = namesOfPrimaryKeys.isEmpty() ? namesOfColumns : namesOfPrimaryKeys;
+        introspectedConnection = connection;
+        return connection;
+    }
+
+    /**
+     * Liest das Schema beim nächsten Zugriff erneut (z. B. nach einem
+     * {@code ALTER TABLE}).
+     */
+    public synchronized void refreshSchema() {
+        namesOfColumns = null;
+        invalidate();
+    }
+
+    @Override
+    public String getSelectQueryForTableWithFilter(String filter) throws SQLException {
+        introspect();
+        StringBuilder query = new StringBuilder(getSelectQuery());
+        if (filter != null && !filter.isEmpty()) {
+            String pattern = "'%" + filter.replace("'", "''") + "%'";
+            query.append(" WHERE ");
+            for (int i = 0; i < namesOfColumns.size(); i++) {
+                if (i > 0)
+                    query.append(" OR ");
+                query.append(quote(namesOfColumns.get(i))).append(" LIKE ").append(pattern);
+            }
+        }
+        return query.append(';').toString();
+    }
+
+    /**
+     * Gibt die Select-Anfrage einer Zeile zurück.
+     *
+     * Da {@link Table#fetchRow(Data)} eine fertige Anfrage erwartet, werden
+     * die Schlüsselwerte hier als maskierte Literale eingesetzt.
+     */
+    @Override
+    public String getSelectQueryForRowWithData(Data data) throws SQLException {
+        introspect();
+        StringBuilder query = new StringBuilder(getSelectQuery()).append(" WHERE ");
+        for (int i = 0; i < namesOfKeyColumns.size(); i++) {
+            if (i > 0)
+                query.append(" AND ");
+            String name = namesOfKeyColumns.get(i);
+            query.append(quote(name)).append(" IS ").append(toLiteral(data.get(getFullName(name))));
+        }
+        return query.append(';').toString();
+    }
+
+    @Override
+    public void insertRowWithData(Data data) throws SQLException {
+        Connection connection = introspect();
+        ArrayList<String> names = new ArrayList<>();
+        for (String name : namesOfColumns) {
+            if (data.containsKey(getFullName(name)))
+                names.add(name);
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(quote(nameOfTable));
+        if (names.isEmpty()) {
+            sql.append(" DEFAULT VALUES;");
+        } else {
+            sql.append(" (").append(joinQuoted(names, ", ")).append(") VALUES (");
+            for (int i = 0; i < names.size(); i++) {
+                sql.append(i > 0 ? ", ?" : "?");
+            }
+            sql.append(");");
+        }
+        PreparedStatement statement = connection.prepareCachedStatement(sql.toString());
+        synchronized (statement) {
+            bindValues(statement, 1, names, data);
+            connection.executeUpdate(statement);
+        }
+    }
+
+    @Override
+    public void updateRowWithData(Data oldData, Data newData) throws SQLException {
+        Connection connection = introspect();
+        ArrayList<String> names = new ArrayList<>();
+        for (String name : namesOfColumns) {
+            if (newData.containsKey(getFullName(name)) && !name.equals(versionColumn))
+                names.add(name);
+        }
+        if (names.isEmpty())
+            throw new SQLException("Die Daten enthalten keine Spalte der Datenbanktabelle \"" + nameOfTable + "\".");
+        StringBuilder sql = new StringBuilder("UPDATE ").append(quote(nameOfTable)).append(" SET ");
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0)
+                sql.append(", ");
+            sql.append(quote(names.get(i))).append(" = ?");
+        }
+        if (versionColumn != null)
+            sql.append(", ").append(quote(versionColumn)).append(" = COALESCE(").append(quote(versionColumn))
+                    .append(", 0) + 1");
+        ArrayList<String> namesOfConditions = getNamesOfConditionColumns(oldData);
+        sql.append(getWhereClause(namesOfConditions)).append(';');
+        PreparedStatement statement = connection.prepareCachedStatement(sql.toString());
+        int count;
+        synchronized (statement) {
+            int index = bindValues(statement, 1, names, newData);
+            bindValues(statement, index, namesOfConditions, oldData);
+            count = connection.executeUpdate(statement);
+        }
+        if (optimisticLocking)
+            checkAffectedRows(count, oldData);
+    }
+
+    @Override
+    public void deleteRowWithData(Data data) throws SQLException {
+        Connection connection = introspect();
+        ArrayList<String> namesOfConditions = getNamesOfConditionColumns(data);
+        String sql = "DELETE FROM " + quote(nameOfTable) + getWhereClause(namesOfConditions) + ";";
+        PreparedStatement statement = connection.prepareCachedStatement(sql);
+        int count;
+        synchronized (statement) {
+            bindValues(statement, 1, namesOfConditions, data);
+            count = connection.executeUpdate(statement);
+        }
+        if (optimisticLocking)
+            checkAffectedRows(count, data);
+    }
+
+    @Override
+    protected String getNameOfBaseTable() {
+        return nameOfTable;
+    }
+
+    /**
+     * Gibt die Select-Anfrage aller Spalten ohne Bedingung zurück.
+     *
+     * @return Select-Anfrage ohne Semikolon.
+     */
+    private String getSelectQuery() {
+        return "SELECT " + joinQuoted(namesOfColumns, ", ") + " FROM " + quote(nameOfTable);
+    }
+
+    /**
+     * Gibt die Spalten zurück, deren geladene Werte in der Bedingung beim
+     * Aktualisieren und Löschen stehen.
+     *
+     * Das sind die identifizierenden Spalten (siehe {@link #namesOfKeyColumns})
+     * und bei optimistischer Sperre zusätzlich die Versionsspalte bzw. ohne
+     * Versionsspalte alle geladenen Spalten.
+     *
+     * @param data
+     *            Geladene Daten der Zeile.
+     * @return Namen der Spalten der Bedingung.
+     */
+    private ArrayList<String> getNamesOfConditionColumns(Data data) {
+        ArrayList<String> names = new ArrayList<>(namesOfKeyColumns);
+        if (!optimisticLocking)
+            return names;
+        for (String name : namesOfColumns) {
+            if (names.contains(name) || !data.containsKey(getFullName(name)))
+                continue;
+            if (versionColumn == null || name.equals(versionColumn))
+                names.add(name);
+        }
+        return names;
+    }
+
+    /**
+     * Gibt die Bedingung zurück, die eine Zeile über die gegebenen Spalten
+     * identifiziert.
+     *
+     * @param names
+     *            Namen der Spalten.
+     * @return Bedingung mit Platzhaltern.
+     */
+    private String getWhereClause(ArrayList<String> names) {
+        StringBuilder where = new StringBuilder(" WHERE ");
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0)
+                where.append(" AND ");
+            where.append(quote(names.get(i))).append(" IS ?");
+        }
+        return where.toString();
+    }
+
+    /**
+     * Bindet die Werte der gegebenen Spalten an aufeinanderfolgende
+     * Platzhalter.
+     *
+     * @param statement
+     *            Vorbereitete Anfrage.
+     * @param index
+     *            Index des ersten Platzhalters.
+     * @param names
+     *            Namen der Spalten.
+     * @param data
+     *            Daten der Zeile.
+     * @return Index des nächsten Platzhalters.
+     * @throws SQLException
+     *             wenn ein Wert nicht gebunden werden kann.
+     */
+    private int bindValues(PreparedStatement statement, int index, ArrayList<String> names, Data data)
+            throws SQLException {
+        for (String name : names) {
+            statement.setObject(index++, data.get(getFullName(name)));
+        }
+        return index;
+    }
+
+    /**
+     * Gibt den kompletten Namen einer Spalte zurück (siehe
+     * {@link Column#getFullName()}).
+     *
+     * @param name
+     *            Name der Spalte.
+     * @return Kompletter Name der Spalte.
+     */
+    private String getFullName(String name) {
+        return nameOfTable + "." + name;
+    }
+
+    /**
+     * Setzt einen Bezeichner in Anführungszeichen.
+     *
+     * @param identifier
+     *            Bezeichner.
+     * @return Maskierter Bezeichner.
+     */
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Setzt Bezeichner in Anführungszeichen und verbindet sie.
+     *
+     * @param identifiers
+     *            Bezeichner.
+     * @param separator
+     *            Trennzeichen.
+     * @return Verbundene maskierte Bezeichner.
+     */
+    private static String joinQuoted(ArrayList<String> identifiers, String separator) {
+        StringBuilder joined = new StringBuilder();
+        for (String identifier : identifiers) {
+            if (joined.length() > 0)
+                joined.append(separator);
+            joined.append(quote(identifier));
+        }
+        return joined.toString();
+    }
+
+    /**
+     * Wandelt einen Wert in ein maskiertes SQL-Literal um.
+     *
+     * @param value
+     *            Wert.
+     * @return SQL-Literal.
+     */
+    private static String toLiteral(Object value) {
+        if (value == null)
+            return "NULL";
+        if (value instanceof Number)
+            return value.toString();
+        if (value instanceof Boolean)
+            return (Boolean) value ? "1" : "0";
+        if (value instanceof byte[]) {
+            StringBuilder literal = new StringBuilder("X'");
+            for (byte b : (byte[]) value) {
+                literal.append(String.format("%02X", b));
+            }
+            return literal.append('\'').toString();
+        }
+        return "'" + value.toString().replace("'", "''") + "'";
+    }
+
+    /**
+     * Getter für {@link #nameOfTable}.
+     *
+     * @return Name der Datenbanktabelle.
+     */
+    public String getNameOfTable() {
+        return nameOfTable;
+    }
+
+    /**
+     * Getter für {@link #versionColumn}.
+     *
+     * @return Name der Versionsspalte oder {@code null}.
+     */
+    public String getVersionColumn() {
+        return versionColumn;
+    }
+
+    /**
+     * Setter für {@link #versionColumn}.
+     *
+     * Die Versionsspalte sollte eine Ganzzahl sein und wird bei jeder
+     * Aktualisierung über diese Tabelle um eins erhöht. Die optimistische
+     * Sperre wird dabei aktiviert.
+     *
+     * @param versionColumn
+     *            Name der Versionsspalte oder {@code null}.
+     */
+    public void setVersionColumn(String versionColumn) {
+        this.versionColumn = versionColumn;
+        if (versionColumn != null)
+            optimisticLocking = true;
+    }
+
+    /**
+     * Getter für {@link #optimisticLocking}.
+     *
+     * @return {@code true}, wenn Änderungen anderer Verbindungen erkannt
+     *         werden.
+     */
+    public boolean isOptimisticLocking() {
+        return optimisticLocking;
+    }
+
+    /**
+     * Setter für {@link #optimisticLocking}.
+     *
+     * @param optimisticLocking
+     *            {@code true}, wenn Änderungen anderer Verbindungen beim
+     *            Aktualisieren und Löschen erkannt werden sollen.
+     */
+    public void setOptimisticLocking(boolean optimisticLocking) {
+        this.optimisticLocking = optimisticLocking;
+    }
+}
@@ -0,0 +1,127 @@
+package com.alexanderthelen.applicationkit.database;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Der {@code ScopedConnectionProvider} öffnet eine eigene Verbindung zu einer
+ * Datenbank, sobald sie das erste Mal benötigt wird.
+ *
+ * Jede Verbindung besitzt einen eigenen Hintergrund-Thread (siehe
+ * {@link Connection#getBackgroundExecutor()}), sodass Fenster mit eigenen
+ * Verbindungen unabhängig voneinander arbeiten. Es gibt zwei Gültigkeitsbereiche:
+ * <ul>
+ * <li>je Fenster: Eine neue Instanz (z. B. per
+ * {@link com.alexanderthelen.applicationkit.gui.WindowController#openConnection(String)})
+ * gehört genau einem Fenster und wird mit diesem geschlossen.</li>
+ * <li>je Datenbank: {@link #forDatabase(String)} liefert für jede URL dieselbe
+ * Instanz, die sich alle Fenster teilen.</li>
+ * </ul>
+ */
+public class ScopedConnectionProvider implements ConnectionProvider, AutoCloseable {
+    /**
+     * Gemeinsame Anbieter je Datenbank. Der Schlüssel ist die URL der
+     * Datenbank.
+     */
+    private static final ConcurrentHashMap<String, ScopedConnectionProvider> sharedProviders = new ConcurrentHashMap<>();
+
+    /**
+     * URL zur Datenbank.
+     */
+    private final String url;
+    /**
+     * Geöffnete Verbindung oder {@code null}, solange sie nicht benötigt
+     * wurde.
+     */
+    private Connection connection;
+
+    /**
+     * Gibt den gemeinsamen Anbieter einer Datenbank zurück und erzeugt ihn
+     * ggf.
+     *
+     * @param url
+     *            URL zur Datenbank.
+     * @return Gemeinsamer Anbieter der Datenbank.
+     */
+    public static ScopedConnectionProvider forDatabase(String url) {
+        return sharedProviders.computeIfAbsent(url, ScopedConnectionProvider::new);
+    }
+
+    /**
+     * Schließt die Verbindungen aller gemeinsamen Anbieter.
+     */
+    public static void closeAll() {
+        for (ScopedConnectionProvider provider : sharedProviders.values()) {
+            provider.close();
+        }
+        sharedProviders.clear();
+    }
+
+    /**
+     * Erstellt eine neue {@code ScopedConnectionProvider}-Instanz mit einer
+     * URL.
+     *
+     * @param url
+     *            URL zur Datenbank.
+     */
+    public ScopedConnectionProvider(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Gibt die Verbindung zurück und öffnet sie ggf.
+     *
+     * @return Verbindung zur Datenbank.
+     * @throws SQLException
+     *             wenn die Verbindung nicht geöffnet werden kann.
+     */
+    @Override
+    public synchronized Connection getConnection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            try {
+                connection = new Connection(url);
+            } catch (IOException e) {
+                throw new SQLException("Die Verbindung zu " + url + " kann nicht geöffnet werden.", e);
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Gibt an, ob die Verbindung geöffnet ist.
+     *
+     * @return {@code true}, wenn die Verbindung geöffnet ist.
+     */
+    public synchronized boolean isOpen() {
+        try {
+            return connection != null && !connection.isClosed();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Schließt die Verbindung. Beim nächsten Abruf wird sie erneut geöffnet.
+     */
+    @Override
+    public synchronized void close() {
+        if (connection == null)
+            return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        connection = null;
+    }
+
+    /**
+     * Getter für {@link #url}.
+     *
+     * @return URL zur Datenbank.
+     */
+    public String getURL() {
+        return url;
+    }
+}
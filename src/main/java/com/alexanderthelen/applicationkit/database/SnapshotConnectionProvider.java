@@ -0,0 +1,239 @@
+package com.alexanderthelen.applicationkit.database;
+
+import com.alexanderthelen.applicationkit.metrics.MetricRegistry;
+import com.alexanderthelen.applicationkit.metrics.Timer;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Der {@code SnapshotConnectionProvider} liefert eine Verbindung zu einer
+ * schreibgeschützten Kopie der Datenbank.
+ *
+ * Aufwendige Auswertungen halten beim Füllen einer Tabelle (siehe
+ * {@link Table#fill()}) eine Lesetransaktion offen. Im WAL-Modus kann die
+ * Datenbank währenddessen keinen Checkpoint durchführen, sodass die WAL-Datei
+ * bei gleichzeitigen Änderungen wächst. Mit diesem Anbieter laufen die
+ * Anfragen stattdessen auf einer Kopie im Arbeitsspeicher oder in einer
+ * temporären Datei, die per Backup-API von SQLite erstellt wird. Die
+ * Originaldatenbank wird nur während des Kopierens gelesen.
+ *
+ * Die Kopie wird erneuert, sobald sie älter als {@link #maximumAge} ist. Die
+ * Dauer der Erneuerung wird in der Metrik {@code snapshot.refreshes} erfasst
+ * (siehe {@link MetricRegistry}).
+ *
+ * Ein Beispiel für eine Auswertung, deren Daten höchstens eine Minute alt
+ * sind:
+ *
+ * <pre>
+ * {@code
+ * table.setConnectionProvider(new SnapshotConnectionProvider(ConnectionProvider.ofApplication(), 60000));
+ * }
+ * </pre>
+ */
+public class SnapshotConnectionProvider implements ConnectionProvider, AutoCloseable {
+    /**
+     * Zeitmesser für das Erneuern der Kopien.
+     */
+    private static final Timer refreshTimer = MetricRegistry.getInstance().getTimer("snapshot.refreshes");
+
+    /**
+     * Anbieter der Verbindung zur Originaldatenbank.
+     */
+    private final ConnectionProvider source;
+    /**
+     * Gibt an, ob die Kopie in einer temporären Datei statt im Arbeitsspeicher
+     * liegt.
+     */
+    private final boolean temporaryFile;
+    /**
+     * Maximales Alter der Kopie in Millisekunden. Bei {@code 0} wird die Kopie
+     * nur durch {@link #refresh()} erneuert.
+     */
+    private long maximumAge;
+    /**
+     * Verbindung zur Kopie oder {@code null}, solange keine Kopie erstellt
+     * wurde.
+     */
+    private Connection snapshot;
+    /**
+     * Temporäre Datei der Kopie oder {@code null}, wenn die Kopie im
+     * Arbeitsspeicher liegt.
+     */
+    private File file;
+    /**
+     * Zeitpunkt der letzten Erneuerung in Millisekunden.
+     */
+    private long lastRefreshed;
+
+    /**
+     * Erstellt eine neue {@code SnapshotConnectionProvider}-Instanz, deren
+     * Kopie im Arbeitsspeicher liegt.
+     *
+     * @param source
+     *            Anbieter der Verbindung zur Originaldatenbank.
+     * @param maximumAge
+     *            Maximales Alter der Kopie in Millisekunden.
+     */
+    public SnapshotConnectionProvider(ConnectionProvider source, long maximumAge) {
+        this(source, maximumAge, false);
+    }
+
+    /**
+     * Erstellt eine neue {@code SnapshotConnectionProvider}-Instanz.
+     *
+     * @param source
+     *            Anbieter der Verbindung zur Originaldatenbank.
+     * @param maximumAge
+     *            Maximales Alter der Kopie in Millisekunden.
+     * @param temporaryFile
+     *            {@code true}, wenn die Kopie in einer temporären Datei statt
+     *            im Arbeitsspeicher liegen soll (für große Datenbanken).
+     */
+    public SnapshotConnectionProvider(ConnectionProvider source, long maximumAge, boolean temporaryFile) {
+        this.source = source;
+        this.maximumAge = maximumAge;
+        this.temporaryFile = temporaryFile;
+    }
+
+    /**
+     * Gibt die Verbindung zur Kopie zurück.
+     *
+     * Existiert noch keine Kopie oder ist sie älter als {@link #maximumAge},
+     * wird sie vorher erneuert.
+     *
+     * @return Verbindung zur Kopie.
+     * @throws SQLException
+     *             wenn die Kopie nicht erstellt werden kann.
+     */
+    @Override
+    public synchronized Connection getConnection() throws SQLException {
+        if (snapshot == null || (maximumAge > 0 && getAge() > maximumAge))
+            refresh();
+        return snapshot;
+    }
+
+    /**
+     * Erneuert die Kopie der Datenbank.
+     *
+     * Die Verbindung zur Kopie bleibt dabei erhalten, sodass Tabellen und ihr
+     * Hintergrund-Thread (siehe {@link Connection#getBackgroundExecutor()})
+     * weiter verwendet werden können. Alle Ergebnismengen der Kopie müssen
+     * vorher geschlossen sein. Nach dem Kopieren wird geprüft, ob die Kopie
+     * das Schema der Originaldatenbank besitzt (siehe
+     * {@link Connection#restore(String)}).
+     *
+     * @throws SQLException
+     *             wenn die Originaldatenbank keine Datei ist oder nicht kopiert
+     *             werden kann.
+     */
+    public synchronized void refresh() throws SQLException {
+        Connection sourceConnection = source.getConnection();
+        String path = sourceConnection.getDatabasePath();
+        if (path == null)
+            throw new SQLException("Von einer Datenbank im Arbeitsspeicher kann keine Kopie erstellt werden.");
+        long start = refreshTimer.start();
+        boolean initialized = snapshot != null;
+        try {
+            if (!initialized)
+                snapshot = openSnapshot(sourceConnection.getProfile());
+            try (Statement statement = snapshot.createStatement()) {
+                statement.execute("PRAGMA query_only = 0;");
+            }
+            try {
+                snapshot.restore(path);
+            } catch (SQLException e) {
+                throw new SQLException("Die Kopie der Datenbank kann nicht erneuert werden. Ggf. ist noch eine "
+                        + "Anfrage auf der Kopie offen.", e);
+            }
+            if (!initialized)
+                snapshot.initialize();
+            try (Statement statement = snapshot.createStatement()) {
+                statement.execute("PRAGMA query_only = 1;");
+            }
+            lastRefreshed = System.currentTimeMillis();
+        } catch (SQLException e) {
+            if (!initialized)
+                close();
+            throw e;
+        } finally {
+            refreshTimer.stop(start);
+        }
+    }
+
+    /**
+     * Öffnet die Verbindung zur (noch leeren) Kopie.
+     *
+     * Die Kopie wird erst nach dem ersten Laden initialisiert (siehe
+     * {@link Connection#restore(String)}).
+     *
+     * @param profile
+     *            Profil der PRAGMA-Einstellungen.
+     * @return Verbindung zur Kopie.
+     * @throws SQLException
+     *             wenn die Verbindung nicht geöffnet werden kann.
+     */
+    private Connection openSnapshot(PragmaProfile profile) throws SQLException {
+        try {
+            if (!temporaryFile)
+                return new Connection("jdbc:sqlite::memory:", profile, null, false);
+            file = File.createTempFile("snapshot", ".db");
+            file.deleteOnExit();
+            return new Connection("jdbc:sqlite:" + file.getAbsolutePath(), profile, null, false);
+        } catch (IOException e) {
+            throw new SQLException("Die Kopie der Datenbank kann nicht angelegt werden.", e);
+        }
+    }
+
+    /**
+     * Gibt das Alter der Kopie zurück.
+     *
+     * @return Alter in Millisekunden oder {@code -1}, wenn noch keine Kopie
+     *         existiert.
+     */
+    public synchronized long getAge() {
+        return snapshot == null ? -1 : System.currentTimeMillis() - lastRefreshed;
+    }
+
+    /**
+     * Getter für {@link #maximumAge}.
+     *
+     * @return Maximales Alter der Kopie in Millisekunden.
+     */
+    public synchronized long getMaximumAge() {
+        return maximumAge;
+    }
+
+    /**
+     * Setter für {@link #maximumAge}.
+     *
+     * @param maximumAge
+     *            Maximales Alter der Kopie in Millisekunden. Bei {@code 0}
+     *            wird die Kopie nur durch {@link #refresh()} erneuert.
+     */
+    public synchronized void setMaximumAge(long maximumAge) {
+        this.maximumAge = maximumAge;
+    }
+
+    /**
+     * Schließt die Verbindung zur Kopie und löscht ggf. die temporäre Datei.
+     * Beim nächsten Abruf wird eine neue Kopie erstellt.
+     */
+    @Override
+    public synchronized void close() {
+        if (snapshot != null) {
+            try {
+                snapshot.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            snapshot = null;
+        }
+        if (file != null) {
+            file.delete();
+            file = null;
+        }
+    }
+}
@@ -3,14 +3,22 @@ package com.alexanderthelen.applicationkit.database;
 import com.alexanderthelen.applicationkit.Application;
 import com.alexanderthelen.applicationkit.gui.RowViewController;
 import com.alexanderthelen.applicationkit.gui.TableViewController;
+import com.alexanderthelen.applicationkit.metrics.MetricRegistry;
+import com.alexanderthelen.applicationkit.metrics.Timer;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 
+import java.lang.ref.WeakReference;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 
 /**
@@ -32,8 +40,27 @@ import java.util.LinkedHashMap;
  * {@code throws SQLException}</li>
  * </ul>
  *
+ * Die Verbindung zur Datenbank liefert ein {@link ConnectionProvider} (siehe
+ * {@link #setConnectionProvider(ConnectionProvider)}). Ohne Anbieter wird die
+ * Verbindung der {@link Application} verwendet.
+ *
  */
 public abstract class Table {
+    /**
+     * Geschätzter Speicherbedarf einer {@link Row} ohne Einträge in Bytes.
+     */
+    private static final long ESTIMATED_SIZE_OF_ROW = 80;
+    /**
+     * Geschätzter Speicherbedarf eines Eintrags in einer {@link Row} ohne den
+     * Wert in Bytes.
+     */
+    private static final long ESTIMATED_SIZE_OF_ENTRY = 48;
+    /**
+     * Vergebene Präfixe der Metriken aller Tabellen (siehe
+     * {@link #getNameOfMetrics()}).
+     */
+    private static final HashSet<String> namesOfMetrics = new HashSet<>();
+
     /**
      * Titel der Tabelle.
      *
@@ -71,74 +98,657 @@ public abstract class Table {
      * {@link com.alexanderthelen.applicationkit.gui.TableViewController}.
      */
     private final SortedList<Row> sortedRows = new SortedList<>(filteredRows);
+    /**
+     * Geschätzter Speicherbedarf aller Zeilen in Bytes (siehe
+     * {@link #fill()}).
+     */
+    private long estimatedSize;
+    /**
+     * Präfix der Metriken dieser Tabelle oder {@code null}, solange es nicht
+     * vergeben wurde (siehe {@link #getNameOfMetrics()}).
+     */
+    private String nameOfMetrics;
+    /**
+     * Per {@link #setNameOfMetrics(String)} gesetzter Name der Tabelle in den
+     * Metriken oder {@code null}.
+     */
+    private String requestedNameOfMetrics;
+    /**
+     * Gibt an, ob {@link #estimatedSize} schon als Metrik registriert ist.
+     */
+    private boolean estimatedSizeRegistered;
+    /**
+     * Signatur der Spalten (siehe {@link #getSchemaSignature()}).
+     */
+    private String schemaSignature;
+    /**
+     * Zeitpunkt des letzten vollständigen Füllens in Millisekunden.
+     */
+    private long lastFilled;
+    /**
+     * Gibt an, ob die Zeilen neu geladen werden müssen (siehe
+     * {@link #invalidate()}).
+     */
+    private boolean invalidated = true;
+    /**
+     * Lebensdauer der geladenen Zeilen in Millisekunden. Bei {@code 0} veralten
+     * die Zeilen nur durch {@link #invalidate()}.
+     */
+    private long timeToLive;
+    /**
+     * Gibt an, ob nur die erste Seite der Zeilen geladen ist (siehe
+     * {@link #applyPage(Page)}).
+     */
+    private boolean partial;
+    /**
+     * Spalten der Zeilenansicht (siehe {@link #getSelectQueryForRowWithData(Data)})
+     * oder {@code null}, solange noch keine Zeile geladen wurde.
+     *
+     * Die Spalten werden wiederverwendet, solange sich ihre Signatur nicht
+     * ändert.
+     */
+    private LinkedHashMap<String, Column> editableColumns;
+    /**
+     * Signatur der {@link #editableColumns}.
+     */
+    private String editableSchemaSignature;
+    /**
+     * Anbieter der Verbindung zur Datenbank oder {@code null}, wenn die
+     * Verbindung der {@link Application} verwendet wird.
+     */
+    private ConnectionProvider connectionProvider;
+    /**
+     * Zusammenfassung der numerischen Spalten (siehe {@link Summary}) oder
+     * {@code null}, solange sie nicht berechnet wurde.
+     */
+    private Summary summary;
+    /**
+     * Zähler der Aufrufe von {@link #invalidate()}. Eine Zusammenfassung, die
+     * vor dem letzten Aufruf vorbereitet wurde, wird verworfen.
+     */
+    private long generation;
 
     /**
      * Baut die Tabelle anhand der Anfragen, die die Methoden
      * {@link #getSelectQueryForTableWithFilter(String)} und
      * {@link #getSelectQueryForRowWithData(Data)} (String)} zurückgeben, auf.
      *
-     * Der Aufbau umfasst das Füllen der Liste {@link #columns}.
+     * Der Aufbau umfasst das Füllen der Liste {@link #columns}. Ändert sich die
+     * Signatur der Spalten nicht (siehe {@link #getSchemaSignature()}), bleiben
+     * die bisherigen Spalten und Zeilen erhalten.
      *
      * @throws SQLException
      *             wenn eine Anfrage fehlschlägt.
      */
     public void build() throws SQLException {
-        getRows().clear();
-        getColumns().clear();
-
         String selectQueryForTableWithFilter = getSelectQueryForTableWithFilter(getFilter());
 
         if (selectQueryForTableWithFilter == null) {
             throw new SQLException(getClass().getName() + ".getSelectQueryForTableWithFilter(String filter) nicht implementiert.");
         }
 
-        ResultSet resultSet = Application.getInstance().getConnection().executeQuery(selectQueryForTableWithFilter);
-        ResultSetMetaData metaData = resultSet.getMetaData();
-        Row row = new Row();
-        for (int i = 1; i <= metaData.getColumnCount(); i++) {
-            String name = metaData.getColumnName(i);
-            String type = metaData.getColumnTypeName(i);
-            String nameOfTable = metaData.getTableName(i);
+        ResultSet resultSet = executeQuery(selectQueryForTableWithFilter);
+        LinkedHashMap<String, Column> columns = new LinkedHashMap<>();
+        String schemaSignature = readColumns(resultSet.getMetaData(), columns);
+        resultSet.close();
 
-            Column column = new Column(name, type, nameOfTable);
-            getColumns().put(column.getFullName(), column);
-            row.put(column, null);
-        }
+        if (schemaSignature.equals(this.schemaSignature) && getColumns().size() > 0)
+            return;
+
+        getRows().clear();
+        getColumns().clear();
+        getColumns().putAll(columns);
+        this.schemaSignature = schemaSignature;
+        estimatedSize = 0;
+        partial = false;
+        invalidate();
     }
 
     /**
      * Füllt die Tabelle anhand der Anfrage, die die Methode
      * {@link #getSelectQueryForTableWithFilter(String)} zurückgibt.
      *
+     * Dauer, Anzahl der geladenen Zeilen und geschätzter Speicherbedarf werden
+     * in den Metriken {@code table.<Name>.fill},
+     * {@code table.<Name>.rowsLoaded} und
+     * {@code table.<Name>.estimatedSize} dieser Tabelle erfasst (siehe
+     * {@link #getNameOfMetrics()} und {@link MetricRegistry}).
+     *
+     * Die Zeilen werden in einem Schritt ersetzt, sodass die Liste
+     * {@link #rows} nur eine Änderung meldet. Anschließend gilt die Tabelle
+     * nicht mehr als veraltet (siehe {@link #isStale()}).
+     *
      * @throws SQLException
      *             wenn eine Anfrage fehlschlägt.
      */
     public void fill() throws SQLException {
+        String nameOfMetrics = getNameOfMetrics();
+        Timer timer = MetricRegistry.getInstance().getTimer(nameOfMetrics + ".fill");
+        long start = timer.start();
+
         if (getColumns().size() == 0)
             build();
-        getRows().clear();
 
-        ResultSet resultSet = Application.getInstance().getConnection()
-                .executeQuery(getSelectQueryForTableWithFilter(getFilter()));
-        while (resultSet.next()) {
+        ArrayList<Row> rows = new ArrayList<>();
+        ResultSet resultSet = executeQuery(getSelectQueryForTableWithFilter(getFilter()));
+        long estimatedSize = readRows(resultSet, getColumns().values(), Integer.MAX_VALUE, rows);
+        resultSet.close();
+        getRows().setAll(rows);
+        this.estimatedSize = estimatedSize;
+        lastFilled = System.currentTimeMillis();
+        invalidated = false;
+        partial = false;
+
+        timer.stop(start);
+        MetricRegistry.getInstance().getCounter(nameOfMetrics + ".rowsLoaded").increment(rows.size());
+        registerEstimatedSize();
+    }
+
+    /**
+     * Lädt eine Zeile für die Zeilenansicht anhand der Anfrage, die die Methode
+     * {@link #getSelectQueryForRowWithData(Data)} zurückgibt.
+     *
+     * Die Anfrage wird genau einmal ausgeführt. Die Spalten werden aus den
+     * Metadaten gelesen und zwischengespeichert (siehe
+     * {@link #createEditableRow()}). Liefert die Anfrage keine Zeile, sind alle
+     * Werte {@code null}. Diese Methode darf in einem beliebigen Thread
+     * aufgerufen werden.
+     *
+     * @param data
+     *            Daten der Zeile aus der Tabelle.
+     * @return Editierbare Zeile.
+     * @throws SQLException
+     *             wenn die Anfrage fehlschlägt.
+     */
+    public Row fetchRow(Data data) throws SQLException {
+        String selectQueryForRow = getSelectQueryForRowWithData(data);
+        if (selectQueryForRow == null) {
+            throw new SQLException("getSelectQueryForRowWithData(Data data) nicht implementiert.");
+        }
+        ResultSet resultSet = executeQuery(selectQueryForRow);
+        try {
+            LinkedHashMap<String, Column> columns = new LinkedHashMap<>();
+            String schemaSignature = readColumns(resultSet.getMetaData(), columns);
+            synchronized (this) {
+                if (schemaSignature.equals(editableSchemaSignature)) {
+                    columns = editableColumns;
+                } else {
+                    editableColumns = columns;
+                    editableSchemaSignature = schemaSignature;
+                }
+            }
             Row row = new Row();
+            boolean found = resultSet.next();
             int i = 1;
-            for (Column column : getColumns().values()) {
+            for (Column column : columns.values()) {
+                row.put(column, found ? resultSet.getObject(i) : null);
+                i++;
+            }
+            return row;
+        } finally {
+            resultSet.close();
+        }
+    }
+
+    /**
+     * Erzeugt eine leere Zeile mit den zwischengespeicherten Spalten der
+     * Zeilenansicht (siehe {@link #fetchRow(Data)}).
+     *
+     * @return Zeile, deren Werte alle {@code null} sind, oder {@code null},
+     *         wenn noch keine Zeile geladen wurde.
+     */
+    public synchronized Row createEditableRow() {
+        if (editableColumns == null)
+            return null;
+        Row row = new Row();
+        for (Column column : editableColumns.values()) {
+            row.put(column, null);
+        }
+        return row;
+    }
+
+    /**
+     * Bereitet das Laden der ersten Zeilen im Hintergrund vor (siehe
+     * {@link Page}).
+     *
+     * Diese Methode muss im JavaFX-Thread aufgerufen werden. Die zurückgegebene
+     * Seite kann anschließend in einem beliebigen Thread geladen (siehe
+     * {@link Page#load()}) und danach im JavaFX-Thread übernommen werden
+     * (siehe {@link #applyPage(Page)}).
+     *
+     * @param limit
+     *            Maximale Anzahl der Zeilen.
+     * @return Seite der Tabelle.
+     */
+    public Page preparePage(int limit) {
+        return new Page(this, getFilter(), new LinkedHashMap<>(getColumns()), schemaSignature, limit);
+    }
+
+    /**
+     * Übernimmt eine im Hintergrund geladene Seite.
+     *
+     * Die Seite wird verworfen, wenn sich die Suchanfrage inzwischen geändert
+     * hat oder die Tabelle bereits vollständig gefüllt ist. Enthält die Seite
+     * alle Zeilen, gilt die Tabelle anschließend als gefüllt. Ansonsten wird
+     * sie beim nächsten Erscheinen vervollständigt (siehe {@link #isPartial()}).
+     *
+     * Diese Methode muss im JavaFX-Thread aufgerufen werden.
+     *
+     * @param page
+     *            Geladene Seite.
+     * @return {@code true}, wenn die Seite übernommen wurde.
+     */
+    public boolean applyPage(Page page) {
+        if (page.getRows() == null || !isStale())
+            return false;
+        if (page.filter == null ? getFilter() != null : !page.filter.equals(getFilter()))
+            return false;
+        if (!page.schemaSignature.equals(schemaSignature)) {
+            getColumns().clear();
+            getColumns().putAll(page.columns);
+            schemaSignature = page.schemaSignature;
+        }
+        getRows().setAll(page.getRows());
+        estimatedSize = page.estimatedSize;
+        if (page.isComplete()) {
+            lastFilled = System.currentTimeMillis();
+            invalidated = false;
+            partial = false;
+        } else {
+            partial = true;
+        }
+        registerEstimatedSize();
+        return true;
+    }
+
+    /**
+     * Registriert {@link #estimatedSize} einmalig als Metrik
+     * {@code table.<Name>.estimatedSize}.
+     */
+    private void registerEstimatedSize() {
+        if (estimatedSizeRegistered)
+            return;
+        WeakReference<Table> reference = new WeakReference<>(this);
+        MetricRegistry.getInstance().registerGauge(getNameOfMetrics() + ".estimatedSize", () -> {
+            Table table = reference.get();
+            return table == null ? 0 : table.getEstimatedSize();
+        });
+        estimatedSizeRegistered = true;
+    }
+
+    /**
+     * Entfernt alle Metriken dieser Tabelle und gibt ihr Präfix für andere
+     * Tabellen frei. Beim nächsten Füllen wird wieder ein Präfix vergeben.
+     */
+    private synchronized void unregisterMetrics() {
+        if (nameOfMetrics == null)
+            return;
+        MetricRegistry metricRegistry = MetricRegistry.getInstance();
+        metricRegistry.remove(nameOfMetrics + ".fill");
+        metricRegistry.remove(nameOfMetrics + ".rowsLoaded");
+        metricRegistry.remove(nameOfMetrics + ".estimatedSize");
+        estimatedSizeRegistered = false;
+        synchronized (namesOfMetrics) {
+            namesOfMetrics.remove(nameOfMetrics);
+        }
+        nameOfMetrics = null;
+    }
+
+    /**
+     * Gibt das Präfix der Metriken dieser Tabelle zurück und vergibt es ggf.
+     *
+     * Das Präfix lautet {@code table.<Name>}. Ohne eigenen Namen (siehe
+     * {@link #setNameOfMetrics(String)}) ist der Name die dargestellte
+     * Datenbanktabelle (siehe {@link #getNameOfBaseTable()}) bzw. die Klasse.
+     * Weitere Tabellen mit demselben Namen erhalten die kleinste freie Nummer
+     * (z. B. {@code table.kunde#2}), sodass jede Tabelle eigene Metriken
+     * besitzt. Per {@link #release()} wird das Präfix wieder frei.
+     *
+     * @return Präfix der Metriken.
+     */
+    public synchronized String getNameOfMetrics() {
+        if (nameOfMetrics == null) {
+            String name = requestedNameOfMetrics != null ? requestedNameOfMetrics : getNameOfBaseTable();
+            nameOfMetrics = claimNameOfMetrics(name != null ? name : getClass().getName());
+        }
+        return nameOfMetrics;
+    }
+
+    /**
+     * Setter für {@link #nameOfMetrics}.
+     *
+     * Die Metriken unter dem alten Namen werden entfernt. Eine bereits
+     * registrierte Metrik {@code estimatedSize} wird unter dem neuen Namen
+     * registriert.
+     *
+     * @param name
+     *            Name der Tabelle in den Metriken (z. B. der Name des
+     *            {@link TableViewController}s).
+     */
+    public synchronized void setNameOfMetrics(String name) {
+        boolean registered = estimatedSizeRegistered;
+        unregisterMetrics();
+        requestedNameOfMetrics = name;
+        nameOfMetrics = claimNameOfMetrics(name);
+        if (registered)
+            registerEstimatedSize();
+    }
+
+    /**
+     * Vergibt ein Präfix der Metriken, das noch keine andere Tabelle besitzt.
+     *
+     * @param name
+     *            Gewünschter Name.
+     * @return Präfix der Metriken.
+     */
+    private static String claimNameOfMetrics(String name) {
+        synchronized (namesOfMetrics) {
+            for (int number = 1;; number++) {
+                String nameOfMetrics = "table." + (number == 1 ? name : name + "#" + number);
+                if (namesOfMetrics.add(nameOfMetrics))
+                    return nameOfMetrics;
+            }
+        }
+    }
+
+    /**
+     * Liest die Spalten aus den Metadaten einer Ergebnismenge.
+     *
+     * @param metaData
+     *            Metadaten der Ergebnismenge.
+     * @param columns
+     *            Liste, in die die Spalten eingefügt werden. Der Schlüssel ist
+     *            der komplette Name der Spalte.
+     * @return Signatur der Spalten (siehe {@link #getSchemaSignature()}).
+     * @throws SQLException
+     *             wenn die Metadaten nicht gelesen werden können.
+     */
+    private static String readColumns(ResultSetMetaData metaData, LinkedHashMap<String, Column> columns)
+            throws SQLException {
+        StringBuilder schemaSignature = new StringBuilder();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String name = metaData.getColumnName(i);
+            String type = metaData.getColumnTypeName(i);
+            String nameOfTable = metaData.getTableName(i);
+
+            Column column = new Column(name, type, nameOfTable);
+            columns.put(column.getFullName(), column);
+            schemaSignature.append(column.getFullName()).append(' ').append(type).append(';');
+        }
+        return schemaSignature.toString();
+    }
+
+    /**
+     * Liest Zeilen aus einer Ergebnismenge.
+     *
+     * @param resultSet
+     *            Ergebnismenge.
+     * @param columns
+     *            Spalten der Ergebnismenge in ihrer Reihenfolge.
+     * @param limit
+     *            Maximale Anzahl der Zeilen.
+     * @param rows
+     *            Liste, in die die Zeilen eingefügt werden.
+     * @return Geschätzter Speicherbedarf der Zeilen in Bytes.
+     * @throws SQLException
+     *             wenn die Ergebnismenge nicht gelesen werden kann.
+     */
+    private static long readRows(ResultSet resultSet, Collection<Column> columns, int limit, ArrayList<Row> rows)
+            throws SQLException {
+        long estimatedSize = 0;
+        while (rows.size() < limit && resultSet.next()) {
+            Row row = new Row();
+            int i = 1;
+            for (Column column : columns) {
+                Object value;
                 if (column.getType().equals("BLOB")) {
-                    row.put(column, resultSet.getBytes(i));
+                    value = resultSet.getBytes(i);
                 } else {
-                    row.put(column, resultSet.getObject(i));
+                    value = resultSet.getObject(i);
                 }
+                row.put(column, value);
+                estimatedSize += ESTIMATED_SIZE_OF_ENTRY + estimateSize(value);
                 i++;
             }
+            estimatedSize += ESTIMATED_SIZE_OF_ROW;
             rows.add(row);
         }
+        return estimatedSize;
+    }
+
+    /**
+     * Schätzt den Speicherbedarf eines Werts einer Zeile.
+     *
+     * @param value
+     *            Wert.
+     * @return Geschätzter Speicherbedarf in Bytes.
+     */
+    private static long estimateSize(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        } else if (value instanceof String) {
+            return 40 + 2L * ((String) value).length();
+        } else {
+            return 24;
+        }
+    }
+
+    /**
+     * Gibt die Verbindung zur Datenbank zurück, über die diese Tabelle
+     * geladen und verändert wird.
+     *
+     * Unterklassen sollten diese Verbindung auch in
+     * {@link #insertRowWithData(Data)}, {@link #updateRowWithData(Data, Data)}
+     * und {@link #deleteRowWithData(Data)} verwenden.
+     *
+     * @return Verbindung des {@link #connectionProvider} oder, falls keiner
+     *         gesetzt ist, die Verbindung der {@link Application}.
+     * @throws SQLException
+     *             wenn keine Verbindung zur Verfügung steht.
+     */
+    public Connection getConnection() throws SQLException {
+        ConnectionProvider connectionProvider = this.connectionProvider;
+        if (connectionProvider == null)
+            connectionProvider = ConnectionProvider.ofApplication();
+        return connectionProvider.getConnection();
+    }
+
+    /**
+     * Getter für {@link #connectionProvider}.
+     *
+     * @return Anbieter der Verbindung oder {@code null}, wenn die Verbindung
+     *         der {@link Application} verwendet wird.
+     */
+    public ConnectionProvider getConnectionProvider() {
+        return connectionProvider;
+    }
+
+    /**
+     * Setter für {@link #connectionProvider}.
+     *
+     * Ändert sich der Anbieter, gelten die geladenen Zeilen als veraltet.
+     *
+     * @param connectionProvider
+     *            Anbieter der Verbindung oder {@code null}, wenn die
+     *            Verbindung der {@link Application} verwendet werden soll.
+     */
+    public void setConnectionProvider(ConnectionProvider connectionProvider) {
+        if (this.connectionProvider != connectionProvider)
+            invalidate();
+        this.connectionProvider = connectionProvider;
+    }
+
+    /**
+     * Bereitet die Berechnung der Zusammenfassung im Hintergrund vor (siehe
+     * {@link Summary}).
+     *
+     * Diese Methode muss im JavaFX-Thread aufgerufen werden. Die
+     * zurückgegebene Zusammenfassung kann anschließend in einem beliebigen
+     * Thread berechnet (siehe {@link Summary#load()}) und danach im
+     * JavaFX-Thread übernommen werden (siehe {@link #applySummary(Summary)}).
+     *
+     * @return Zusammenfassung. Besitzt die Tabelle keine numerischen Spalten,
+     *         enthält sie nur die Anzahl der Zeilen.
+     */
+    public Summary prepareSummary() {
+        ArrayList<Column> numericColumns = new ArrayList<>();
+        for (Column column : getColumns().values()) {
+            if (Summary.isNumeric(column))
+                numericColumns.add(column);
+        }
+        return new Summary(this, getFilter(), numericColumns, generation);
+    }
+
+    /**
+     * Schätzt die Anzahl der Zeilen der Tabelle schnell und ohne die Zeilen zu
+     * zählen.
+     *
+     * Die Schätzung ist nur ohne Suchanfrage und für Tabellen möglich, die
+     * genau eine Datenbanktabelle darstellen (siehe {@link #getNameOfBaseTable()}).
+     * Unterklassen, die {@link #getNameOfBaseTable()} nicht überschreiben,
+     * erhalten daher immer {@code -1}; von den Tabellen des Frameworks tut
+     * dies nur {@link SchemaTable}.
+     *
+     * Verwendet wird die Statistik aus {@code sqlite_stat1} (siehe
+     * {@link MaintenanceService#optimize()}). Da ein partieller Index weniger
+     * Zeilen als die Tabelle zählt, gilt die größte Anzahl aller Einträge der
+     * Tabelle. Gibt es keine Statistik, wird die größte {@code rowid}
+     * verwendet. Diese Methode darf in einem beliebigen Thread aufgerufen
+     * werden.
+     *
+     * @param filter
+     *            Suchanfrage.
+     * @return Ungefähre Anzahl der Zeilen oder {@code -1}, wenn sie nicht
+     *         geschätzt werden kann.
+     */
+    public long estimateRowCount(String filter) {
+        String nameOfBaseTable = getNameOfBaseTable();
+        if (nameOfBaseTable == null || (filter != null && !filter.isEmpty()))
+            return -1;
+        try {
+            Connection connection = getConnection();
+            try {
+                PreparedStatement statement = connection.prepareCachedStatement(
+                        "SELECT MAX(CAST(stat AS INTEGER)) FROM sqlite_stat1 WHERE tbl = ?;");
+                synchronized (statement) {
+                    statement.setString(1, nameOfBaseTable);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        if (resultSet.next()) {
+                            long rowCount = resultSet.getLong(1);
+                            if (!resultSet.wasNull())
+                                return rowCount;
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                // Es gibt keine Statistik.
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(
+                         "SELECT MAX(rowid) FROM \"" + nameOfBaseTable.replace("\"", "\"\"") + "\";")) {
+                return resultSet.next() ? resultSet.getLong(1) : -1;
+            }
+        } catch (SQLException e) {
+            return -1;
+        }
+    }
 
+    /**
+     * Gibt den Namen der Datenbanktabelle zurück, deren Zeilen diese Tabelle
+     * ohne Suchanfrage vollständig darstellt.
+     *
+     * Wird für die Schätzung der Anzahl der Zeilen verwendet (siehe
+     * {@link #estimateRowCount(String)}). Unterklassen über genau einer
+     * Datenbanktabelle sollten diese Methode überschreiben.
+     *
+     * @return Name der Datenbanktabelle oder {@code null}, wenn es keine gibt.
+     */
+    protected String getNameOfBaseTable() {
+        return null;
+    }
+
+    /**
+     * Gibt die Anfrage der Tabelle ohne abschließendes Semikolon zurück, sodass
+     * sie als Unteranfrage verwendet werden kann.
+     *
+     * @param filter
+     *            Suchanfrage.
+     * @return Unteranfrage.
+     * @throws SQLException
+     *             wenn die Anfrage nicht implementiert ist.
+     */
+    private String getSubqueryForTableWithFilter(String filter) throws SQLException {
+        String selectQueryForTableWithFilter = getSelectQueryForTableWithFilter(filter);
+        if (selectQueryForTableWithFilter == null) {
+            throw new SQLException(getClass().getName()
+                    + ".getSelectQueryForTableWithFilter(String filter) nicht implementiert.");
+        }
+        selectQueryForTableWithFilter = selectQueryForTableWithFilter.trim();
+        while (selectQueryForTableWithFilter.endsWith(";")) {
+            selectQueryForTableWithFilter = selectQueryForTableWithFilter
+                    .substring(0, selectQueryForTableWithFilter.length() - 1).trim();
+        }
+        return selectQueryForTableWithFilter;
+    }
+
+    /**
+     * Übernimmt eine im Hintergrund berechnete Zusammenfassung.
+     *
+     * Die Zusammenfassung wird verworfen, wenn die Tabelle seit der
+     * Vorbereitung als veraltet markiert wurde (siehe {@link #invalidate()}).
+     * Ansonsten bleibt sie bis dahin zwischengespeichert (siehe
+     * {@link #getSummary()}).
+     *
+     * Diese Methode muss im JavaFX-Thread aufgerufen werden.
+     *
+     * @param summary
+     *            Berechnete Zusammenfassung.
+     * @return {@code true}, wenn die Zusammenfassung übernommen wurde.
+     */
+    public boolean applySummary(Summary summary) {
+        if (!summary.loaded || summary.generation != generation)
+            return false;
+        this.summary = summary;
+        return true;
+    }
+
+    /**
+     * Getter für {@link #summary}.
+     *
+     * @return Zusammenfassung der numerischen Spalten oder {@code null},
+     *         solange sie nicht berechnet wurde.
+     */
+    public Summary getSummary() {
+        return summary;
+    }
+
+    /**
+     * Führt eine SELECT-Anfrage für diese Tabelle aus.
+     *
+     * Ist die Analyse der Ausführungspläne aktiviert (siehe
+     * {@link Connection#setQueryPlanAnalysisEnabled(boolean)}), wird die
+     * Anfrage dieser Tabelle zugeordnet.
+     *
+     * @param sql
+     *            Anfrage, die ausgeführt werden soll.
+     * @return Ergebnismenge der Anfrage.
+     * @throws SQLException
+     *             wenn die Anfrage fehlerhaft ist.
+     */
+    public ResultSet executeQuery(String sql) throws SQLException {
+        Connection connection = getConnection();
+        if (connection.getQueryPlanAnalyzer() != null)
+            connection.getQueryPlanAnalyzer().analyze(sql, this);
+        return connection.executeQuery(sql);
     }
 
     /**
      * Fügt eine Zeile (siehe {@link Row}) der Tabelle hinzu.
      *
+     * Anschließend gelten die geladenen Zeilen als veraltet.
+     *
      * @param row
      *            Zeile, die hinzugefügt werden soll.
      * @throws SQLException
@@ -146,11 +756,14 @@ public abstract class Table {
      */
     public final void addRow(Row row) throws SQLException {
         insertRowWithData(row.getData());
+        invalidate();
     }
 
     /**
      * Ersetzt die alte Zeile mit der neuen Zeile.
      *
+     * Anschließend gelten die geladenen Zeilen als veraltet.
+     *
      * @param oldRow
      *            Alte Zeile.
      * @param newRow
@@ -160,11 +773,14 @@ public abstract class Table {
      */
     public final void updateRow(Row oldRow, Row newRow) throws SQLException {
         updateRowWithData(oldRow.getData(), newRow.getData());
+        invalidate();
     }
 
     /**
      * Löscht eine Zeile.
      *
+     * Anschließend gelten die geladenen Zeilen als veraltet.
+     *
      * @param row
      *            Zu löschende Zeile.
      * @throws SQLException
@@ -172,6 +788,99 @@ public abstract class Table {
      */
     public final void deleteRow(Row row) throws SQLException {
         deleteRowWithData(row.getData());
+        invalidate();
+    }
+
+    /**
+     * Markiert die geladenen Zeilen als veraltet, sodass sie beim nächsten
+     * Erscheinen der Tabelle neu geladen werden.
+     *
+     * Die zwischengespeicherte Zusammenfassung (siehe {@link #getSummary()})
+     * wird verworfen.
+     */
+    public void invalidate() {
+        invalidated = true;
+        summary = null;
+        generation++;
+    }
+
+    /**
+     * Gibt die geladenen Zeilen frei, um Speicher zu sparen.
+     *
+     * Die Spalten bleiben erhalten. Beim nächsten Erscheinen wird die Tabelle
+     * neu gefüllt. Alle Metriken der Tabelle werden entfernt und ihr Präfix
+     * freigegeben (siehe {@link #getNameOfMetrics()}).
+     */
+    public void release() {
+        getRows().clear();
+        unregisterMetrics();
+        estimatedSize = 0;
+        partial = false;
+        invalidate();
+    }
+
+    /**
+     * Gibt zurück, ob die geladenen Zeilen veraltet sind.
+     *
+     * Das ist der Fall, wenn die Tabelle noch nie gefüllt, per
+     * {@link #invalidate()} markiert wurde oder die Lebensdauer (siehe
+     * {@link #timeToLive}) abgelaufen ist.
+     *
+     * @return {@code true}, wenn die Zeilen neu geladen werden müssen.
+     */
+    public boolean isStale() {
+        return invalidated || (timeToLive > 0 && System.currentTimeMillis() - lastFilled > timeToLive);
+    }
+
+    /**
+     * Getter für {@link #partial}.
+     *
+     * @return {@code true}, wenn nur die erste Seite der Zeilen geladen ist.
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /**
+     * Getter für {@link #schemaSignature}.
+     *
+     * Die Signatur setzt sich aus den kompletten Namen und Typen aller Spalten
+     * zusammen und ändert sich nur, wenn sich der Aufbau der Tabelle ändert.
+     *
+     * @return Signatur der Spalten oder {@code null}, wenn die Tabelle noch
+     *         nicht aufgebaut wurde.
+     */
+    public String getSchemaSignature() {
+        return schemaSignature;
+    }
+
+    /**
+     * Getter für {@link #timeToLive}.
+     *
+     * @return Lebensdauer der geladenen Zeilen in Millisekunden.
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Setter für {@link #timeToLive}.
+     *
+     * @param timeToLive
+     *            Lebensdauer der geladenen Zeilen in Millisekunden. Bei
+     *            {@code 0} veralten die Zeilen nur durch {@link #invalidate()}.
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Getter für {@link #estimatedSize}.
+     *
+     * @return Geschätzter Speicherbedarf aller Zeilen in Bytes.
+     */
+    public long getEstimatedSize() {
+        return estimatedSize;
     }
 
     /**
@@ -205,10 +914,14 @@ public abstract class Table {
     /**
      * Setter für {@link #filter}.
      *
+     * Ändert sich die Suchanfrage, gelten die geladenen Zeilen als veraltet.
+     *
      * @param filter
      *            Suchanfrage in der Tabelle.
      */
     public void setFilter(String filter) {
+        if (filter == null ? this.filter != null : !filter.equals(this.filter))
+            invalidate();
         this.filter = filter;
     }
 
@@ -322,6 +1035,9 @@ public abstract class Table {
      *            Schlüssel dieser {@link Data}-Instanz sind die kompletten
      *            Spaltennamen der zugehörigen Tabelle (siehe
      *            {@link #getSelectQueryForRowWithData(Data)}).
+     * @throws RowConflictException
+     *             wenn die Zeile seit dem Laden geändert oder gelöscht wurde
+     *             (siehe {@link #checkAffectedRows(int, Data)}).
      * @throws SQLException
      *             wenn ein SQL-Fehler auftritt.
      */
@@ -337,8 +1053,399 @@ public abstract class Table {
      *            {@link Data}-Instanz sind die kompletten Spaltennamen der
      *            zugehörigen Tabelle (siehe
      *            {@link #getSelectQueryForTableWithFilter(String)}).
+     * @throws RowConflictException
+     *             wenn die Zeile seit dem Laden geändert oder gelöscht wurde
+     *             (siehe {@link #checkAffectedRows(int, Data)}).
      * @throws SQLException
      *             wenn ein SQL-Fehler auftritt.
      */
     public abstract void deleteRowWithData(Data data) throws SQLException;
+
+    /**
+     * Prüft die Anzahl der Zeilen, die eine Update- oder Delete-Anfrage
+     * getroffen hat.
+     *
+     * Enthält die Bedingung der Anfrage die geladenen Werte (z. B. eine
+     * Versionsspalte), wurde die Zeile in der Zwischenzeit geändert oder
+     * gelöscht, wenn keine Zeile getroffen wurde.
+     *
+     * @param count
+     *            Anzahl der getroffenen Zeilen.
+     * @param data
+     *            Daten, mit denen die Zeile geladen wurde.
+     * @throws RowConflictException
+     *             wenn keine Zeile getroffen wurde.
+     */
+    protected void checkAffectedRows(int count, Data data) throws RowConflictException {
+        if (count == 0)
+            throw new RowConflictException("Die Zeile wurde in der Zwischenzeit geändert oder gelöscht.", data);
+    }
+
+    /**
+     * Erste Seite der Zeilen einer Tabelle, die im Hintergrund geladen wird.
+     *
+     * Eine Seite wird per {@link Table#preparePage(int)} erzeugt, per
+     * {@link #load()} in einem beliebigen Thread geladen und per
+     * {@link Table#applyPage(Page)} übernommen. Beim Laden werden weder die
+     * Spalten noch die Zeilen der Tabelle verändert.
+     */
+    public static class Page {
+        /**
+         * Tabelle der Seite.
+         */
+        private final Table table;
+        /**
+         * Suchanfrage beim Erzeugen der Seite.
+         */
+        private final String filter;
+        /**
+         * Spalten der Seite. Entspricht die Signatur der Tabelle, sind es die
+         * Spalten der Tabelle.
+         */
+        private LinkedHashMap<String, Column> columns;
+        /**
+         * Signatur der Spalten (siehe {@link Table#getSchemaSignature()}).
+         */
+        private String schemaSignature;
+        /**
+         * Maximale Anzahl der Zeilen.
+         */
+        private final int limit;
+        /**
+         * Geladene Zeilen oder {@code null}, solange die Seite nicht geladen
+         * ist.
+         */
+        private volatile ArrayList<Row> rows;
+        /**
+         * Gibt an, ob die Seite alle Zeilen der Tabelle enthält.
+         */
+        private boolean complete;
+        /**
+         * Geschätzter Speicherbedarf der Zeilen in Bytes.
+         */
+        private long estimatedSize;
+
+        /**
+         * Erstellt eine neue {@code Page}-Instanz (per
+         * {@link Table#preparePage(int)}).
+         *
+         * @param table
+         *            Tabelle.
+         * @param filter
+         *            Suchanfrage.
+         * @param columns
+         *            Kopie der Spalten der Tabelle.
+         * @param schemaSignature
+         *            Signatur der Spalten der Tabelle.
+         * @param limit
+         *            Maximale Anzahl der Zeilen.
+         */
+        private Page(Table table, String filter, LinkedHashMap<String, Column> columns, String schemaSignature,
+                int limit) {
+            this.table = table;
+            this.filter = filter;
+            this.columns = columns;
+            this.schemaSignature = schemaSignature;
+            this.limit = limit;
+        }
+
+        /**
+         * Lädt die Spalten und die ersten Zeilen der Tabelle.
+         *
+         * Ändert sich die Signatur der Spalten, werden neue Spalten erzeugt.
+         *
+         * @throws SQLException
+         *             wenn eine Anfrage fehlschlägt.
+         */
+        public void load() throws SQLException {
+            String selectQueryForTableWithFilter = table.getSelectQueryForTableWithFilter(filter);
+            if (selectQueryForTableWithFilter == null) {
+                throw new SQLException(table.getClass().getName()
+                        + ".getSelectQueryForTableWithFilter(String filter) nicht implementiert.");
+            }
+
+            ResultSet resultSet = table.executeQuery(selectQueryForTableWithFilter);
+            LinkedHashMap<String, Column> columns = new LinkedHashMap<>();
+            String schemaSignature = readColumns(resultSet.getMetaData(), columns);
+            if (!schemaSignature.equals(this.schemaSignature) || this.columns.isEmpty()) {
+                this.columns = columns;
+                this.schemaSignature = schemaSignature;
+            }
+
+            ArrayList<Row> rows = new ArrayList<>();
+            estimatedSize = readRows(resultSet, this.columns.values(), limit, rows);
+            complete = rows.size() < limit || !resultSet.next();
+            resultSet.close();
+            this.rows = rows;
+        }
+
+        /**
+         * Getter für {@link #table}.
+         *
+         * @return Tabelle der Seite.
+         */
+        public Table getTable() {
+            return table;
+        }
+
+        /**
+         * Getter für {@link #rows}.
+         *
+         * @return Geladene Zeilen oder {@code null}, solange die Seite nicht
+         *         geladen ist.
+         */
+        public ArrayList<Row> getRows() {
+            return rows;
+        }
+
+        /**
+         * Getter für {@link #complete}.
+         *
+         * @return {@code true}, wenn die Seite alle Zeilen der Tabelle enthält.
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+
+    /**
+     * Zusammenfassung der numerischen Spalten einer Tabelle, die im
+     * Hintergrund berechnet wird.
+     *
+     * Summe, Durchschnitt, Minimum und Maximum jeder numerischen Spalte sowie
+     * die Anzahl der Zeilen werden von der Datenbank mit einer einzigen
+     * Anfrage über der Anfrage der Tabelle mit der aktuellen Suchanfrage
+     * berechnet (siehe {@link Table#getSelectQueryForTableWithFilter(String)}).
+     * Die Zeilen der Tabelle müssen dazu nicht geladen sein, sodass die Werte
+     * auch bei nur teilweise geladenen Tabellen (siehe
+     * {@link Table#isPartial()}) alle Zeilen umfassen.
+     *
+     * Eine Zusammenfassung wird per {@link Table#prepareSummary()} erzeugt,
+     * per {@link #load()} in einem beliebigen Thread berechnet und per
+     * {@link Table#applySummary(Summary)} übernommen.
+     */
+    public static class Summary {
+        /**
+         * Tabelle der Zusammenfassung.
+         */
+        private final Table table;
+        /**
+         * Suchanfrage beim Erzeugen der Zusammenfassung.
+         */
+        private final String filter;
+        /**
+         * Numerische Spalten der Tabelle.
+         */
+        private final ArrayList<Column> columns;
+        /**
+         * Zähler der Tabelle beim Erzeugen (siehe {@link Table#generation}).
+         */
+        private final long generation;
+        /**
+         * Gibt an, ob die Zusammenfassung berechnet wurde.
+         */
+        private volatile boolean loaded;
+        /**
+         * Anzahl der Zeilen.
+         */
+        private long count;
+        /**
+         * Summen der Spalten.
+         */
+        private final LinkedHashMap<Column, Number> sums = new LinkedHashMap<>();
+        /**
+         * Durchschnitte der Spalten.
+         */
+        private final LinkedHashMap<Column, Number> averages = new LinkedHashMap<>();
+        /**
+         * Minima der Spalten.
+         */
+        private final LinkedHashMap<Column, Number> minima = new LinkedHashMap<>();
+        /**
+         * Maxima der Spalten.
+         */
+        private final LinkedHashMap<Column, Number> maxima = new LinkedHashMap<>();
+
+        /**
+         * Erstellt eine neue {@code Summary}-Instanz (per
+         * {@link Table#prepareSummary()}).
+         *
+         * @param table
+         *            Tabelle.
+         * @param filter
+         *            Suchanfrage.
+         * @param columns
+         *            Numerische Spalten der Tabelle.
+         * @param generation
+         *            Zähler der Tabelle.
+         */
+        private Summary(Table table, String filter, ArrayList<Column> columns, long generation) {
+            this.table = table;
+            this.filter = filter;
+            this.columns = columns;
+            this.generation = generation;
+        }
+
+        /**
+         * Berechnet die Zusammenfassung.
+         *
+         * Die Spalten der Anfrage der Tabelle werden in der Reihenfolge ihrer
+         * Metadaten durchnummeriert, sodass auch gleichnamige Spalten
+         * verschiedener Datenbanktabellen eindeutig zusammengefasst werden.
+         *
+         * @throws SQLException
+         *             wenn eine Anfrage fehlschlägt.
+         */
+        public void load() throws SQLException {
+            String subquery = table.getSubqueryForTableWithFilter(filter);
+            LinkedHashMap<Column, Integer> positions = new LinkedHashMap<>();
+            int numberOfColumns;
+            try (PreparedStatement statement = table.getConnection().prepareStatement(subquery)) {
+                ResultSetMetaData metaData = statement.getMetaData();
+                numberOfColumns = metaData.getColumnCount();
+                for (int i = 1; i <= numberOfColumns; i++) {
+                    String fullName = metaData.getTableName(i) + "." + metaData.getColumnName(i);
+                    for (Column column : columns) {
+                        if (!positions.containsKey(column) && column.getFullName().equals(fullName)) {
+                            positions.put(column, i);
+                            break;
+                        }
+                    }
+                }
+            }
+
+            StringBuilder query = new StringBuilder("WITH t(");
+            for (int i = 1; i <= numberOfColumns; i++) {
+                query.append(i > 1 ? ", c" : "c").append(i);
+            }
+            query.append(") AS (").append(subquery).append(") SELECT COUNT(*)");
+            for (Column column : columns) {
+                Integer position = positions.get(column);
+                String name = position == null ? "NULL" : "c" + position;
+                query.append(", SUM(").append(name).append("), AVG(").append(name).append("), MIN(").append(name)
+                        .append("), MAX(").append(name).append(')');
+            }
+            query.append(" FROM t;");
+
+            ResultSet resultSet = table.executeQuery(query.toString());
+            try {
+                if (resultSet.next()) {
+                    count = resultSet.getLong(1);
+                    int i = 2;
+                    for (Column column : columns) {
+                        sums.put(column, getNumber(resultSet, i++));
+                        averages.put(column, getNumber(resultSet, i++));
+                        minima.put(column, getNumber(resultSet, i++));
+                        maxima.put(column, getNumber(resultSet, i++));
+                    }
+                }
+            } finally {
+                resultSet.close();
+            }
+            loaded = true;
+        }
+
+        /**
+         * Liest einen Wert der Zusammenfassung.
+         *
+         * Da SQLite die Typen nicht erzwingt, kann z. B. {@code MAX} einer
+         * INTEGER-Spalte auch einen Text liefern. Solche Werte werden wie
+         * {@code NULL} behandelt.
+         *
+         * @param resultSet
+         *            Ergebnismenge.
+         * @param index
+         *            Index der Spalte.
+         * @return Zahl oder {@code null}.
+         * @throws SQLException
+         *             wenn der Wert nicht gelesen werden kann.
+         */
+        private static Number getNumber(ResultSet resultSet, int index) throws SQLException {
+            Object value = resultSet.getObject(index);
+            return value instanceof Number ? (Number) value : null;
+        }
+
+        /**
+         * Gibt an, ob eine Spalte zusammengefasst werden kann.
+         *
+         * @param column
+         *            Spalte.
+         * @return {@code true}, wenn die Spalte numerisch ist.
+         */
+        static boolean isNumeric(Column column) {
+            return column.getType().equals("INTEGER") || column.getType().equals("REAL")
+                    || column.getType().equals("NUMERIC");
+        }
+
+        /**
+         * Getter für {@link #table}.
+         *
+         * @return Tabelle der Zusammenfassung.
+         */
+        public Table getTable() {
+            return table;
+        }
+
+        /**
+         * Getter für {@link #columns}.
+         *
+         * @return Numerische Spalten der Tabelle.
+         */
+        public ArrayList<Column> getColumns() {
+            return columns;
+        }
+
+        /**
+         * Getter für {@link #count}.
+         *
+         * @return Anzahl der Zeilen.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gibt die Summe einer Spalte zurück.
+         *
+         * @param column
+         *            Spalte.
+         * @return Summe oder {@code null}, wenn es keine Werte gibt.
+         */
+        public Number getSum(Column column) {
+            return sums.get(column);
+        }
+
+        /**
+         * Gibt den Durchschnitt einer Spalte zurück.
+         *
+         * @param column
+         *            Spalte.
+         * @return Durchschnitt oder {@code null}, wenn es keine Werte gibt.
+         */
+        public Number getAverage(Column column) {
+            return averages.get(column);
+        }
+
+        /**
+         * Gibt das Minimum einer Spalte zurück.
+         *
+         * @param column
+         *            Spalte.
+         * @return Minimum oder {@code null}, wenn es keine Werte gibt.
+         */
+        public Number getMinimum(Column column) {
+            return minima.get(column);
+        }
+
+        /**
+         * Gibt das Maximum einer Spalte zurück.
+         *
+         * @param column
+         *            Spalte.
+         * @return Maximum oder {@code null}, wenn es keine Werte gibt.
+         */
+        public Number getMaximum(Column column) {
+            return maxima.get(column);
+        }
+    }
 }
@@ -19,6 +19,11 @@ import java.sql.SQLException;
  * </ul>
  * die entsprechenden ViewController gesetzt werden.
  *
+ * {@link #loginUser(Data)} und {@link #registerUser(Data)} werden in einem
+ * Hintergrund-Thread aufgerufen, damit die Oberfläche während der Prüfung
+ * bedienbar bleibt. Während der Anmeldung werden parallel die Daten der
+ * Hauptansicht vorgeladen (siehe {@link #preloadMainViewController()}).
+ *
  * @author Alexander Thelen
  * @version 1.0
  */
@@ -52,7 +57,8 @@ public abstract class AuthenticationViewController extends NavigationViewControl
 	 *
 	 * Die Daten des Nutzers sind in {@code data} gespeichert. Sollte die
 	 * Anmeldung nicht erfolgreich sein, muss eine {@code SQLException} geworfen
-	 * werden.
+	 * werden. Die Methode wird in einem Hintergrund-Thread aufgerufen und darf
+	 * nicht auf die Oberfläche zugreifen.
 	 *
 	 * @param data
 	 *            Daten des Nutzers.
@@ -70,12 +76,46 @@ public abstract class AuthenticationViewController extends NavigationViewControl
 		}
 	}
 
+	/**
+	 * Lädt die Daten der Hauptansicht im Hintergrund vor, während die
+	 * Anmeldung geprüft wird.
+	 *
+	 * Standardmäßig wird die erste Seite der Tabellen aller
+	 * {@link TableViewController}-Instanzen der Hauptansicht vorgeladen (siehe
+	 * {@link TableViewController#preload()}). Noch nicht erzeugte
+	 * TableViewController eines {@link MasterViewController} werden über das
+	 * ausgewählte bzw. erste Element vorgeladen (siehe
+	 * {@link MasterViewController#preloadSelectedItem()}). Unterklassen können
+	 * diese Methode überschreiben, um weitere Daten vorzuladen.
+	 */
+	public void preloadMainViewController() {
+		if (mainViewController != null)
+			preload(mainViewController);
+	}
+
+	/**
+	 * Lädt die Tabellen eines Controllers und seiner Kinder vor.
+	 *
+	 * @param controller
+	 *            Controller.
+	 */
+	private static void preload(Controller controller) {
+		if (controller instanceof TableViewController)
+			((TableViewController) controller).preload();
+		else if (controller instanceof MasterViewController)
+			((MasterViewController) controller).preloadSelectedItem();
+		for (Controller childController : controller.getChildControllers()) {
+			preload(childController);
+		}
+	}
+
 	/**
 	 * Registriert einen Nutzer.
 	 *
 	 * Die Daten des neuen Nutzers sind in {@code data} gespeichert. Sollte die
 	 * Registrierung nicht erfolgreich sein, muss eine {@code SQLException}
-	 * geworfen werden.
+	 * geworfen werden. Die Methode wird in einem Hintergrund-Thread aufgerufen
+	 * und darf nicht auf die Oberfläche zugreifen.
 	 *
 	 * @param data
 	 *            Daten des neuen Nutzers.
@@ -1,7 +1,11 @@
 package com.alexanderthelen.applicationkit.gui;
 
 import com.alexanderthelen.applicationkit.database.Data;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
+import javafx.scene.Cursor;
 import javafx.scene.Node;
 import javafx.scene.control.TextInputControl;
 import javafx.scene.control.ToggleButton;
@@ -10,6 +14,10 @@ import javafx.scene.image.ImageView;
 
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 /**
  * Abstrakte Basisklasse aller Formulare.
@@ -20,10 +28,31 @@ import java.util.ArrayList;
  * {@link #resetInput()} stellt schon eine Standard-Implementierung bereit, kann
  * aber nach Belieben überschrieben werden.
  *
+ * Langwierige Arbeiten (z. B. Anfragen an die Datenbank) können per
+ * {@link #runInBackground(Callable, Consumer, Consumer)} außerhalb des
+ * JavaFX-Threads ausgeführt werden. Solange sie laufen, ist das Formular
+ * gesperrt (siehe {@link #busyProperty()}).
+ *
  * @author Alexander Thelen
  * @version 1.0
  */
 public abstract class FormViewController extends ViewController {
+	/**
+	 * Gemeinsamer Executor aller Formulare für Arbeiten im Hintergrund.
+	 *
+	 * Die Threads sind Daemon-Threads und halten die Anwendung nicht am Leben.
+	 */
+	private static final ExecutorService backgroundExecutor = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "FormViewController-Task");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Gibt an, ob gerade eine Arbeit im Hintergrund läuft.
+	 */
+	private final ReadOnlyBooleanWrapper busy = new ReadOnlyBooleanWrapper(false);
+
 	/**
 	 * Erstellt eine {@code FormViewController}-Instanz mit einem Namen (für
 	 * Unterklassen).
@@ -55,12 +84,26 @@ public abstract class FormViewController extends ViewController {
 	 */
 	public abstract Data getInputData();
 
+	/**
+	 * Gibt das erste Eingabefeld zurück, das beim Anzeigen fokussiert wird.
+	 *
+	 * Unterklassen, die ihre Eingabefelder bereits kennen, können diese Methode
+	 * überschreiben, um die Liste nicht erneut anzulegen.
+	 *
+	 * @return Erstes Eingabefeld oder {@code null}, wenn es keine gibt.
+	 */
+	protected Node getFirstInputNode() {
+		ArrayList<Node> inputNodes = getInputNodes();
+		return inputNodes.isEmpty() ? null : inputNodes.get(0);
+	}
+
 	/**
 	 * Setzt alle Eingabefelder zurück.
 	 */
 	@FXML
 	public void resetInput() {
-		for (Node node : getInputNodes()) {
+		ArrayList<Node> inputNodes = getInputNodes();
+		for (Node node : inputNodes) {
 			if (node instanceof TextInputControl) {
 				((TextInputControl) node).setText(null);
 			} else if (node instanceof ToggleButton) {
@@ -69,7 +112,74 @@ public abstract class FormViewController extends ViewController {
 				((ImageView) node).setImage((Image) node.getUserData());
 			}
 		}
-		getInputNodes().get(0).requestFocus();
+		if (!inputNodes.isEmpty())
+			inputNodes.get(0).requestFocus();
+	}
+
+	/**
+	 * Führt eine Arbeit in einem Hintergrund-Thread aus.
+	 *
+	 * Solange die Arbeit läuft, ist das Formular gesperrt. Anschließend wird
+	 * im JavaFX-Thread {@code onSuccess} mit dem Ergebnis oder
+	 * {@code onFailure} mit dem Fehler aufgerufen.
+	 *
+	 * @param callable
+	 *            Arbeit, die nicht auf die Oberfläche zugreifen darf.
+	 * @param onSuccess
+	 *            Wird bei Erfolg aufgerufen.
+	 * @param onFailure
+	 *            Wird bei einem Fehler aufgerufen.
+	 * @param <T>
+	 *            Typ des Ergebnisses.
+	 */
+	protected <T> void runInBackground(Callable<T> callable, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+		Task<T> task = new Task<T>() {
+			@Override
+			protected T call() throws Exception {
+				return callable.call();
+			}
+		};
+		task.setOnSucceeded(event -> {
+			setBusy(false);
+			onSuccess.accept(task.getValue());
+		});
+		task.setOnFailed(event -> {
+			setBusy(false);
+			Throwable exception = task.getException();
+			onFailure.accept(exception instanceof Exception ? (Exception) exception : new Exception(exception));
+		});
+		setBusy(true);
+		backgroundExecutor.execute(task);
+	}
+
+	/**
+	 * Sperrt das Formular bzw. gibt es wieder frei.
+	 *
+	 * @param busy
+	 *            {@code true}, wenn das Formular gesperrt werden soll.
+	 */
+	private void setBusy(boolean busy) {
+		this.busy.set(busy);
+		getView().setDisable(busy);
+		getView().setCursor(busy ? Cursor.WAIT : null);
+	}
+
+	/**
+	 * Gibt an, ob gerade eine Arbeit im Hintergrund läuft.
+	 *
+	 * @return {@code true}, wenn das Formular gesperrt ist.
+	 */
+	public boolean isBusy() {
+		return busy.get();
+	}
+
+	/**
+	 * Eigenschaft, die angibt, ob gerade eine Arbeit im Hintergrund läuft.
+	 *
+	 * @return Eigenschaft {@link #busy}.
+	 */
+	public ReadOnlyBooleanProperty busyProperty() {
+		return busy.getReadOnlyProperty();
 	}
 
 	/**
@@ -87,6 +197,8 @@ public abstract class FormViewController extends ViewController {
 	@Override
 	public void viewWillAppear() {
 		super.viewWillAppear();
-		getInputNodes().get(0).requestFocus();
+		Node firstInputNode = getFirstInputNode();
+		if (firstInputNode != null)
+			firstInputNode.requestFocus();
 	}
 }
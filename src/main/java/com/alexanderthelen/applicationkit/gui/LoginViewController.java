@@ -53,9 +53,14 @@ public abstract class LoginViewController extends FormViewController {
 	}
 
 	/**
-	 * Bestätigt die Formulareingabe, indem {@link #loginUser(Data)} aufgerufen
-	 * wird.
+	 * Bestätigt die Formulareingabe, indem {@link #loginUser(Data)} in einem
+	 * Hintergrund-Thread aufgerufen wird (siehe
+	 * {@link #runInBackground(java.util.concurrent.Callable, java.util.function.Consumer, java.util.function.Consumer)}).
 	 *
+	 * Währenddessen ist das Formular gesperrt. Sollte die Unterklasse einem
+	 * AuthenticationViewController angehören, werden parallel die Daten der
+	 * Hauptansicht vorgeladen (siehe
+	 * {@link AuthenticationViewController#preloadMainViewController()}).
 	 * Nachdem die Anmeldung versucht wurde, wird eine Meldung über den Erfolg
 	 * angezeigt. Sollte die Unterklasse einem AuthenticationViewController
 	 * angehören, übernimmt dieser das weitere Vorgehen, indem
@@ -64,18 +69,26 @@ public abstract class LoginViewController extends FormViewController {
 	@Override
 	@FXML
 	public void acceptInput() {
-		try {
-			loginUser(getInputData());
+		if (isBusy())
+			return;
+		Data data = getInputData();
+		if (getParentController() instanceof AuthenticationViewController) {
+			((AuthenticationViewController) getParentController()).preloadMainViewController();
+		}
+		runInBackground(() -> {
+			loginUser(data);
+			return null;
+		}, result -> {
 			presentAlertDialog(Alert.AlertType.INFORMATION, "Anmeldung erfolgreich!",
 					"Die Anmeldung des Nutzers konnte ausgeführt werden.", null, ButtonType.OK);
 			if (getParentController() instanceof AuthenticationViewController) {
 				((AuthenticationViewController) getParentController()).onUserLogin();
 			}
-		} catch (Exception e) {
+		}, e -> {
 			presentAlertDialog(Alert.AlertType.ERROR, "Anmeldung fehlgeschlagen!",
 					"Die Anmeldung des Nutzers konnte nicht ausgeführt werden.", e, ButtonType.OK);
 			getInputNodes().get(0).requestFocus();
-		}
+		});
 	}
 
 	/**
@@ -86,6 +99,9 @@ public abstract class LoginViewController extends FormViewController {
 	 * AuthenticationViewController das weitere Vorgehen, indem
 	 * {@link AuthenticationViewController#loginUser(Data)} aufgerufen wird.
 	 *
+	 * Diese Methode wird in einem Hintergrund-Thread aufgerufen und darf nicht
+	 * auf die Oberfläche zugreifen.
+	 *
 	 * @param data
 	 *            Daten des Nutzers.
 	 * @throws Exception
@@ -1,6 +1,12 @@
 package com.alexanderthelen.applicationkit.gui;
 
+import com.alexanderthelen.applicationkit.database.Table;
+
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Die {@code MasterDetailViewController}-Klasse vereinfacht den Umgang eines
@@ -10,8 +16,20 @@ import java.io.IOException;
  * {@link #detailViewController}. Dieses Verhalten wird in der
  * {@link MasterViewController}-Instanz durch Implementierung der
  * {@link MasterViewController#getTreeItems()} festgelegt.
+ *
+ * Zuletzt angezeigte Detailansichten werden mitsamt den Zeilen ihrer Tabellen
+ * zwischengespeichert, sodass ein erneutes Anzeigen ohne Anfrage an die
+ * Datenbank auskommt. Überschreitet der geschätzte Speicherbedarf aller
+ * Tabellen (siehe {@link Table#getEstimatedSize()}) die Grenze
+ * {@link #maximumCacheSize}, werden die am längsten nicht angezeigten
+ * Detailansichten verworfen und ihre Zeilen freigegeben.
  */
 public class MasterDetailViewController extends SplitViewController {
+	/**
+	 * Standardgrenze des Zwischenspeichers in Bytes.
+	 */
+	public static final long DEFAULT_MAXIMUM_CACHE_SIZE = 64L * 1024 * 1024;
+
 	/**
 	 * Masteransicht.
 	 */
@@ -20,6 +38,16 @@ public class MasterDetailViewController extends SplitViewController {
 	 * Detailansicht.
 	 */
 	private ViewController detailViewController;
+	/**
+	 * Zuletzt angezeigte Detailansichten in der Reihenfolge ihrer Anzeige mit
+	 * ihrem zuletzt geschätzten Speicherbedarf.
+	 */
+	private final LinkedHashMap<ViewController, Long> cachedDetailViewControllers = new LinkedHashMap<>(16, 0.75f,
+			true);
+	/**
+	 * Grenze des Zwischenspeichers in geschätzten Bytes.
+	 */
+	private long maximumCacheSize = DEFAULT_MAXIMUM_CACHE_SIZE;
 
 	/**
 	 * Erstellt eine {@code MasterViewController}-Instanz mit einem Namen.
@@ -84,6 +112,8 @@ public class MasterDetailViewController extends SplitViewController {
 	/**
 	 * Setter für {@link #detailViewController}.
 	 *
+	 * Die neue Detailansicht wird in den Zwischenspeicher aufgenommen.
+	 *
 	 * @param detailViewController
 	 *            DetailViewController.
 	 */
@@ -91,7 +121,144 @@ public class MasterDetailViewController extends SplitViewController {
 		if (this.detailViewController != null)
 			removeChildViewControllerFromView(this.detailViewController);
 		this.detailViewController = detailViewController;
-		if (detailViewController != null)
+		if (detailViewController != null) {
 			addChildViewControllerToViewAtIndex(detailViewController, view, 1);
+			cachedDetailViewControllers.put(detailViewController, 0L);
+			trimCache();
+		}
+	}
+
+	/**
+	 * Getter für {@link #maximumCacheSize}.
+	 *
+	 * @return Grenze des Zwischenspeichers in Bytes.
+	 */
+	public long getMaximumCacheSize() {
+		return maximumCacheSize;
+	}
+
+	/**
+	 * Setter für {@link #maximumCacheSize}.
+	 *
+	 * @param maximumCacheSize
+	 *            Grenze des Zwischenspeichers in Bytes.
+	 */
+	public void setMaximumCacheSize(long maximumCacheSize) {
+		this.maximumCacheSize = maximumCacheSize;
+		trimCache();
+	}
+
+	/**
+	 * Gibt den geschätzten Speicherbedarf aller zwischengespeicherten
+	 * Detailansichten zurück.
+	 *
+	 * @return Geschätzter Speicherbedarf in Bytes.
+	 */
+	public long getCacheSize() {
+		long size = 0;
+		for (ViewController viewController : cachedDetailViewControllers.keySet()) {
+			size += estimateSize(viewController);
+		}
+		return size;
+	}
+
+	/**
+	 * Nimmt eine im Hintergrund vorgeladene Detailansicht in den
+	 * Zwischenspeicher auf, ohne sie anzuzeigen (siehe {@link TablePrefetcher}).
+	 *
+	 * @param viewController
+	 *            Vorgeladene Detailansicht.
+	 */
+	void cacheDetailViewController(ViewController viewController) {
+		if (cachedDetailViewControllers.containsKey(viewController))
+			return;
+		cachedDetailViewControllers.put(viewController, 0L);
+		trimCache();
+	}
+
+	/**
+	 * Verwirft alle zwischengespeicherten Detailansichten außer der aktuellen.
+	 */
+	public void clearCache() {
+		Iterator<ViewController> iterator = cachedDetailViewControllers.keySet().iterator();
+		while (iterator.hasNext()) {
+			ViewController viewController = iterator.next();
+			if (viewController == detailViewController)
+				continue;
+			iterator.remove();
+			release(viewController);
+		}
+	}
+
+	/**
+	 * Verwirft die am längsten nicht angezeigten Detailansichten, bis der
+	 * geschätzte Speicherbedarf die Grenze {@link #maximumCacheSize} nicht mehr
+	 * überschreitet.
+	 *
+	 * Die aktuelle Detailansicht wird nie verworfen.
+	 */
+	private void trimCache() {
+		long size = 0;
+		for (Map.Entry<ViewController, Long> entry : cachedDetailViewControllers.entrySet()) {
+			entry.setValue(estimateSize(entry.getKey()));
+			size += entry.getValue();
+		}
+		Iterator<Map.Entry<ViewController, Long>> iterator = cachedDetailViewControllers.entrySet().iterator();
+		while (size > maximumCacheSize && iterator.hasNext()) {
+			Map.Entry<ViewController, Long> entry = iterator.next();
+			if (entry.getKey() == detailViewController)
+				continue;
+			size -= entry.getValue();
+			iterator.remove();
+			release(entry.getKey());
+		}
+	}
+
+	/**
+	 * Schätzt den Speicherbedarf einer Detailansicht anhand der Tabellen aller
+	 * enthaltenen {@link TableViewController}-Instanzen.
+	 *
+	 * @param viewController
+	 *            Detailansicht.
+	 * @return Geschätzter Speicherbedarf in Bytes.
+	 */
+	private static long estimateSize(ViewController viewController) {
+		long size = 0;
+		for (Table table : getTables(viewController, new ArrayList<>())) {
+			size += table.getEstimatedSize();
+		}
+		return size;
+	}
+
+	/**
+	 * Gibt die Zeilen aller Tabellen einer verworfenen Detailansicht frei
+	 * (siehe {@link Table#release()}).
+	 *
+	 * @param viewController
+	 *            Verworfene Detailansicht.
+	 */
+	private static void release(ViewController viewController) {
+		for (Table table : getTables(viewController, new ArrayList<>())) {
+			table.release();
+		}
+	}
+
+	/**
+	 * Sammelt die Tabellen aller {@link TableViewController}-Instanzen eines
+	 * Controllers und seiner Kinder.
+	 *
+	 * @param controller
+	 *            Controller.
+	 * @param tables
+	 *            Liste, in die die Tabellen eingefügt werden.
+	 * @return Liste der Tabellen.
+	 */
+	private static ArrayList<Table> getTables(Controller controller, ArrayList<Table> tables) {
+		if (controller instanceof TableViewController)
+			tables.add(((TableViewController) controller).getTable());
+		for (Controller childController : controller.getChildControllers()) {
+			getTables(childController, tables);
+		}
+		return tables;
 	}
 }
@@ -1,7 +1,11 @@
 package com.alexanderthelen.applicationkit.gui;
 
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.TreeItem;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 /**
@@ -9,11 +13,35 @@ import java.util.ArrayList;
  * {@link MasterDetailViewController}-Instanz.
  *
  * Die Oberklasse {@link TreeViewController} wird mit dem Datentyp
- * {@link ViewController} versehen, sodass die TreeItems diesen Typ besitzen.
- * Unterklassen müssen {@link #getTreeItems()} implementieren, sodass der
- * TreeView überhaupt aufgebaut werden kann.
+ * {@link TableViewControllerDescriptor} versehen, sodass die TreeItems diesen
+ * Typ besitzen. Unterklassen müssen {@link #getTreeItems()} implementieren,
+ * sodass der TreeView überhaupt aufgebaut werden kann. Die TableViewController
+ * werden erst bei der ersten Auswahl ihres Elements erzeugt. Optional werden
+ * sie nach dem ersten Anzeigen nacheinander vorab erzeugt (siehe
+ * {@link #setPreloadingEnabled(boolean)}).
+ *
+ * Optional werden die Nachbarn des ausgewählten Elements im Hintergrund
+ * vorgeladen (siehe {@link #setPrefetchingEnabled(boolean)}).
  */
-public abstract class MasterViewController extends TreeViewController<TableViewController> {
+public abstract class MasterViewController extends TreeViewController<TableViewControllerDescriptor> {
+	/**
+	 * Vorlader der benachbarten Tabellen.
+	 *
+	 * Ist {@code null}, solange das Vorladen nicht aktiviert wurde (siehe
+	 * {@link #setPrefetchingEnabled(boolean)}).
+	 */
+	private TablePrefetcher prefetcher;
+	/**
+	 * Gibt an, ob die TableViewController nach dem Anzeigen vorab erzeugt
+	 * werden.
+	 */
+	private boolean preloadingEnabled;
+	/**
+	 * Gibt an, ob die Baumstruktur schon vor dem Erscheinen aufgebaut wurde
+	 * (siehe {@link #preloadSelectedItem()}).
+	 */
+	private boolean builtInAdvance;
+
 	/**
 	 * Erstellt eine {@code MasterViewController}-Instanz mit einem Namen (für
 	 * Unterklassen).
@@ -33,7 +61,7 @@ public abstract class MasterViewController extends TreeViewController<TableViewC
 		super.initialize();
 		view.setMinWidth(200);
 		view.setMaxWidth(200);
-		TreeItem<TableViewController> root = new TreeItem<>();
+		TreeItem<TableViewControllerDescriptor> root = new TreeItem<>();
 		root.setExpanded(true);
 		treeView.setShowRoot(false);
 		treeView.setRoot(root);
@@ -49,8 +77,46 @@ public abstract class MasterViewController extends TreeViewController<TableViewC
 	 *            Neues Element.
 	 */
 	@Override
-	protected void onSelectionChange(TreeItem<TableViewController> oldItem, TreeItem<TableViewController> newItem) {
-		getMasterDetailViewController().setDetailViewController(newItem == null ? null : newItem.getValue());
+	protected void onSelectionChange(TreeItem<TableViewControllerDescriptor> oldItem,
+			TreeItem<TableViewControllerDescriptor> newItem) {
+		TableViewController tableViewController = null;
+		if (newItem != null && newItem.getValue() != null) {
+			try {
+				tableViewController = newItem.getValue().getTableViewController();
+			} catch (IOException e) {
+				presentAlertDialog(Alert.AlertType.ERROR, "Tabelle nicht angezeigt!",
+						"Die Tabelle kann nicht angezeigt werden.", e, ButtonType.OK);
+			}
+		}
+		getMasterDetailViewController().setDetailViewController(tableViewController);
+		if (prefetcher != null)
+			prefetcher.prefetchSiblingsOf(newItem);
+	}
+
+	/**
+	 * Aktiviert oder deaktiviert das Vorladen der benachbarten Tabellen im
+	 * Hintergrund (siehe {@link TablePrefetcher}).
+	 *
+	 * @param enabled
+	 *            {@code true}, wenn vorgeladen werden soll.
+	 */
+	public void setPrefetchingEnabled(boolean enabled) {
+		if (enabled && prefetcher == null) {
+			prefetcher = new TablePrefetcher(this);
+		} else if (!enabled && prefetcher != null) {
+			prefetcher.cancel();
+			prefetcher = null;
+		}
+	}
+
+	/**
+	 * Getter für {@link #prefetcher}.
+	 *
+	 * @return Vorlader oder {@code null}, wenn das Vorladen nicht aktiviert
+	 *         ist.
+	 */
+	public TablePrefetcher getPrefetcher() {
+		return prefetcher;
 	}
 
 	/**
@@ -64,17 +130,57 @@ public abstract class MasterViewController extends TreeViewController<TableViewC
 	}
 
 	/**
-	 * Setzt den Titel des ViewControllers als Text für das TreeItem.
+	 * Setzt den Titel der Beschreibung als Text für das TreeItem.
 	 *
 	 * @param item
 	 *            TreeItem.
 	 * @return Text.
 	 */
 	@Override
-	protected String getTextForItem(TableViewController item) {
+	protected String getTextForItem(TableViewControllerDescriptor item) {
 		return item.getTitle();
 	}
 
+	/**
+	 * Lädt die erste Seite der Tabelle des ausgewählten Elements im
+	 * Hintergrund vor (siehe {@link TablePrefetcher#prefetch(TreeItem)}).
+	 *
+	 * Ist kein Element ausgewählt, wird das erste Element mit einer
+	 * Beschreibung vorgeladen. Ist die Baumstruktur noch nicht aufgebaut, wird
+	 * sie vorher aufgebaut und beim nächsten Erscheinen nicht erneut
+	 * aufgebaut, damit die vorgeladene Tabelle erhalten bleibt.
+	 */
+	public void preloadSelectedItem() {
+		if (getRootItem().getChildren().isEmpty()) {
+			buildView();
+			builtInAdvance = true;
+		}
+		TreeItem<TableViewControllerDescriptor> item = treeView.getSelectionModel().getSelectedItem();
+		if (item == null)
+			item = getFirstItem(getRootItem());
+		(prefetcher != null ? prefetcher : new TablePrefetcher(this)).prefetch(item);
+	}
+
+	/**
+	 * Sucht in der Reihenfolge des Baums das erste Element mit einer
+	 * Beschreibung.
+	 *
+	 * @param treeItem
+	 *            Element, unter dem gesucht wird.
+	 * @return Erstes Element oder {@code null}.
+	 */
+	private static TreeItem<TableViewControllerDescriptor> getFirstItem(
+			TreeItem<TableViewControllerDescriptor> treeItem) {
+		for (TreeItem<TableViewControllerDescriptor> childItem : treeItem.getChildren()) {
+			if (childItem.getValue() != null)
+				return childItem;
+			TreeItem<TableViewControllerDescriptor> firstItem = getFirstItem(childItem);
+			if (firstItem != null)
+				return firstItem;
+		}
+		return null;
+	}
+
 	/**
 	 * Ruft die Methode {@link #buildView()} jedes Mal kurz bevor dem Erscheinen
 	 * auf.
@@ -82,7 +188,68 @@ public abstract class MasterViewController extends TreeViewController<TableViewC
 	@Override
 	public void viewWillAppear() {
 		super.viewWillAppear();
-		buildView();
+		if (builtInAdvance)
+			builtInAdvance = false;
+		else
+			buildView();
+	}
+
+	/**
+	 * Erzeugt nach dem Anzeigen die noch nicht erzeugten TableViewController,
+	 * sofern das Vorabladen aktiviert ist.
+	 */
+	@Override
+	public void viewDidAppear() {
+		super.viewDidAppear();
+		if (preloadingEnabled)
+			Platform.runLater(() -> preload(new ArrayList<>(getRootItem().getChildren()), 0));
+	}
+
+	/**
+	 * Erzeugt den TableViewController eines Elements und plant das nächste
+	 * Element für einen späteren Durchlauf des JavaFX-Threads ein, damit die
+	 * Oberfläche zwischen den Elementen bedienbar bleibt.
+	 *
+	 * @param treeItems
+	 *            Elemente in der Reihenfolge des Baums (einschließlich der
+	 *            Kinder, die beim Durchlauf hinzugefügt werden).
+	 * @param index
+	 *            Index des aktuellen Elements.
+	 */
+	private void preload(ArrayList<TreeItem<TableViewControllerDescriptor>> treeItems, int index) {
+		if (!preloadingEnabled || index >= treeItems.size())
+			return;
+		TreeItem<TableViewControllerDescriptor> treeItem = treeItems.get(index);
+		treeItems.addAll(treeItem.getChildren());
+		if (treeItem.getValue() != null && !treeItem.getValue().isCreated()) {
+			try {
+				treeItem.getValue().getTableViewController();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		Platform.runLater(() -> preload(treeItems, index + 1));
+	}
+
+	/**
+	 * Getter für {@link #preloadingEnabled}.
+	 *
+	 * @return {@code true}, wenn die TableViewController nach dem Anzeigen
+	 *         vorab erzeugt werden.
+	 */
+	public boolean isPreloadingEnabled() {
+		return preloadingEnabled;
+	}
+
+	/**
+	 * Setter für {@link #preloadingEnabled}.
+	 *
+	 * @param preloadingEnabled
+	 *            {@code true}, wenn die TableViewController nach dem Anzeigen
+	 *            vorab erzeugt werden sollen.
+	 */
+	public void setPreloadingEnabled(boolean preloadingEnabled) {
+		this.preloadingEnabled = preloadingEnabled;
 	}
 
 	/**
@@ -90,7 +257,7 @@ public abstract class MasterViewController extends TreeViewController<TableViewC
 	 */
 	private void buildView() {
 		getRootItem().getChildren().clear();
-		for (TreeItem<TableViewController> treeItem : getTreeItems()) {
+		for (TreeItem<TableViewControllerDescriptor> treeItem : getTreeItems()) {
 			getRootItem().getChildren().add(treeItem);
 		}
 	}
@@ -98,9 +265,13 @@ public abstract class MasterViewController extends TreeViewController<TableViewC
 	/**
 	 * Gibt die Liste der TreeItems zurück.
 	 *
-	 * Jedes TreeItem besitzt den bei Auswahl anzuzeigenden ViewController.
+	 * Jedes TreeItem besitzt die Beschreibung des bei Auswahl anzuzeigenden
+	 * TableViewControllers (siehe {@link TableViewControllerDescriptor}).
+	 * Bereits erzeugte TableViewController können per
+	 * {@link TableViewControllerDescriptor#of(TableViewController)} übergeben
+	 * werden.
 	 *
 	 * @return Liste der TreeItems.
 	 */
-	protected abstract ArrayList<TreeItem<TableViewController>> getTreeItems();
+	protected abstract ArrayList<TreeItem<TableViewControllerDescriptor>> getTreeItems();
 }
@@ -184,7 +184,7 @@ public class NavigationViewController extends ViewController {
 		if (getChildControllers().size() > 1)
 			newViewController = (ViewController) getChildControllers().get(getChildControllers().size() - 2);
 		if (newViewController != null)
-			newViewController.viewWillAppear();
+			newViewController.performViewWillAppear();
 
 		removeChildViewControllerFromView(topViewController, contentView);
 
@@ -52,31 +52,37 @@ public abstract class RegistrationViewController extends FormViewController {
 	}
 
 	/**
-	 * Bestätigt die Formulareingabe, indem {@link #registerUser(Data)}
-	 * aufgerufen wird.
+	 * Bestätigt die Formulareingabe, indem {@link #registerUser(Data)} in
+	 * einem Hintergrund-Thread aufgerufen wird (siehe
+	 * {@link #runInBackground(java.util.concurrent.Callable, java.util.function.Consumer, java.util.function.Consumer)}).
 	 *
-	 * Nachdem die Registrierung versucht wurde, wird eine Meldung über den
-	 * Erfolg angezeigt. Sollte die Unterklasse einem
-	 * AuthenticationViewController angehören, übernimmt dieser das weitere
-	 * Vorgehen, indem {@link AuthenticationViewController#onUserRegister()}
-	 * aufgerufen wird.
+	 * Währenddessen ist das Formular gesperrt. Nachdem die Registrierung
+	 * versucht wurde, wird eine Meldung über den Erfolg angezeigt. Sollte die
+	 * Unterklasse einem AuthenticationViewController angehören, übernimmt
+	 * dieser das weitere Vorgehen, indem
+	 * {@link AuthenticationViewController#onUserRegister()} aufgerufen wird.
 	 */
 	@Override
 	@FXML
 	public void acceptInput() {
-		try {
-			registerUser(getInputData());
+		if (isBusy())
+			return;
+		Data data = getInputData();
+		runInBackground(() -> {
+			registerUser(data);
+			return null;
+		}, result -> {
 			presentAlertDialog(Alert.AlertType.INFORMATION, "Registrierung erfolgreich!",
 					"Die Registrierung des Nutzers konnte ausgeführt werden.", null, ButtonType.OK);
 			if (getParentController() instanceof AuthenticationViewController) {
 				((AuthenticationViewController) getParentController()).onUserRegister();
 			}
 			resetInput();
-		} catch (Exception e) {
+		}, e -> {
 			presentAlertDialog(Alert.AlertType.ERROR, "Registrierung fehlgeschlagen!",
 					"Die Registrierung des Nutzers konnte nicht ausgeführt werden.", e, ButtonType.OK);
 			getInputNodes().get(0).requestFocus();
-		}
+		});
 	}
 
 	/**
@@ -87,6 +93,9 @@ public abstract class RegistrationViewController extends FormViewController {
 	 * AuthenticationViewController das weitere Vorgehen, indem
 	 * {@link AuthenticationViewController#registerUser(Data)} aufgerufen wird.
 	 *
+	 * Diese Methode wird in einem Hintergrund-Thread aufgerufen und darf nicht
+	 * auf die Oberfläche zugreifen.
+	 *
 	 * @param data
 	 *            Daten des Nutzers.
 	 * @throws Exception
@@ -3,6 +3,8 @@ package com.alexanderthelen.applicationkit.gui;
 import com.alexanderthelen.applicationkit.database.Column;
 import com.alexanderthelen.applicationkit.database.Data;
 import com.alexanderthelen.applicationkit.database.Row;
+import com.alexanderthelen.applicationkit.database.RowConflictException;
+import com.alexanderthelen.applicationkit.database.Table;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
@@ -22,6 +24,11 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Eine {@code RowViewController}-Instanz stellt die Informationen einer
@@ -33,6 +40,11 @@ import java.util.ArrayList;
  * {@link com.alexanderthelen.applicationkit.database.Table}) der
  * {@link TableViewController}-Instanz kann die Zeile hinzugefügt oder
  * aktualisiert werden.
+ *
+ * Wurde die Zeile beim Aktualisieren in der Zwischenzeit geändert (siehe
+ * {@link RowConflictException}), kann der Benutzer die Zeile neu laden, seine
+ * Änderungen mit der aktuellen Zeile zusammenführen oder die aktuelle Zeile
+ * überschreiben.
  */
 public class RowViewController extends FormViewController {
     /**
@@ -60,7 +72,14 @@ public class RowViewController extends FormViewController {
      *
      * Die Schlüssel bestimmen die Anzahl der anzuzeigenden Informationen.
      */
-    private final Row row;
+    private Row row;
+    /**
+     * Eingabefelder der Zeilenansicht in der Reihenfolge der Spalten.
+     *
+     * Wird beim Aufbau der Zeilenansicht (siehe {@link #buildView()}) angelegt,
+     * sodass jedes Eingabefeld direkt über seine Spalte erreichbar ist.
+     */
+    private final LinkedHashMap<Column, Node> inputNodes = new LinkedHashMap<>();
 
     /**
      * Erstellt eine {@code RowViewController}-Instanz mit einem Namen, einer
@@ -112,16 +131,12 @@ public class RowViewController extends FormViewController {
      */
     @Override
     public ArrayList<Node> getInputNodes() {
-        ArrayList<Node> inputNodes = new ArrayList<>();
-        for (Node node : contentView.getChildren()) {
-            if (node instanceof TextInputControl) {
-                inputNodes.add(node);
-            } else if (node instanceof VBox) {
-                ImageView imageView = (ImageView) ((VBox) node).getChildren().get(0);
-                inputNodes.add(imageView);
-            }
-        }
-        return inputNodes;
+        return new ArrayList<>(inputNodes.values());
+    }
+
+    @Override
+    protected Node getFirstInputNode() {
+        return inputNodes.isEmpty() ? null : inputNodes.values().iterator().next();
     }
 
     /**
@@ -131,14 +146,13 @@ public class RowViewController extends FormViewController {
      */
     @Override
     public Data getInputData() {
-        ArrayList<Node> inputNodes = getInputNodes();
         Data data = new Data();
-        int i = 0;
-        for (Column column : row.keySet()) {
+        for (Map.Entry<Column, Node> entry : inputNodes.entrySet()) {
+            Column column = entry.getKey();
             if (column.getType().equals("BLOB")) {
                 byte[] result = null;
-                if (((ImageView) inputNodes.get(i)).getImage() != null) {
-                    Image image = ((ImageView) inputNodes.get(i)).getImage();
+                if (((ImageView) entry.getValue()).getImage() != null) {
+                    Image image = ((ImageView) entry.getValue()).getImage();
                     BufferedImage bufferedImage = SwingFXUtils.fromFXImage(image, null);
                     ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
                     try {
@@ -155,27 +169,27 @@ public class RowViewController extends FormViewController {
                 }
                 data.put(column.getFullName(), result);
             } else {
-                data.put(column.getFullName(), ((TextInputControl) inputNodes.get(i)).getText());
+                data.put(column.getFullName(), ((TextInputControl) entry.getValue()).getText());
             }
-            i++;
         }
         return data;
     }
 
     @Override
     public void resetInput() {
-        ArrayList<Node> inputNodes = getInputNodes();
-        int i = 0;
-        for (Column column : row.keySet()) {
+        for (Map.Entry<Column, Node> entry : inputNodes.entrySet()) {
+            Column column = entry.getKey();
             if (column.getType().equals("BLOB")) {
-                ImageView imageView = (ImageView) inputNodes.get(i);
+                ImageView imageView = (ImageView) entry.getValue();
                 imageView.setImage((Image) imageView.getUserData());
             } else {
-                ((TextInputControl) inputNodes.get(i)).setText(row.get(column) == null ? null : row.get(column).toString());
+                Object value = row.get(column);
+                ((TextInputControl) entry.getValue()).setText(value == null ? null : value.toString());
             }
-            i++;
         }
-        inputNodes.get(0).requestFocus();
+        Node firstInputNode = getFirstInputNode();
+        if (firstInputNode != null)
+            firstInputNode.requestFocus();
     }
 
     /**
@@ -204,25 +218,163 @@ public class RowViewController extends FormViewController {
         } else {
             try {
                 tableViewController.updateOldRowWithNewRow(row, newRow);
+            } catch (RowConflictException e) {
+                resolveConflict(newRow, e);
+                return;
             } catch (Exception e) {
                 presentAlertDialog(Alert.AlertType.ERROR, "Zeile nicht aktualisiert!",
                         "Die Zeile konnte nicht aktualisiert werden.", e, ButtonType.OK);
                 return;
             }
         }
+        close();
+    }
+
+    /**
+     * Schließt die Zeilenansicht.
+     */
+    private void close() {
         if (getParentController() instanceof NavigationViewController) {
             ((NavigationViewController) getParentController()).popViewController();
         } else {
             tableViewController.dismissViewController(this);
         }
-        tableViewController = null;
+    }
+
+    /**
+     * Fragt den Benutzer, wie ein Konflikt beim Aktualisieren aufgelöst werden
+     * soll, und lädt dazu die aktuelle Zeile im Hintergrund.
+     *
+     * <ul>
+     * <li>Neu laden: Die Eingaben werden verworfen und die aktuelle Zeile
+     * angezeigt.</li>
+     * <li>Zusammenführen: Spalten, deren Eingabefeld der Benutzer geändert hat
+     * (siehe {@link #getNamesOfChangedColumns()}), behalten die Eingabe, alle
+     * anderen zeigen den aktuellen Wert. Die Eingaben können vor dem erneuten
+     * Speichern geprüft werden.</li>
+     * <li>Überschreiben: Die Eingaben werden gegen die aktuelle Zeile erneut
+     * gespeichert.</li>
+     * </ul>
+     *
+     * Wurde die Zeile gelöscht, wird dies gemeldet. Die Zeile wird nur neu
+     * angelegt, wenn der Benutzer dies ausdrücklich bestätigt.
+     *
+     * @param newRow
+     *            Neue Zeile mit den Eingaben des Benutzers.
+     * @param exception
+     *            Ausgelöster Konflikt.
+     */
+    private void resolveConflict(Row newRow, RowConflictException exception) {
+        ButtonType refetchButton = new ButtonType("Neu laden");
+        ButtonType mergeButton = new ButtonType("Zusammenführen");
+        ButtonType overwriteButton = new ButtonType("Überschreiben");
+        Optional<ButtonType> result = presentAlertDialog(Alert.AlertType.WARNING, "Zeile geändert!",
+                "Die Zeile wurde in der Zwischenzeit geändert.", exception, refetchButton, mergeButton,
+                overwriteButton, ButtonType.CANCEL);
+        if (result == null || !result.isPresent() || result.get() == ButtonType.CANCEL)
+            return;
+        ButtonType choice = result.get();
+        HashSet<String> namesOfChangedColumns = getNamesOfChangedColumns();
+        Data oldData = row.getData();
+        Table table = tableViewController.getTable();
+        runInBackground(() -> table.fetchRow(oldData), currentRow -> {
+            if (currentRow.values().stream().allMatch(Objects::isNull)) {
+                recreateDeletedRow(currentRow, newRow);
+                return;
+            }
+            setRow(currentRow);
+            if (choice == mergeButton) {
+                fillInputNodes(mergeData(namesOfChangedColumns, newRow.getData(), currentRow.getData()));
+            } else if (choice == overwriteButton) {
+                fillInputNodes(newRow.getData());
+                acceptInput();
+            }
+        }, e -> presentAlertDialog(Alert.AlertType.ERROR, "Zeile nicht geladen!",
+                "Die Zeile konnte nicht geladen werden.", e, ButtonType.OK));
+    }
+
+    /**
+     * Meldet, dass die Zeile in der Zwischenzeit gelöscht wurde, und legt sie
+     * mit den Eingaben des Benutzers nur auf dessen Wunsch neu an.
+     *
+     * @param emptyRow
+     *            Geladene Zeile, deren Werte alle {@code null} sind.
+     * @param newRow
+     *            Neue Zeile mit den Eingaben des Benutzers.
+     */
+    private void recreateDeletedRow(Row emptyRow, Row newRow) {
+        ButtonType recreateButton = new ButtonType("Neu anlegen");
+        Optional<ButtonType> result = presentAlertDialog(Alert.AlertType.WARNING, "Zeile gelöscht!",
+                "Die Zeile wurde in der Zwischenzeit gelöscht. Soll sie mit den Eingaben neu angelegt werden?", null,
+                recreateButton, ButtonType.CANCEL);
+        if (result == null || !result.isPresent() || result.get() != recreateButton)
+            return;
+        setRow(emptyRow);
+        fillInputNodes(newRow.getData());
+        acceptInput();
+    }
+
+    /**
+     * Gibt die Spalten zurück, deren Eingabefeld der Benutzer seit dem Füllen
+     * der Zeilenansicht (siehe {@link #fillView()}) geändert hat.
+     *
+     * Verglichen wird der angezeigte Text bzw. das angezeigte Bild und nicht
+     * der umgewandelte Wert, sodass z. B. Zahlen oder verkleinerte Bilder nicht
+     * fälschlich als geändert gelten.
+     *
+     * @return Komplette Namen der geänderten Spalten.
+     */
+    private HashSet<String> getNamesOfChangedColumns() {
+        HashSet<String> names = new HashSet<>();
+        for (Map.Entry<Column, Node> entry : inputNodes.entrySet()) {
+            Column column = entry.getKey();
+            boolean changed;
+            if (column.getType().equals("BLOB")) {
+                ImageView imageView = (ImageView) entry.getValue();
+                changed = imageView.getImage() != imageView.getUserData();
+            } else {
+                Object value = row.get(column);
+                String shownText = value == null || value.equals("") ? "" : value.toString();
+                String text = ((TextInputControl) entry.getValue()).getText();
+                changed = !shownText.equals(text == null ? "" : text);
+            }
+            if (changed)
+                names.add(column.getFullName());
+        }
+        return names;
+    }
+
+    /**
+     * Führt die Änderungen des Benutzers mit der aktuellen Zeile zusammen.
+     *
+     * @param namesOfChangedColumns
+     *            Komplette Namen der Spalten, die der Benutzer geändert hat.
+     * @param newData
+     *            Daten mit den Eingaben des Benutzers.
+     * @param currentData
+     *            Aktuelle Daten der Zeile.
+     * @return Aktuelle Daten, überschrieben mit den vom Benutzer geänderten
+     *         Werten.
+     */
+    private static Data mergeData(HashSet<String> namesOfChangedColumns, Data newData, Data currentData) {
+        Data data = new Data();
+        for (Map.Entry<String, Object> entry : currentData.entrySet()) {
+            String name = entry.getKey();
+            boolean changed = namesOfChangedColumns.contains(name) && newData.containsKey(name);
+            data.put(name, changed ? newData.getOrDefault(name, null) : entry.getValue());
+        }
+        return data;
     }
 
     /**
      * Baut die Zeilenansicht auf.
+     *
+     * Dabei wird jeder Spalte ihr Eingabefeld zugeordnet (siehe
+     * {@link #inputNodes}).
      */
     public void buildView() {
         contentView.getChildren().clear();
+        inputNodes.clear();
 
         int indexOfRow = 0;
         for (Column column : row.keySet()) {
@@ -235,26 +387,32 @@ public class RowViewController extends FormViewController {
                 TextField textField = new TextField();
                 GridPane.setConstraints(textField, 1, indexOfRow);
                 contentView.getChildren().add(textField);
+                inputNodes.put(column, textField);
             } else if (column.getType().equals("BOOLEAN")) {
                 TextField textField = new TextField();
                 GridPane.setConstraints(textField, 1, indexOfRow);
                 contentView.getChildren().add(textField);
+                inputNodes.put(column, textField);
             } else if (column.getType().equals("REAL")) {
                 TextField textField = new TextField();
                 GridPane.setConstraints(textField, 1, indexOfRow);
                 contentView.getChildren().add(textField);
+                inputNodes.put(column, textField);
             } else if (column.getType().equals("NUMERIC")) {
                 TextField textField = new TextField();
                 GridPane.setConstraints(textField, 1, indexOfRow);
                 contentView.getChildren().add(textField);
+                inputNodes.put(column, textField);
             } else if (column.getType().equals("TEXT")) {
                 TextArea textArea = new TextArea();
                 GridPane.setConstraints(textArea, 1, indexOfRow);
                 contentView.getChildren().add(textArea);
+                inputNodes.put(column, textArea);
             } else if (column.getType().equals("VARCHAR")) {
                 TextField textField = new TextField();
                 GridPane.setConstraints(textField, 1, indexOfRow);
                 contentView.getChildren().add(textField);
+                inputNodes.put(column, textField);
             } else if (column.getType().equals("BLOB")) {
                 VBox vBox = new VBox(5);
                 ImageView imageView = new ImageView();
@@ -292,10 +450,12 @@ public class RowViewController extends FormViewController {
                 vBox.getChildren().add(hBox);
                 GridPane.setConstraints(vBox, 1, indexOfRow);
                 contentView.getChildren().add(vBox);
+                inputNodes.put(column, imageView);
             } else {
                 TextField textField = new TextField();
                 GridPane.setConstraints(textField, 1, indexOfRow);
                 contentView.getChildren().add(textField);
+                inputNodes.put(column, textField);
             }
 
             indexOfRow++;
@@ -306,26 +466,57 @@ public class RowViewController extends FormViewController {
      * Füllt die Zeilenansicht.
      */
     public void fillView() {
-        int i = 0;
-        for (Column column : row.keySet()) {
+        for (Map.Entry<Column, Node> entry : inputNodes.entrySet()) {
+            Column column = entry.getKey();
+            Object value = row.get(column);
             if (column.getType().equals("BLOB")) {
-                WritableImage image = null;
-                if (row.get(column) != null && !row.get(column).equals("")) {
-                    try {
-                        ByteArrayInputStream bis = new ByteArrayInputStream((byte[]) row.get(column));
-                        BufferedImage read = ImageIO.read(bis);
-                        image = SwingFXUtils.toFXImage(read, null);
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
-                getInputNodes().get(i).setUserData(image);
-                ((ImageView) getInputNodes().get(i)).setImage(image);
+                WritableImage image = toImage(value);
+                entry.getValue().setUserData(image);
+                ((ImageView) entry.getValue()).setImage(image);
+            } else {
+                ((TextInputControl) entry.getValue())
+                        .setText(value == null || value.equals("") ? null : value.toString());
+            }
+        }
+    }
+
+    /**
+     * Füllt die Eingabefelder mit gegebenen Daten, ohne die geladene Zeile zu
+     * ändern.
+     *
+     * @param data
+     *            Daten, deren Schlüssel die kompletten Namen der Spalten sind.
+     */
+    private void fillInputNodes(Data data) {
+        for (Map.Entry<Column, Node> entry : inputNodes.entrySet()) {
+            Column column = entry.getKey();
+            Object value = data.getOrDefault(column.getFullName(), null);
+            if (column.getType().equals("BLOB")) {
+                ((ImageView) entry.getValue()).setImage(toImage(value));
             } else {
-                ((TextInputControl) getInputNodes().get(i))
-                        .setText(row.get(column) == null || row.get(column).equals("") ? null : row.get(column).toString());
+                ((TextInputControl) entry.getValue())
+                        .setText(value == null || value.equals("") ? null : value.toString());
             }
-            i++;
+        }
+    }
+
+    /**
+     * Wandelt den Wert einer BLOB-Spalte in ein Bild um.
+     *
+     * @param value
+     *            Wert der Spalte.
+     * @return Bild oder {@code null}, wenn es keinen Wert gibt.
+     */
+    private static WritableImage toImage(Object value) {
+        if (value == null || value.equals(""))
+            return null;
+        try {
+            ByteArrayInputStream bis = new ByteArrayInputStream((byte[]) value);
+            BufferedImage read = ImageIO.read(bis);
+            return SwingFXUtils.toFXImage(read, null);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
         }
     }
 
@@ -338,6 +529,58 @@ public class RowViewController extends FormViewController {
         return tableViewController;
     }
 
+    /**
+     * Lädt die Zeile im Hintergrund und zeigt sie anschließend an (siehe
+     * {@link Table#fetchRow(Data)}).
+     *
+     * Bis die Zeile geladen ist, ist das Formular gesperrt. Kann die Zeile
+     * nicht geladen werden, wird die Zeilenansicht nach der Meldung
+     * geschlossen, damit die leere Zeile nicht versehentlich als neue Zeile
+     * gespeichert wird.
+     *
+     * @param data
+     *            Daten der Zeile aus der Tabelle.
+     */
+    public void fetchRow(Data data) {
+        Table table = tableViewController.getTable();
+        runInBackground(() -> table.fetchRow(data), this::setRow, e -> {
+            presentAlertDialog(Alert.AlertType.ERROR, "Zeile nicht geladen!", "Die Zeile konnte nicht geladen werden.",
+                    e, ButtonType.OK);
+            close();
+        });
+    }
+
+    /**
+     * Gibt an, ob die Zeilenansicht gerade nicht angezeigt wird und an eine
+     * andere Zeile gebunden werden kann (siehe {@link #setRow(Row)}).
+     *
+     * @return {@code true}, wenn die Zeilenansicht wiederverwendet werden
+     *         kann.
+     */
+    public boolean isIdle() {
+        if (isBusy())
+            return false;
+        WindowController windowController = getWindowController();
+        return windowController == null || !windowController.getWindow().isShowing();
+    }
+
+    /**
+     * Setter für {@link #row}.
+     *
+     * Die Zeilenansicht wird mit der neuen Zeile gefüllt. Haben sich die
+     * Spalten geändert, wird sie vorher neu aufgebaut. So kann eine
+     * Zeilenansicht für mehrere Zeilen derselben Tabelle verwendet werden.
+     *
+     * @param row
+     *            Anzuzeigende Zeile.
+     */
+    public void setRow(Row row) {
+        this.row = row;
+        if (!inputNodes.keySet().equals(row.keySet()))
+            buildView();
+        fillView();
+    }
+
     /**
      * Getter für {@link #row}.
      *
@@ -394,10 +637,14 @@ public class RowViewController extends FormViewController {
 
     /**
      * Baut die Ansicht auf und füllt diese in der richtigen Reihenfolge.
+     *
+     * Passen die Eingabefelder bereits zu den Spalten der Zeile, wird die
+     * Ansicht nicht erneut aufgebaut.
      */
     @Override
     public void viewWillAppear() {
-        buildView();
+        if (!inputNodes.keySet().equals(row.keySet()))
+            buildView();
         super.viewWillAppear();
         fillView();
     }
@@ -0,0 +1,481 @@
+package com.alexanderthelen.applicationkit.gui;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Der {@code StallMonitor} überwacht den JavaFX-Thread und zeichnet
+ * Blockierungen auf.
+ *
+ * Ein Hintergrund-Thread stellt in regelmäßigen Abständen (siehe
+ * {@link #interval}) einen Herzschlag in die Warteschlange des JavaFX-Threads.
+ * Wird dieser nicht innerhalb von {@link #threshold} Millisekunden
+ * abgearbeitet, wird der Stack des JavaFX-Threads erfasst und die Blockierung
+ * dem Controller und der Methode zugeordnet, in der der JavaFX-Thread gerade
+ * steht. Die letzten {@link #capacity} Blockierungen werden in einem
+ * Ringpuffer gehalten und können mit {@link #writeTo(Path)} ausgegeben werden.
+ * Zusätzlich werden die Abstände zwischen den Pulsen gemessen.
+ *
+ * Es gibt eine Instanz pro Programm (siehe
+ * {@link WindowController#getStallMonitor()}). Sie wird beim ersten Anzeigen
+ * eines Fensters gestartet, wenn sie aktiviert ist (siehe
+ * {@link #setEnabled(boolean)} oder die Systemeigenschaft
+ * {@code applicationkit.stallMonitor}).
+ */
+public class StallMonitor {
+	/**
+	 * Methoden, die als Lebenszyklus- bzw. Aktionsmethoden eines Controllers
+	 * gelten.
+	 */
+	private static final HashSet<String> LIFECYCLE_METHODS = new HashSet<>(Arrays.asList("initialize",
+			"viewWillAppear", "viewDidAppear", "viewWillDisappear", "viewDidDisappear", "windowWillAppear",
+			"windowDidAppear", "windowWillDisappear", "windowDidDisappear", "windowWillClose", "windowDidClose",
+			"searchInTable", "refreshTable", "acceptInput", "resetInput", "onSelectionChange", "onUserLogin",
+			"onUserRegister"));
+
+	/**
+	 * Gibt an, ob die Überwachung gestartet werden soll.
+	 */
+	private boolean enabled = Boolean.getBoolean("applicationkit.stallMonitor");
+	/**
+	 * Dauer in Millisekunden, ab der der JavaFX-Thread als blockiert gilt.
+	 */
+	private long threshold = 250;
+	/**
+	 * Abstand der Herzschläge in Millisekunden.
+	 */
+	private long interval = 50;
+	/**
+	 * Maximale Anzahl der aufbewahrten Blockierungen.
+	 */
+	private int capacity = 100;
+	/**
+	 * Ringpuffer der letzten Blockierungen.
+	 */
+	private final ArrayDeque<Stall> stalls = new ArrayDeque<>();
+
+	/**
+	 * Hintergrund-Thread, der die Herzschläge sendet.
+	 */
+	private ScheduledExecutorService watchdog;
+	/**
+	 * Misst die Abstände zwischen den Pulsen.
+	 */
+	private AnimationTimer pulseTimer;
+	/**
+	 * Der JavaFX-Thread.
+	 */
+	private volatile Thread fxThread;
+	/**
+	 * Zeitpunkt in Nanosekunden, zu dem der ausstehende Herzschlag gesendet
+	 * wurde, oder {@code 0}, wenn keiner aussteht.
+	 */
+	private volatile long pendingHeartbeat;
+	/**
+	 * Blockierung, die gerade andauert.
+	 */
+	private volatile Stall currentStall;
+
+	/**
+	 * Zeitpunkt des letzten Pulses in Nanosekunden.
+	 */
+	private long lastPulse;
+	/**
+	 * Anzahl der gemessenen Abstände zwischen Pulsen.
+	 */
+	private long numberOfPulses;
+	/**
+	 * Summe der Abstände zwischen Pulsen in Nanosekunden.
+	 */
+	private long totalPulseInterval;
+	/**
+	 * Größter Abstand zwischen zwei Pulsen in Nanosekunden.
+	 */
+	private long maximumPulseInterval;
+
+	/**
+	 * Startet die Überwachung, sofern sie aktiviert ist und noch nicht läuft.
+	 *
+	 * Muss auf dem JavaFX-Thread aufgerufen werden.
+	 */
+	public synchronized void start() {
+		if (!enabled || watchdog != null)
+			return;
+		fxThread = Thread.currentThread();
+		pulseTimer = new AnimationTimer() {
+			@Override
+			public void handle(long now) {
+				recordPulse(now);
+			}
+		};
+		pulseTimer.start();
+		watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "StallMonitor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		watchdog.scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Beendet die Überwachung.
+	 */
+	public synchronized void stop() {
+		if (watchdog == null)
+			return;
+		watchdog.shutdownNow();
+		watchdog = null;
+		AnimationTimer timer = pulseTimer;
+		pulseTimer = null;
+		Platform.runLater(timer::stop);
+	}
+
+	/**
+	 * Sendet einen Herzschlag oder prüft, ob der ausstehende Herzschlag zu
+	 * lange wartet.
+	 *
+	 * Wird vom Hintergrund-Thread aufgerufen.
+	 */
+	private void check() {
+		long now = System.nanoTime();
+		long sent = pendingHeartbeat;
+		if (sent == 0) {
+			pendingHeartbeat = now;
+			Platform.runLater(() -> onHeartbeat(now));
+		} else if (currentStall == null && now - sent >= TimeUnit.MILLISECONDS.toNanos(threshold)) {
+			Thread thread = fxThread;
+			currentStall = new Stall(new Date(), thread == null ? new StackTraceElement[0] : thread.getStackTrace());
+		}
+	}
+
+	/**
+	 * Verarbeitet einen Herzschlag auf dem JavaFX-Thread.
+	 *
+	 * @param sent
+	 *            Zeitpunkt in Nanosekunden, zu dem der Herzschlag gesendet
+	 *            wurde.
+	 */
+	private void onHeartbeat(long sent) {
+		long duration = System.nanoTime() - sent;
+		Stall stall = currentStall;
+		if (stall != null) {
+			stall.duration = TimeUnit.NANOSECONDS.toMillis(duration);
+			synchronized (stalls) {
+				if (stalls.size() >= capacity)
+					stalls.removeFirst();
+				stalls.addLast(stall);
+			}
+			currentStall = null;
+		}
+		pendingHeartbeat = 0;
+	}
+
+	/**
+	 * Zeichnet einen Puls auf.
+	 *
+	 * @param now
+	 *            Zeitpunkt des Pulses in Nanosekunden.
+	 */
+	private synchronized void recordPulse(long now) {
+		if (lastPulse != 0) {
+			long pulseInterval = now - lastPulse;
+			numberOfPulses++;
+			totalPulseInterval += pulseInterval;
+			maximumPulseInterval = Math.max(maximumPulseInterval, pulseInterval);
+		}
+		lastPulse = now;
+	}
+
+	/**
+	 * Gibt die aufgezeichneten Blockierungen zurück (älteste zuerst).
+	 *
+	 * @return Liste der Blockierungen.
+	 */
+	public ArrayList<Stall> getStalls() {
+		synchronized (stalls) {
+			return new ArrayList<>(stalls);
+		}
+	}
+
+	/**
+	 * Verwirft alle aufgezeichneten Blockierungen und Pulse.
+	 */
+	public void clear() {
+		synchronized (stalls) {
+			stalls.clear();
+		}
+		synchronized (this) {
+			numberOfPulses = 0;
+			totalPulseInterval = 0;
+			maximumPulseInterval = 0;
+		}
+	}
+
+	/**
+	 * Schreibt die Pulsstatistik und alle aufgezeichneten Blockierungen in
+	 * eine Datei.
+	 *
+	 * @param path
+	 *            Pfad zur Datei.
+	 * @throws IOException
+	 *             wenn die Datei nicht geschrieben werden kann.
+	 */
+	public void writeTo(Path path) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			writeTo(writer);
+		}
+	}
+
+	/**
+	 * Schreibt die Pulsstatistik und alle aufgezeichneten Blockierungen.
+	 *
+	 * @param writer
+	 *            Ziel der Ausgabe.
+	 */
+	public void writeTo(Writer writer) {
+		PrintWriter printWriter = new PrintWriter(writer);
+		printWriter.printf("Pulse: %d, Durchschnitt: %.1f ms, Maximum: %.1f ms%n", getNumberOfPulses(),
+				getAveragePulseInterval(), getMaximumPulseInterval());
+		for (Stall stall : getStalls()) {
+			printWriter.println();
+			printWriter.println(stall);
+			for (StackTraceElement element : stall.getStackTrace()) {
+				printWriter.println("\tat " + element);
+			}
+		}
+		printWriter.flush();
+	}
+
+	/**
+	 * Gibt die Anzahl der gemessenen Abstände zwischen Pulsen zurück.
+	 *
+	 * @return Anzahl der Pulse.
+	 */
+	public synchronized long getNumberOfPulses() {
+		return numberOfPulses;
+	}
+
+	/**
+	 * Gibt den durchschnittlichen Abstand zwischen zwei Pulsen zurück.
+	 *
+	 * @return Durchschnittlicher Abstand in Millisekunden.
+	 */
+	public synchronized double getAveragePulseInterval() {
+		return numberOfPulses == 0 ? 0 : totalPulseInterval / (double) numberOfPulses / 1e6;
+	}
+
+	/**
+	 * Gibt den größten Abstand zwischen zwei Pulsen zurück.
+	 *
+	 * @return Größter Abstand in Millisekunden.
+	 */
+	public synchronized double getMaximumPulseInterval() {
+		return maximumPulseInterval / 1e6;
+	}
+
+	/**
+	 * Getter für {@link #enabled}.
+	 *
+	 * @return {@code true}, wenn die Überwachung aktiviert ist.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Setter für {@link #enabled}.
+	 *
+	 * Beim Deaktivieren wird eine laufende Überwachung beendet.
+	 *
+	 * @param enabled
+	 *            {@code true}, wenn die Überwachung aktiviert werden soll.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled)
+			stop();
+	}
+
+	/**
+	 * Getter für {@link #threshold}.
+	 *
+	 * @return Dauer in Millisekunden, ab der der JavaFX-Thread als blockiert
+	 *         gilt.
+	 */
+	public long getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Setter für {@link #threshold}.
+	 *
+	 * @param threshold
+	 *            Dauer in Millisekunden, ab der der JavaFX-Thread als
+	 *            blockiert gilt.
+	 */
+	public void setThreshold(long threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Getter für {@link #capacity}.
+	 *
+	 * @return Maximale Anzahl der aufbewahrten Blockierungen.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Setter für {@link #capacity}.
+	 *
+	 * @param capacity
+	 *            Maximale Anzahl der aufbewahrten Blockierungen.
+	 */
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Eine aufgezeichnete Blockierung des JavaFX-Threads.
+	 */
+	public static class Stall {
+		/**
+		 * Zeitpunkt, zu dem die Blockierung erkannt wurde.
+		 */
+		private final Date time;
+		/**
+		 * Stack des JavaFX-Threads zum Zeitpunkt der Erkennung.
+		 */
+		private final StackTraceElement[] stackTrace;
+		/**
+		 * Innerstes Element des Stacks, das zu einem Controller gehört.
+		 */
+		private final StackTraceElement controllerFrame;
+		/**
+		 * Innerstes Element des Stacks, das eine Lebenszyklus- bzw.
+		 * Aktionsmethode eines Controllers ist.
+		 */
+		private final StackTraceElement lifecycleFrame;
+		/**
+		 * Gesamtdauer der Blockierung in Millisekunden.
+		 */
+		private long duration;
+
+		/**
+		 * Erstellt eine {@code Stall}-Instanz und ordnet sie anhand des Stacks
+		 * einem Controller zu.
+		 *
+		 * @param time
+		 *            Zeitpunkt der Erkennung.
+		 * @param stackTrace
+		 *            Stack des JavaFX-Threads.
+		 */
+		Stall(Date time, StackTraceElement[] stackTrace) {
+			this.time = time;
+			this.stackTrace = stackTrace;
+			StackTraceElement controllerFrame = null;
+			StackTraceElement lifecycleFrame = null;
+			for (StackTraceElement element : stackTrace) {
+				if (!isController(element.getClassName()))
+					continue;
+				if (controllerFrame == null)
+					controllerFrame = element;
+				if (lifecycleFrame == null && LIFECYCLE_METHODS.contains(element.getMethodName()))
+					lifecycleFrame = element;
+			}
+			this.controllerFrame = controllerFrame;
+			this.lifecycleFrame = lifecycleFrame;
+		}
+
+		/**
+		 * Prüft, ob eine Klasse ein {@link Controller} ist.
+		 *
+		 * @param className
+		 *            Name der Klasse.
+		 * @return {@code true}, wenn die Klasse von {@link Controller} erbt.
+		 */
+		private static boolean isController(String className) {
+			try {
+				return Controller.class
+						.isAssignableFrom(Class.forName(className, false, StallMonitor.class.getClassLoader()));
+			} catch (ClassNotFoundException | LinkageError e) {
+				return false;
+			}
+		}
+
+		/**
+		 * Getter für {@link #time}.
+		 *
+		 * @return Zeitpunkt der Erkennung.
+		 */
+		public Date getTime() {
+			return time;
+		}
+
+		/**
+		 * Getter für {@link #duration}.
+		 *
+		 * @return Gesamtdauer in Millisekunden.
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		/**
+		 * Getter für {@link #stackTrace}.
+		 *
+		 * @return Stack des JavaFX-Threads.
+		 */
+		public StackTraceElement[] getStackTrace() {
+			return stackTrace;
+		}
+
+		/**
+		 * Getter für {@link #controllerFrame}.
+		 *
+		 * @return Element des Stacks, das zu einem Controller gehört, oder
+		 *         {@code null}.
+		 */
+		public StackTraceElement getControllerFrame() {
+			return controllerFrame;
+		}
+
+		/**
+		 * Getter für {@link #lifecycleFrame}.
+		 *
+		 * @return Element des Stacks mit der Lebenszyklusmethode oder
+		 *         {@code null}.
+		 */
+		public StackTraceElement getLifecycleFrame() {
+			return lifecycleFrame;
+		}
+
+		/**
+		 * Gibt Zeitpunkt, Dauer und Zuordnung der Blockierung aus.
+		 *
+		 * @return Beschreibung der Blockierung.
+		 */
+		@Override
+		public String toString() {
+			return time + ": " + duration + " ms in "
+					+ (lifecycleFrame == null ? "?" : lifecycleFrame.getClassName() + "." + lifecycleFrame.getMethodName())
+					+ " (" + (controllerFrame == null ? "?" : controllerFrame.toString()) + ")";
+		}
+	}
+}
@@ -0,0 +1,258 @@
+package com.alexanderthelen.applicationkit.gui;
+
+import com.alexanderthelen.applicationkit.database.Connection;
+import com.alexanderthelen.applicationkit.database.Table;
+import javafx.application.Platform;
+import javafx.scene.control.TreeItem;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Der {@code TablePrefetcher} lädt die Nachbarn des ausgewählten Elements eines
+ * {@link MasterViewController}s im Hintergrund vor.
+ *
+ * Wird ein Element ausgewählt, werden die TableViewController des vorherigen
+ * und nächsten Geschwisterelements ggf. erzeugt (siehe
+ * {@link TableViewControllerDescriptor}). Spalten und erste Seite der Zeilen
+ * ihrer Tabellen werden auf dem Hintergrund-Thread der Verbindung geladen
+ * (siehe {@link Connection#getBackgroundExecutor()}) und im JavaFX-Thread
+ * übernommen (siehe {@link Table#applyPage(Table.Page)}). Solange der Benutzer aktiv
+ * Anfragen auslöst, wird das Vorladen zurückgestellt. Ist der Zwischenspeicher
+ * des {@link MasterDetailViewController}s voll, wird nichts vorgeladen.
+ */
+public class TablePrefetcher {
+	/**
+	 * Standardanzahl der vorzuladenden Zeilen je Tabelle.
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 500;
+	/**
+	 * Standardwartezeit nach der letzten Anfrage des Benutzers in
+	 * Millisekunden.
+	 */
+	public static final long DEFAULT_IDLE_DELAY = 500;
+
+	/**
+	 * MasterViewController, dessen Elemente vorgeladen werden.
+	 */
+	private final MasterViewController masterViewController;
+	/**
+	 * Anzahl der vorzuladenden Zeilen je Tabelle.
+	 */
+	private int pageSize = DEFAULT_PAGE_SIZE;
+	/**
+	 * Wartezeit nach der letzten Anfrage des Benutzers in Millisekunden.
+	 */
+	private long idleDelay = DEFAULT_IDLE_DELAY;
+	/**
+	 * Zähler der Auswahl. Ausstehende Arbeiten einer älteren Auswahl werden
+	 * verworfen.
+	 */
+	private final AtomicInteger generation = new AtomicInteger();
+
+	/**
+	 * Erstellt eine neue {@code TablePrefetcher}-Instanz.
+	 *
+	 * @param masterViewController
+	 *            MasterViewController, dessen Elemente vorgeladen werden.
+	 */
+	public TablePrefetcher(MasterViewController masterViewController) {
+		this.masterViewController = masterViewController;
+	}
+
+	/**
+	 * Lädt das vorherige und das nächste Geschwisterelement vor.
+	 *
+	 * Noch ausstehende Arbeiten einer vorherigen Auswahl werden verworfen.
+	 *
+	 * @param item
+	 *            Ausgewähltes Element.
+	 */
+	public void prefetchSiblingsOf(TreeItem<TableViewControllerDescriptor> item) {
+		int generation = this.generation.incrementAndGet();
+		if (item == null || item.getParent() == null)
+			return;
+		ArrayList<TreeItem<TableViewControllerDescriptor>> siblings = new ArrayList<>();
+		siblings.add(item.nextSibling());
+		siblings.add(item.previousSibling());
+		for (TreeItem<TableViewControllerDescriptor> sibling : siblings) {
+			if (sibling != null && sibling.getValue() != null)
+				Platform.runLater(() -> prefetch(generation, sibling.getValue()));
+		}
+	}
+
+	/**
+	 * Lädt ein einzelnes Element vor (z. B. das erste Element, bevor die
+	 * Hauptansicht angezeigt wird).
+	 *
+	 * Noch ausstehende Arbeiten einer vorherigen Auswahl werden verworfen.
+	 *
+	 * @param item
+	 *            Element.
+	 */
+	public void prefetch(TreeItem<TableViewControllerDescriptor> item) {
+		int generation = this.generation.incrementAndGet();
+		if (item != null && item.getValue() != null)
+			prefetch(generation, item.getValue());
+	}
+
+	/**
+	 * Erzeugt ggf. den TableViewController einer Beschreibung und plant das
+	 * Laden der ersten Seite seiner Tabelle.
+	 *
+	 * Wird erst nach der Auswahl im JavaFX-Thread ausgeführt, damit die
+	 * ausgewählte Tabelle nicht verzögert wird.
+	 *
+	 * @param generation
+	 *            Zähler der Auswahl.
+	 * @param descriptor
+	 *            Beschreibung des TableViewControllers.
+	 */
+	private void prefetch(int generation, TableViewControllerDescriptor descriptor) {
+		if (generation != this.generation.get() || !hasCapacity())
+			return;
+		TableViewController tableViewController;
+		try {
+			tableViewController = descriptor.getTableViewController();
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		tableViewController.inheritConnectionProvider(masterViewController.getWindowController());
+		Table table = tableViewController.getTable();
+		if (!table.isStale() || table.isPartial())
+			return;
+		Connection connection;
+		try {
+			connection = table.getConnection();
+		} catch (SQLException e) {
+			return;
+		}
+		schedule(connection, generation, table.preparePage(pageSize), tableViewController, 0);
+	}
+
+	/**
+	 * Verwirft alle ausstehenden Arbeiten.
+	 */
+	public void cancel() {
+		generation.incrementAndGet();
+	}
+
+	/**
+	 * Plant das Laden einer Seite auf dem Hintergrund-Thread.
+	 *
+	 * @param connection
+	 *            Verbindung zur Datenbank.
+	 * @param generation
+	 *            Zähler der Auswahl.
+	 * @param page
+	 *            Zu ladende Seite.
+	 * @param tableViewController
+	 *            Besitzer der Tabelle.
+	 * @param delay
+	 *            Verzögerung in Millisekunden.
+	 */
+	private void schedule(Connection connection, int generation, Table.Page page,
+			TableViewController tableViewController, long delay) {
+		try {
+			connection.getBackgroundExecutor().schedule(() -> load(connection, generation, page, tableViewController),
+					delay, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			// Die Verbindung wurde geschlossen.
+		}
+	}
+
+	/**
+	 * Lädt eine Seite, sofern der Benutzer gerade keine Anfragen auslöst, und
+	 * übernimmt sie anschließend im JavaFX-Thread.
+	 *
+	 * @param connection
+	 *            Verbindung zur Datenbank.
+	 * @param generation
+	 *            Zähler der Auswahl.
+	 * @param page
+	 *            Zu ladende Seite.
+	 * @param tableViewController
+	 *            Besitzer der Tabelle.
+	 */
+	private void load(Connection connection, int generation, Table.Page page,
+			TableViewController tableViewController) {
+		if (generation != this.generation.get())
+			return;
+		long idleTime = connection.getTimeSinceLastForegroundActivity();
+		if (idleTime < idleDelay) {
+			schedule(connection, generation, page, tableViewController, idleDelay - idleTime);
+			return;
+		}
+		try {
+			page.load();
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return;
+		}
+		Platform.runLater(() -> {
+			if (!hasCapacity() || !page.getTable().applyPage(page))
+				return;
+			MasterDetailViewController masterDetailViewController = masterViewController
+					.getMasterDetailViewController();
+			if (masterDetailViewController != null)
+				masterDetailViewController.cacheDetailViewController(tableViewController);
+		});
+	}
+
+	/**
+	 * Gibt zurück, ob der Zwischenspeicher des
+	 * {@link MasterDetailViewController}s noch Platz bietet.
+	 *
+	 * @return {@code true}, wenn vorgeladen werden darf.
+	 */
+	private boolean hasCapacity() {
+		MasterDetailViewController masterDetailViewController = masterViewController.getMasterDetailViewController();
+		return masterDetailViewController == null
+				|| masterDetailViewController.getCacheSize() < masterDetailViewController.getMaximumCacheSize();
+	}
+
+	/**
+	 * Getter für {@link #pageSize}.
+	 *
+	 * @return Anzahl der vorzuladenden Zeilen je Tabelle.
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Setter für {@link #pageSize}.
+	 *
+	 * @param pageSize
+	 *            Anzahl der vorzuladenden Zeilen je Tabelle.
+	 */
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Getter für {@link #idleDelay}.
+	 *
+	 * @return Wartezeit nach der letzten Anfrage des Benutzers in
+	 *         Millisekunden.
+	 */
+	public long getIdleDelay() {
+		return idleDelay;
+	}
+
+	/**
+	 * Setter für {@link #idleDelay}.
+	 *
+	 * @param idleDelay
+	 *            Wartezeit nach der letzten Anfrage des Benutzers in
+	 *            Millisekunden.
+	 */
+	public void setIdleDelay(long idleDelay) {
+		this.idleDelay = idleDelay;
+	}
+}
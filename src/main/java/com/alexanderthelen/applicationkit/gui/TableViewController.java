@@ -1,9 +1,11 @@
 package com.alexanderthelen.applicationkit.gui;
 
-import com.alexanderthelen.applicationkit.Application;
 import com.alexanderthelen.applicationkit.database.Column;
+import com.alexanderthelen.applicationkit.database.Connection;
+import com.alexanderthelen.applicationkit.database.Data;
 import com.alexanderthelen.applicationkit.database.Row;
 import com.alexanderthelen.applicationkit.database.Table;
+import javafx.application.Platform;
 import javafx.collections.ListChangeListener;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.fxml.FXML;
@@ -19,10 +21,10 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Die {@code TabeViewController}-Klasse dient zur Visualisierung einer Tabelle.
@@ -30,6 +32,11 @@ import java.util.ArrayList;
  *
  */
 public class TableViewController extends ViewController {
+    /**
+     * Standardgröße des Vorrats an Zeilenansichten.
+     */
+    public static final int DEFAULT_ROW_VIEW_CONTROLLER_POOL_SIZE = 2;
+
     /**
      * View des TableViewControllers.
      */
@@ -60,6 +67,12 @@ public class TableViewController extends ViewController {
      */
     @FXML
     protected TableView<Row> tableView;
+    /**
+     * Fußzeile mit der Zusammenfassung der numerischen Spalten (siehe
+     * {@link Table.Summary}).
+     */
+    @FXML
+    protected HBox summaryView;
     /**
      * Untere Werkzeugleiste.
      */
@@ -110,6 +123,29 @@ public class TableViewController extends ViewController {
      * Zum TableViewController gehörende Zeilenansicht.
      */
     private RowViewController rowViewController;
+    /**
+     * Vorrat an bereits aufgebauten Zeilenansichten, die für weitere Zeilen
+     * wiederverwendet werden (siehe {@link RowViewController#setRow(Row)}).
+     */
+    private final ArrayList<RowViewController> rowViewControllerPool = new ArrayList<>();
+    /**
+     * Maximale Anzahl der Zeilenansichten im Vorrat.
+     */
+    private int rowViewControllerPoolSize = DEFAULT_ROW_VIEW_CONTROLLER_POOL_SIZE;
+    /**
+     * Signatur der Spalten, für die die Spalten der {@link #tableView} erzeugt
+     * wurden (siehe {@link Table#getSchemaSignature()}).
+     */
+    private String schemaSignature;
+    /**
+     * Gibt an, ob gerade eine Zusammenfassung im Hintergrund berechnet wird.
+     */
+    private boolean summaryPending;
+    /**
+     * Geschätzte Anzahl der Zeilen (siehe {@link Table#estimateRowCount(String)})
+     * oder {@code -1}, wenn sie nicht bekannt ist.
+     */
+    private long estimatedRowCount = -1;
 
     /**
      * Erstellt eine {@code TableViewController}-Instanz mit einem Namen und
@@ -157,7 +193,8 @@ public class TableViewController extends ViewController {
         table.getRows().addListener(new ListChangeListener<Row>() {
             @Override
             public void onChanged(Change<? extends Row> c) {
-                bottomStatusLabel.setText("Einträge: " + table.getRows().size());
+                updateRowCount();
+                updateSummary();
             }
         });
 
@@ -283,6 +320,12 @@ public class TableViewController extends ViewController {
     /**
      * Zeigt die Zeilenansicht mit einer Zeile an.
      *
+     * Sind die Spalten der Zeilenansicht bereits bekannt (siehe
+     * {@link Table#createEditableRow()}), wird die Zeilenansicht sofort
+     * angezeigt und im Hintergrund gefüllt (siehe
+     * {@link RowViewController#fetchRow(Data)}). Ansonsten wird die Zeile
+     * vorher einmalig geladen.
+     *
      * @param row
      *            Anzuzeigende Zeile.
      */
@@ -294,34 +337,14 @@ public class TableViewController extends ViewController {
                     row.put(column, null);
                 }
             }
-            String selectQueryForRow = getTable().getSelectQueryForRowWithData(row.getData());
-            if (selectQueryForRow == null) {
-                throw new SQLException("getSelectQueryForRowWithData(Data data) nicht implementiert.");
-            }
-            Row editableRow = new Row();
-            ResultSet resultSet = Application.getInstance().getConnection().executeQuery(selectQueryForRow);
-            ResultSetMetaData metaData = resultSet.getMetaData();
-            ArrayList<Column> columns = new ArrayList<>();
-            for (int i = 1; i <= metaData.getColumnCount(); i++) {
-                String name = metaData.getColumnName(i);
-                String type = metaData.getColumnTypeName(i);
-                String nameOfTable = metaData.getTableName(i);
-
-                Column column = new Column(name, type, nameOfTable);
-                columns.add(column);
-            }
-            for (Column column : columns) {
-                editableRow.put(column, null);
-            }
-            ResultSet resultSet2 = Application.getInstance().getConnection().executeQuery(selectQueryForRow);
-            if (resultSet2.next()) {
-                int i = 1;
-                for (Column column : columns) {
-                    editableRow.put(column, resultSet2.getObject(i));
-                    i++;
-                }
-            }
-            rowViewController = RowViewController.createWithNameAndRowAndTableViewController("row", editableRow, this);
+            Data data = row.getData();
+            Row editableRow = getTable().createEditableRow();
+            boolean fetchInBackground = editableRow != null;
+            if (!fetchInBackground)
+                editableRow = getTable().fetchRow(data);
+            rowViewController = obtainRowViewController(editableRow);
+            if (fetchInBackground)
+                rowViewController.fetchRow(data);
             if (getParentController() instanceof NavigationViewController) {
                 ((NavigationViewController) getParentController()).pushViewController(rowViewController);
             } else {
@@ -333,74 +356,325 @@ public class TableViewController extends ViewController {
         }
     }
 
+    /**
+     * Gibt eine Zeilenansicht für eine Zeile zurück.
+     *
+     * Eine nicht angezeigte Zeilenansicht aus dem Vorrat wird an die Zeile
+     * gebunden, sodass ihr View nicht neu geladen und bei gleichen Spalten
+     * auch nicht neu aufgebaut werden muss. Ansonsten wird eine neue
+     * Zeilenansicht erzeugt und, sofern Platz ist, in den Vorrat aufgenommen.
+     *
+     * @param row
+     *            Anzuzeigende Zeile.
+     * @return Zeilenansicht.
+     * @throws IOException
+     *             wenn der View nicht geladen werden kann.
+     */
+    private RowViewController obtainRowViewController(Row row) throws IOException {
+        for (RowViewController pooledRowViewController : rowViewControllerPool) {
+            if (pooledRowViewController.isIdle()) {
+                pooledRowViewController.setRow(row);
+                return pooledRowViewController;
+            }
+        }
+        RowViewController rowViewController = RowViewController.createWithNameAndRowAndTableViewController("row", row,
+                this);
+        if (rowViewControllerPool.size() < rowViewControllerPoolSize)
+            rowViewControllerPool.add(rowViewController);
+        return rowViewController;
+    }
+
+    /**
+     * Getter für {@link #rowViewControllerPoolSize}.
+     *
+     * @return Maximale Anzahl der Zeilenansichten im Vorrat.
+     */
+    public int getRowViewControllerPoolSize() {
+        return rowViewControllerPoolSize;
+    }
+
+    /**
+     * Setter für {@link #rowViewControllerPoolSize}.
+     *
+     * Überzählige Zeilenansichten werden aus dem Vorrat entfernt. Bei
+     * {@code 0} werden keine Zeilenansichten wiederverwendet.
+     *
+     * @param rowViewControllerPoolSize
+     *            Maximale Anzahl der Zeilenansichten im Vorrat.
+     */
+    public void setRowViewControllerPoolSize(int rowViewControllerPoolSize) {
+        this.rowViewControllerPoolSize = rowViewControllerPoolSize;
+        while (rowViewControllerPool.size() > Math.max(rowViewControllerPoolSize, 0)) {
+            rowViewControllerPool.remove(rowViewControllerPool.size() - 1);
+        }
+    }
+
     /**
      * Aktualisiert die Tabelle sowohl im Aufbau als auch im Inhalt.
+     *
+     * Die Spalten werden dabei nur neu erzeugt, wenn sich ihre Signatur
+     * geändert hat (siehe {@link Table#getSchemaSignature()}).
      */
     @FXML
     public void refreshTable() {
+        table.invalidate();
         viewWillAppear();
     }
 
+    /**
+     * Lädt die Tabelle nur, wenn sie veraltet ist (siehe
+     * {@link Table#isStale()}).
+     *
+     * Wurde die Tabelle bereits an anderer Stelle gefüllt, werden lediglich
+     * die Spalten erzeugt. So erscheint eine bereits geladene Tabelle ohne
+     * Anfrage an die Datenbank. Wurde nur die erste Seite vorgeladen (siehe
+     * {@link Table#isPartial()}), wird diese sofort angezeigt und die Tabelle
+     * erst nach dem Erscheinen vervollständigt.
+     */
     @Override
     public void viewWillAppear() {
         super.viewWillAppear();
-        buildView();
-        if (tableView.getColumns().size() > 0)
-            fillView();
+        inheritConnectionProvider(getWindowController());
+        if (table.isStale() && table.isPartial()) {
+            if (!table.getSchemaSignature().equals(schemaSignature))
+                buildColumns();
+            Platform.runLater(() -> {
+                if (table.isStale())
+                    fillView();
+            });
+        } else if (table.isStale()) {
+            buildView();
+            if (tableView.getColumns().size() > 0)
+                fillView();
+        } else if (table.getSchemaSignature() == null || !table.getSchemaSignature().equals(schemaSignature)) {
+            buildColumns();
+        }
+    }
+
+    /**
+     * Übernimmt den Anbieter der Verbindung eines Fensters, wenn die Tabelle
+     * keinen eigenen besitzt (siehe
+     * {@link WindowController#getConnectionProvider()}).
+     *
+     * @param windowController
+     *            Fenster, in dem die Tabelle angezeigt wird (kann {@code null}
+     *            sein).
+     */
+    void inheritConnectionProvider(WindowController windowController) {
+        if (windowController != null && table.getConnectionProvider() == null
+                && windowController.getConnectionProvider() != null)
+            table.setConnectionProvider(windowController.getConnectionProvider());
     }
 
     /**
      * Baut die Tabelle auf.
      */
     public void buildView() {
-        tableView.getColumns().clear();
         topStatusLabel.setText(table.getTitle());
         try {
             table.build();
+            if (table.getSchemaSignature() == null || !table.getSchemaSignature().equals(schemaSignature))
+                buildColumns();
+        } catch (SQLException e) {
+            tableView.getColumns().clear();
+            schemaSignature = null;
+            presentAlertDialog(Alert.AlertType.ERROR, "Tabelle nicht aufgebaut!",
+                    "Die Tabelle konnte nicht aufgebaut werden.", e, ButtonType.OK);
+        }
+    }
 
-            for (Column column : table.getColumns().values()) {
-                if ((column.getType().equals("BLOB"))) {
-                    TableColumn<Row, byte[]> tableColumn = new TableColumn<>(column.getName());
-                    tableColumn.setCellFactory(new Callback<TableColumn<Row, byte[]>, TableCell<Row, byte[]>>() {
-                        @Override
-                        public TableCell<Row, byte[]> call(TableColumn<Row, byte[]> param) {
-                            TableCell<Row, byte[]> cell = new TableCell<Row, byte[]>() {
-                                @Override
-                                protected void updateItem(byte[] item, boolean empty) {
-                                    super.updateItem(item, empty);
-
-                                    ImageView imageView = new ImageView();
-                                    imageView.setFitWidth(64);
-                                    imageView.setFitHeight(64);
-                                    imageView.setPreserveRatio(true);
-                                    setGraphic(imageView);
-
-                                    if (item != null && !empty) {
-                                        try {
-                                            ByteArrayInputStream bis = new ByteArrayInputStream(item);
-                                            BufferedImage read = ImageIO.read(bis);
-                                            Image image = SwingFXUtils.toFXImage(read, null);
-                                            imageView.setImage(image);
-                                        } catch (IOException e) {
-                                            e.printStackTrace();
-                                        }
+    /**
+     * Erzeugt die Spalten der {@link #tableView} anhand der Spalten der
+     * Tabelle.
+     */
+    private void buildColumns() {
+        tableView.getColumns().clear();
+        topStatusLabel.setText(table.getTitle());
+        updateRowCount();
+        for (Column column : table.getColumns().values()) {
+            if ((column.getType().equals("BLOB"))) {
+                TableColumn<Row, byte[]> tableColumn = new TableColumn<>(column.getName());
+                tableColumn.setCellFactory(new Callback<TableColumn<Row, byte[]>, TableCell<Row, byte[]>>() {
+                    @Override
+                    public TableCell<Row, byte[]> call(TableColumn<Row, byte[]> param) {
+                        TableCell<Row, byte[]> cell = new TableCell<Row, byte[]>() {
+                            @Override
+                            protected void updateItem(byte[] item, boolean empty) {
+                                super.updateItem(item, empty);
+
+                                ImageView imageView = new ImageView();
+                                imageView.setFitWidth(64);
+                                imageView.setFitHeight(64);
+                                imageView.setPreserveRatio(true);
+                                setGraphic(imageView);
+
+                                if (item != null && !empty) {
+                                    try {
+                                        ByteArrayInputStream bis = new ByteArrayInputStream(item);
+                                        BufferedImage read = ImageIO.read(bis);
+                                        Image image = SwingFXUtils.toFXImage(read, null);
+                                        imageView.setImage(image);
+                                    } catch (IOException e) {
+                                        e.printStackTrace();
                                     }
                                 }
-                            };
-                            return cell;
-                        }
-                    });
-                    tableColumn.setCellValueFactory(new MapValueFactory(column));
-                    tableView.getColumns().add(tableColumn);
-                } else {
-                    TableColumn tableColumn = new TableColumn(column.getName());
-                    tableColumn.setCellValueFactory(new MapValueFactory(column));
-                    tableView.getColumns().add(tableColumn);
-                }
+                            }
+                        };
+                        return cell;
+                    }
+                });
+                tableColumn.setCellValueFactory(new MapValueFactory(column));
+                tableView.getColumns().add(tableColumn);
+            } else {
+                TableColumn tableColumn = new TableColumn(column.getName());
+                tableColumn.setCellValueFactory(new MapValueFactory(column));
+                tableView.getColumns().add(tableColumn);
             }
+        }
+        schemaSignature = table.getSchemaSignature();
+    }
+
+    /**
+     * Zeigt die Anzahl der Einträge im unteren Label an.
+     *
+     * Ist die Tabelle vollständig geladen, ist das die Anzahl der geladenen
+     * Zeilen. Ansonsten wird die von der Datenbank gezählte Anzahl der
+     * Zusammenfassung (siehe {@link Table.Summary#getCount()}) und, solange
+     * diese noch berechnet wird, eine Schätzung angezeigt.
+     */
+    private void updateRowCount() {
+        Table.Summary summary = table.getSummary();
+        if (!table.isPartial()) {
+            bottomStatusLabel.setText("Einträge: " + table.getRows().size());
+        } else if (summary != null) {
+            bottomStatusLabel.setText("Einträge: " + summary.getCount());
+        } else if (estimatedRowCount >= 0) {
+            bottomStatusLabel.setText("Einträge: ~" + estimatedRowCount);
+        } else {
+            bottomStatusLabel.setText("Einträge: " + table.getRows().size() + "+");
+        }
+    }
+
+    /**
+     * Zeigt die Zusammenfassung der numerischen Spalten in der Fußzeile und
+     * die Anzahl der Einträge an (siehe {@link #updateRowCount()}).
+     *
+     * Ist die Zusammenfassung der Tabelle nicht zwischengespeichert (siehe
+     * {@link Table#getSummary()}), wird sie auf dem Hintergrund-Thread der
+     * Verbindung berechnet (siehe {@link Connection#getBackgroundExecutor()})
+     * und anschließend im JavaFX-Thread übernommen. Ist die Tabelle nur
+     * teilweise geladen, wird vorher die Anzahl der Zeilen geschätzt (siehe
+     * {@link Table#estimateRowCount(String)}). Besitzt die Tabelle keine
+     * numerischen Spalten, wird die Fußzeile ausgeblendet.
+     */
+    public void updateSummary() {
+        Table.Summary summary = table.getSummary();
+        if (summary != null) {
+            showSummary(summary);
+            return;
+        }
+        if (summaryPending)
+            return;
+        Table.Summary preparedSummary = table.prepareSummary();
+        boolean estimate = table.isPartial();
+        String filter = table.getFilter();
+        Connection connection;
+        try {
+            connection = table.getConnection();
         } catch (SQLException e) {
-            presentAlertDialog(Alert.AlertType.ERROR, "Tabelle nicht aufgebaut!",
-                    "Die Tabelle konnte nicht aufgebaut werden.", e, ButtonType.OK);
+            return;
+        }
+        summaryPending = true;
+        estimatedRowCount = -1;
+        try {
+            connection.getBackgroundExecutor().execute(() -> {
+                try {
+                    if (estimate) {
+                        long estimatedRowCount = table.estimateRowCount(filter);
+                        Platform.runLater(() -> {
+                            this.estimatedRowCount = estimatedRowCount;
+                            updateRowCount();
+                        });
+                    }
+                    preparedSummary.load();
+                } catch (SQLException | RuntimeException e) {
+                    // Auch unerwartete Fehler geben die Zusammenfassung wieder
+                    // frei, sonst würde sie nie mehr berechnet.
+                    e.printStackTrace();
+                    Platform.runLater(() -> summaryPending = false);
+                    return;
+                }
+                Platform.runLater(() -> {
+                    summaryPending = false;
+                    if (table.applySummary(preparedSummary))
+                        showSummary(preparedSummary);
+                    else
+                        updateSummary();
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            // Die Verbindung wurde geschlossen.
+            summaryPending = false;
+        }
+    }
+
+    /**
+     * Füllt die Fußzeile mit einer Zusammenfassung.
+     *
+     * @param summary
+     *            Zusammenfassung oder {@code null}, um die Fußzeile
+     *            auszublenden.
+     */
+    private void showSummary(Table.Summary summary) {
+        updateRowCount();
+        if (summaryView == null)
+            return;
+        summaryView.getChildren().clear();
+        boolean visible = summary != null && !summary.getColumns().isEmpty();
+        summaryView.setVisible(visible);
+        summaryView.setManaged(visible);
+        if (!visible)
+            return;
+        NumberFormat format = NumberFormat.getInstance();
+        for (Column column : summary.getColumns()) {
+            Number sum = summary.getSum(column);
+            Number average = summary.getAverage(column);
+            Label label = new Label(column.getName() + ": Σ " + (sum == null ? "-" : format.format(sum)) + ", ⌀ "
+                    + (average == null ? "-" : format.format(average)));
+            summaryView.getChildren().add(label);
+        }
+    }
+
+    /**
+     * Lädt die erste Seite der Tabelle auf dem Hintergrund-Thread der
+     * Verbindung vor (siehe {@link Connection#getBackgroundExecutor()}).
+     *
+     * Ist die Tabelle nicht veraltet, passiert nichts. Die Seite wird im
+     * JavaFX-Thread übernommen (siehe {@link Table#applyPage(Table.Page)}).
+     */
+    public void preload() {
+        inheritConnectionProvider(getWindowController());
+        if (!table.isStale() || table.isPartial())
+            return;
+        Connection connection;
+        try {
+            connection = table.getConnection();
+        } catch (SQLException e) {
+            return;
+        }
+        Table.Page page = table.preparePage(TablePrefetcher.DEFAULT_PAGE_SIZE);
+        try {
+            connection.getBackgroundExecutor().execute(() -> {
+                try {
+                    page.load();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                    return;
+                }
+                Platform.runLater(() -> table.applyPage(page));
+            });
+        } catch (RejectedExecutionException e) {
+            // Die Verbindung wurde geschlossen.
         }
     }
 
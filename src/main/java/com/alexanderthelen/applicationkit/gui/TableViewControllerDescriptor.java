@@ -0,0 +1,113 @@
+package com.alexanderthelen.applicationkit.gui;
+
+import java.io.IOException;
+
+/**
+ * Ein {@code TableViewControllerDescriptor} beschreibt eine
+ * {@link TableViewController}-Instanz, ohne sie zu erzeugen.
+ *
+ * Er besteht aus einem Titel und einer Fabrik. Der TableViewController (und
+ * damit auch seine Tabelle und sein View) wird erst beim ersten Abruf per
+ * {@link #getTableViewController()} erzeugt und anschließend
+ * wiederverwendet. So muss ein {@link MasterViewController} beim Start nur die
+ * Titel seiner Elemente kennen.
+ */
+public class TableViewControllerDescriptor {
+	/**
+	 * Fabrik eines TableViewControllers.
+	 */
+	@FunctionalInterface
+	public interface Factory {
+		/**
+		 * Erzeugt den TableViewController.
+		 *
+		 * @return TableViewController.
+		 * @throws IOException
+		 *             wenn der View nicht geladen werden kann.
+		 */
+		TableViewController create() throws IOException;
+	}
+
+	/**
+	 * Titel, der im {@link MasterViewController} angezeigt wird.
+	 */
+	private final String title;
+	/**
+	 * Fabrik des TableViewControllers.
+	 */
+	private final Factory factory;
+	/**
+	 * Erzeugter TableViewController oder {@code null}, solange er noch nicht
+	 * erzeugt wurde.
+	 */
+	private TableViewController tableViewController;
+
+	/**
+	 * Erstellt eine neue {@code TableViewControllerDescriptor}-Instanz mit
+	 * einem Titel und einer Fabrik.
+	 *
+	 * @param title
+	 *            Titel, der im MasterViewController angezeigt wird.
+	 * @param factory
+	 *            Fabrik des TableViewControllers, z. B.
+	 *            {@code () -> TableViewController.createWithNameAndTable("name", new MyTable())}.
+	 */
+	public TableViewControllerDescriptor(String title, Factory factory) {
+		this.title = title;
+		this.factory = factory;
+	}
+
+	/**
+	 * Erstellt eine {@code TableViewControllerDescriptor}-Instanz für einen
+	 * bereits erzeugten TableViewController.
+	 *
+	 * @param tableViewController
+	 *            TableViewController.
+	 * @return Beschreibung des TableViewControllers.
+	 */
+	public static TableViewControllerDescriptor of(TableViewController tableViewController) {
+		TableViewControllerDescriptor descriptor = new TableViewControllerDescriptor(tableViewController.getTitle(),
+				() -> tableViewController);
+		descriptor.tableViewController = tableViewController;
+		return descriptor;
+	}
+
+	/**
+	 * Gibt den TableViewController zurück und erzeugt ihn beim ersten Aufruf.
+	 *
+	 * @return TableViewController.
+	 * @throws IOException
+	 *             wenn der View nicht geladen werden kann.
+	 */
+	public TableViewController getTableViewController() throws IOException {
+		if (tableViewController == null) {
+			tableViewController = factory.create();
+			if (tableViewController.getTitle() == null)
+				tableViewController.setTitle(title);
+		}
+		return tableViewController;
+	}
+
+	/**
+	 * Gibt zurück, ob der TableViewController bereits erzeugt wurde.
+	 *
+	 * @return {@code true}, wenn der TableViewController erzeugt wurde.
+	 */
+	public boolean isCreated() {
+		return tableViewController != null;
+	}
+
+	/**
+	 * Getter für {@link #title}.
+	 *
+	 * @return Titel, der im MasterViewController angezeigt wird.
+	 */
+	public String getTitle() {
+		return title;
+	}
+
+	@Override
+	public String toString() {
+		return title;
+	}
+}
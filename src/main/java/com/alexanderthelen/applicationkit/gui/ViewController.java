@@ -1,7 +1,8 @@
 package com.alexanderthelen.applicationkit.gui;
 
+import com.alexanderthelen.applicationkit.metrics.MetricRegistry;
+import com.alexanderthelen.applicationkit.metrics.Timer;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
@@ -101,16 +102,14 @@ public abstract class ViewController extends Controller {
 	}
 
 	/**
-	 * Lädt den View und setzt den Controller.
+	 * Lädt den View und setzt den Controller (siehe {@link ViewFactory}).
 	 *
 	 * @throws IOException
 	 *             wenn die URL nicht gelesen werden kann oder das Laden
 	 *             fehlschlägt.
 	 */
 	protected void loadView() throws IOException {
-		FXMLLoader loader = new FXMLLoader(urlOfView);
-		loader.setController(this);
-		loader.load();
+		ViewFactory.load(urlOfView, this);
 	}
 
 	/**
@@ -123,7 +122,25 @@ public abstract class ViewController extends Controller {
 	 */
 	public void viewWillAppear() {
 		for (Controller controller : getChildControllers()) {
-			((ViewController) controller).viewWillAppear();
+			((ViewController) controller).performViewWillAppear();
+		}
+	}
+
+	/**
+	 * Ruft {@link #viewWillAppear()} auf und misst die Dauer in der Metrik
+	 * {@code viewController.<Klasse>.viewWillAppear} (siehe
+	 * {@link MetricRegistry}).
+	 *
+	 * Die Dauer schließt die eingebetteten ViewController mit ein.
+	 */
+	void performViewWillAppear() {
+		Timer timer = MetricRegistry.getInstance()
+				.getTimer("viewController." + getClass().getName() + ".viewWillAppear");
+		long start = timer.start();
+		try {
+			viewWillAppear();
+		} finally {
+			timer.stop(start);
 		}
 	}
 
@@ -191,7 +208,7 @@ public abstract class ViewController extends Controller {
 	public void addChildViewControllerToView(ViewController viewController, Parent view) {
 		addChildController(viewController);
 		if (getWindowController() != null)
-			viewController.viewWillAppear();
+			viewController.performViewWillAppear();
 		if (view instanceof BorderPane) {
 			((BorderPane) view).setCenter(viewController.getView());
 		} else if (view instanceof SplitPane) {
@@ -231,7 +248,7 @@ public abstract class ViewController extends Controller {
 	public void addChildViewControllerToViewAtIndex(ViewController viewController, Parent view, int index) {
 		addChildController(viewController);
 		if (getWindowController() != null)
-			viewController.viewWillAppear();
+			viewController.performViewWillAppear();
 		if (view instanceof SplitPane) {
 			((SplitPane) view).getItems().add(index, viewController.getView());
 		} else {
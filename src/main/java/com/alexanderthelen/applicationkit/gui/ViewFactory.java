@@ -0,0 +1,292 @@
+package com.alexanderthelen.applicationkit.gui;
+
+import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.MenuBar;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Die {@code ViewFactory} erzeugt die Views der Controller.
+ *
+ * Für häufig erzeugte Views (z. B. {@code Window.fxml} und
+ * {@code RowView.fxml}) sind Erbauer hinterlegt, die den View direkt in Java
+ * aufbauen, ohne die fxml-Datei zu lesen oder Reflection zu verwenden (siehe
+ * {@link #registerBuilder(URL, Class, ViewBuilder)}). Alle anderen Views werden
+ * per {@link FXMLLoader} geladen. Der Inhalt der fxml-Dateien wird dabei nur
+ * einmal gelesen und anschließend zwischengespeichert.
+ *
+ * Mit der Systemeigenschaft {@code -Dapplicationkit.viewBuilders=false} werden
+ * alle Views per {@link FXMLLoader} geladen.
+ */
+public class ViewFactory {
+	/**
+	 * Erbauer eines Views.
+	 *
+	 * @param <T>
+	 *            Typ des Controllers.
+	 */
+	@FunctionalInterface
+	public interface ViewBuilder<T extends Controller> {
+		/**
+		 * Baut den View auf, setzt die Felder des Controllers und ruft
+		 * anschließend {@link Controller#initialize()} auf.
+		 *
+		 * @param controller
+		 *            Controller des Views.
+		 * @throws IOException
+		 *             wenn der View nicht aufgebaut werden kann.
+		 */
+		void build(T controller) throws IOException;
+	}
+
+	/**
+	 * Zwischengespeicherter Inhalt der fxml-Dateien. Der Schlüssel ist die URL
+	 * der Datei.
+	 */
+	private static final ConcurrentHashMap<String, byte[]> templates = new ConcurrentHashMap<>();
+	/**
+	 * Erbauer der Views. Der Schlüssel ist die URL der fxml-Datei.
+	 */
+	private static final HashMap<String, Registration<?>> builders = new HashMap<>();
+	/**
+	 * Gibt an, ob die Erbauer verwendet werden.
+	 */
+	private static boolean buildersEnabled = !"false".equals(System.getProperty("applicationkit.viewBuilders"));
+
+	static {
+		registerBuilder(WindowController.class.getResource("Window.fxml"), WindowController.class,
+				ViewFactory::buildWindow);
+		registerBuilder(RowViewController.class.getResource("RowView.fxml"), RowViewController.class,
+				ViewFactory::buildRowView);
+	}
+
+	/**
+	 * Die Klasse besitzt nur statische Methoden.
+	 */
+	private ViewFactory() {
+	}
+
+	/**
+	 * Lädt den View zu einer fxml-Datei und setzt den Controller.
+	 *
+	 * Ist für die Datei ein Erbauer für den Typ des Controllers hinterlegt,
+	 * wird dieser verwendet.
+	 *
+	 * @param urlOfView
+	 *            URL des Views zur fxml-Datei.
+	 * @param controller
+	 *            Controller des Views.
+	 * @throws IOException
+	 *             wenn die URL nicht gelesen werden kann oder das Laden
+	 *             fehlschlägt.
+	 */
+	public static void load(URL urlOfView, Controller controller) throws IOException {
+		Registration<?> registration;
+		synchronized (builders) {
+			registration = buildersEnabled ? builders.get(urlOfView.toExternalForm()) : null;
+		}
+		if (registration != null && registration.type.isInstance(controller)) {
+			registration.build(controller);
+			return;
+		}
+		FXMLLoader loader = new FXMLLoader(urlOfView);
+		loader.setController(controller);
+		loader.load(new ByteArrayInputStream(getTemplate(urlOfView)));
+	}
+
+	/**
+	 * Hinterlegt einen Erbauer für eine fxml-Datei.
+	 *
+	 * Der Erbauer wird nur für Controller vom gegebenen Typ (oder dessen
+	 * Unterklassen) verwendet und muss dasselbe Ergebnis liefern wie die
+	 * fxml-Datei.
+	 *
+	 * @param urlOfView
+	 *            URL des Views zur fxml-Datei.
+	 * @param type
+	 *            Typ des Controllers.
+	 * @param builder
+	 *            Erbauer.
+	 * @param <T>
+	 *            Typ des Controllers.
+	 */
+	public static <T extends Controller> void registerBuilder(URL urlOfView, Class<T> type, ViewBuilder<T> builder) {
+		synchronized (builders) {
+			builders.put(urlOfView.toExternalForm(), new Registration<>(type, builder));
+		}
+	}
+
+	/**
+	 * Getter für {@link #buildersEnabled}.
+	 *
+	 * @return {@code true}, wenn die Erbauer verwendet werden.
+	 */
+	public static boolean isBuildersEnabled() {
+		return buildersEnabled;
+	}
+
+	/**
+	 * Setter für {@link #buildersEnabled}.
+	 *
+	 * @param buildersEnabled
+	 *            {@code true}, wenn die Erbauer verwendet werden sollen.
+	 */
+	public static void setBuildersEnabled(boolean buildersEnabled) {
+		ViewFactory.buildersEnabled = buildersEnabled;
+	}
+
+	/**
+	 * Gibt den Inhalt einer fxml-Datei zurück und liest sie ggf. ein.
+	 *
+	 * @param urlOfView
+	 *            URL des Views zur fxml-Datei.
+	 * @return Inhalt der Datei.
+	 * @throws IOException
+	 *             wenn die Datei nicht gelesen werden kann.
+	 */
+	private static byte[] getTemplate(URL urlOfView) throws IOException {
+		String key = urlOfView.toExternalForm();
+		byte[] template = templates.get(key);
+		if (template == null) {
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			try (InputStream inputStream = urlOfView.openStream()) {
+				byte[] buffer = new byte[4096];
+				int length;
+				while ((length = inputStream.read(buffer)) != -1) {
+					outputStream.write(buffer, 0, length);
+				}
+			}
+			template = outputStream.toByteArray();
+			templates.put(key, template);
+		}
+		return template;
+	}
+
+	/**
+	 * Baut den View von {@code Window.fxml} auf.
+	 *
+	 * @param controller
+	 *            WindowController.
+	 */
+	private static void buildWindow(WindowController controller) {
+		BorderPane view = new BorderPane();
+		view.setPrefSize(600.0, 400.0);
+		view.getStyleClass().add("view");
+		view.getStylesheets().add(WindowController.class.getResource("default.css").toExternalForm());
+
+		MenuBar menuBar = new MenuBar();
+		BorderPane.setAlignment(menuBar, Pos.CENTER);
+		view.setTop(menuBar);
+
+		StackPane contentView = new StackPane();
+		BorderPane.setAlignment(contentView, Pos.CENTER);
+		view.setCenter(contentView);
+
+		controller.view = view;
+		controller.menuBar = menuBar;
+		controller.contentView = contentView;
+		controller.initialize();
+	}
+
+	/**
+	 * Baut den View von {@code RowView.fxml} auf.
+	 *
+	 * @param controller
+	 *            RowViewController.
+	 */
+	private static void buildRowView(RowViewController controller) {
+		BorderPane view = new BorderPane();
+		view.setPrefSize(600.0, 400.0);
+		view.getStyleClass().add("view");
+
+		Button resetButton = new Button("Zurücksetzen");
+		resetButton.setCancelButton(true);
+		resetButton.setMnemonicParsing(false);
+		resetButton.setOnAction(event -> controller.resetInput());
+		Button acceptButton = new Button("Speichern");
+		acceptButton.setDefaultButton(true);
+		acceptButton.setMnemonicParsing(false);
+		acceptButton.setOnAction(event -> controller.acceptInput());
+
+		HBox buttonsView = new HBox(10.0, resetButton, acceptButton);
+		buttonsView.setAlignment(Pos.CENTER);
+		buttonsView.setPadding(new Insets(10.0));
+		BorderPane.setAlignment(buttonsView, Pos.CENTER);
+		view.setBottom(buttonsView);
+
+		ColumnConstraints labelColumn = new ColumnConstraints();
+		labelColumn.setHgrow(Priority.SOMETIMES);
+		ColumnConstraints inputColumn = new ColumnConstraints();
+		inputColumn.setHgrow(Priority.ALWAYS);
+		GridPane contentView = new GridPane();
+		contentView.setHgap(5.0);
+		contentView.setVgap(5.0);
+		contentView.getColumnConstraints().addAll(labelColumn, inputColumn);
+		contentView.setPadding(new Insets(10.0));
+		BorderPane.setAlignment(contentView, Pos.CENTER);
+		view.setCenter(contentView);
+
+		((ViewController) controller).view = view;
+		controller.view = view;
+		controller.contentView = contentView;
+		controller.buttonsView = buttonsView;
+		controller.initialize();
+	}
+
+	/**
+	 * Hinterlegter Erbauer mit dem Typ seines Controllers.
+	 *
+	 * @param <T>
+	 *            Typ des Controllers.
+	 */
+	private static class Registration<T extends Controller> {
+		/**
+		 * Typ des Controllers.
+		 */
+		private final Class<T> type;
+		/**
+		 * Erbauer.
+		 */
+		private final ViewBuilder<T> builder;
+
+		/**
+		 * Erstellt eine neue {@code Registration}-Instanz.
+		 *
+		 * @param type
+		 *            Typ des Controllers.
+		 * @param builder
+		 *            Erbauer.
+		 */
+		private Registration(Class<T> type, ViewBuilder<T> builder) {
+			this.type = type;
+			this.builder = builder;
+		}
+
+		/**
+		 * Ruft den Erbauer mit dem Controller auf.
+		 *
+		 * @param controller
+		 *            Controller vom Typ {@link #type}.
+		 * @throws IOException
+		 *             wenn der View nicht aufgebaut werden kann.
+		 */
+		private void build(Controller controller) throws IOException {
+			builder.build(type.cast(controller));
+		}
+	}
+}
@@ -1,7 +1,11 @@
 package com.alexanderthelen.applicationkit.gui;
 
+import com.alexanderthelen.applicationkit.Application;
+import com.alexanderthelen.applicationkit.database.ConnectionProvider;
+import com.alexanderthelen.applicationkit.database.ScopedConnectionProvider;
+import com.alexanderthelen.applicationkit.database.Table;
+import com.alexanderthelen.applicationkit.metrics.MetricRegistry;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
@@ -13,6 +17,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Basisklasse aller WindowController.
@@ -41,10 +46,30 @@ import java.util.Optional;
  * {@link com.alexanderthelen.applicationkit.Application}-Instanz erzeugt und
  * gesetzt werden.
  *
+ * Jedes Fenster kann einen eigenen Anbieter der Verbindung zur Datenbank
+ * besitzen (siehe {@link #setConnectionProvider(ConnectionProvider)} und
+ * {@link #openConnection(String)}), den die Tabellen des Fensters verwenden.
+ *
  * @author Alexander Thelen
  * @version 1.0
  */
 public class WindowController extends Controller {
+	/**
+	 * Überwachung des JavaFX-Threads, die sich alle Fenster teilen.
+	 */
+	private static final StallMonitor stallMonitor = new StallMonitor();
+	/**
+	 * Anzahl der aktuell angezeigten Fenster.
+	 *
+	 * Wird in der Metrik {@code windowController.openWindows} erfasst (siehe
+	 * {@link MetricRegistry}).
+	 */
+	private static final AtomicInteger numberOfOpenWindows = new AtomicInteger();
+
+	static {
+		MetricRegistry.getInstance().registerGauge("windowController.openWindows", numberOfOpenWindows::get);
+	}
+
 	/**
 	 * View des Fenster, dass {@link #menuBar} und {@link #contentView} enthält.
 	 */
@@ -65,6 +90,17 @@ public class WindowController extends Controller {
 	 * Fenster.
 	 */
 	private final Stage window;
+	/**
+	 * Anbieter der Verbindung zur Datenbank für die Tabellen dieses Fensters
+	 * oder {@code null}, wenn die Verbindung der
+	 * {@link com.alexanderthelen.applicationkit.Application} verwendet wird.
+	 */
+	private ConnectionProvider connectionProvider;
+	/**
+	 * Gibt an, ob {@link #connectionProvider} diesem Fenster gehört und mit
+	 * ihm geschlossen wird (siehe {@link #openConnection(String)}).
+	 */
+	private boolean ownsConnectionProvider;
 
 	/**
 	 * Erstellt eine {@code WindowController}-Instanz mit einem Namen.
@@ -78,10 +114,9 @@ public class WindowController extends Controller {
 	 *             wenn das Fenster nicht geladen werden kann.
 	 */
 	public static WindowController createWithName(String name) throws IOException {
-		FXMLLoader loader = new FXMLLoader(WindowController.class.getResource("Window.fxml"));
-		loader.setController(new WindowController(name));
-		loader.load();
-		return loader.getController();
+		WindowController controller = new WindowController(name);
+		ViewFactory.load(WindowController.class.getResource("Window.fxml"), controller);
+		return controller;
 	}
 
 	/**
@@ -122,6 +157,13 @@ public class WindowController extends Controller {
 		window.setOnShown(event -> windowDidAppear());
 		window.setOnHiding(event -> windowWillDisappear());
 		window.setOnHidden(event -> windowDidDisappear());
+		window.showingProperty().addListener((observable, oldValue, newValue) -> {
+			if (newValue) {
+				numberOfOpenWindows.incrementAndGet();
+			} else {
+				numberOfOpenWindows.decrementAndGet();
+			}
+		});
 		window.setMaximized(true);
 	}
 
@@ -135,7 +177,7 @@ public class WindowController extends Controller {
 	 */
 	public void windowWillAppear() {
 		for (Controller controller : getChildControllers()) {
-			((ViewController) controller).viewWillAppear();
+			((ViewController) controller).performViewWillAppear();
 		}
 	}
 
@@ -196,12 +238,20 @@ public class WindowController extends Controller {
 	 * Kurz nachdem der View des MVC geschlossen wird, wird diese Methode
 	 * aufgerufen.
 	 *
+	 * Ist dies das Hauptfenster des Programms, werden ausstehende Änderungen
+	 * einer {@link com.alexanderthelen.applicationkit.database.InMemoryConnection}
+	 * in ihre Datei geschrieben (siehe {@link Application#flushConnection()}).
+	 *
 	 * Unterklassen müssen beim Überschreiben dieser Methode zuerst
 	 * {@code super.windowDidClose()} aufrufen, damit die Methoden der
 	 * {@link #childControllers} auch ausgeführt werden.
 	 */
 	public void windowDidClose() {
 		windowDidDisappear();
+		closeOwnedConnection();
+		Application application = Application.getInstance();
+		if (application != null && application.getWindowController() == this)
+			application.flushConnection();
 	}
 
 	/**
@@ -234,15 +284,19 @@ public class WindowController extends Controller {
 		if (viewController == null)
 			return;
 		addChildController(viewController);
-		viewController.viewWillAppear();
+		viewController.performViewWillAppear();
 		contentView.getChildren().add(viewController.getView());
 		viewController.viewDidAppear();
 	}
 
 	/**
 	 * Zeigt das Fenster an.
+	 *
+	 * Ist die Überwachung des JavaFX-Threads aktiviert (siehe
+	 * {@link #getStallMonitor()}), wird sie spätestens jetzt gestartet.
 	 */
 	public void show() {
+		stallMonitor.start();
 		window.show();
 	}
 
@@ -258,6 +312,65 @@ public class WindowController extends Controller {
 	 */
 	public void close() {
 		window.close();
+		closeOwnedConnection();
+	}
+
+	/**
+	 * Getter für {@link #connectionProvider}.
+	 *
+	 * @return Anbieter der Verbindung oder {@code null}, wenn die Verbindung
+	 *         der {@link com.alexanderthelen.applicationkit.Application}
+	 *         verwendet wird.
+	 */
+	public ConnectionProvider getConnectionProvider() {
+		return connectionProvider;
+	}
+
+	/**
+	 * Setter für {@link #connectionProvider}.
+	 *
+	 * Tabellen ohne eigenen Anbieter, die in diesem Fenster angezeigt werden,
+	 * verwenden diesen Anbieter (siehe
+	 * {@link Table#setConnectionProvider(ConnectionProvider)}). Der Anbieter
+	 * wird beim Schließen des Fensters nicht geschlossen.
+	 *
+	 * @param connectionProvider
+	 *            Anbieter der Verbindung oder {@code null}, wenn die
+	 *            Verbindung der
+	 *            {@link com.alexanderthelen.applicationkit.Application}
+	 *            verwendet werden soll.
+	 */
+	public void setConnectionProvider(ConnectionProvider connectionProvider) {
+		closeOwnedConnection();
+		this.connectionProvider = connectionProvider;
+		ownsConnectionProvider = false;
+	}
+
+	/**
+	 * Öffnet eine eigene Verbindung für dieses Fenster (siehe
+	 * {@link ScopedConnectionProvider}).
+	 *
+	 * Die Verbindung wird erst bei der ersten Anfrage aufgebaut und mit dem
+	 * Fenster geschlossen. So arbeitet das Fenster unabhängig von den anderen
+	 * Fenstern.
+	 *
+	 * @param url
+	 *            URL zur Datenbank.
+	 * @return Anbieter der Verbindung.
+	 */
+	public ScopedConnectionProvider openConnection(String url) {
+		ScopedConnectionProvider connectionProvider = new ScopedConnectionProvider(url);
+		setConnectionProvider(connectionProvider);
+		ownsConnectionProvider = true;
+		return connectionProvider;
+	}
+
+	/**
+	 * Schließt {@link #connectionProvider}, wenn er diesem Fenster gehört.
+	 */
+	private void closeOwnedConnection() {
+		if (ownsConnectionProvider && connectionProvider instanceof ScopedConnectionProvider)
+			((ScopedConnectionProvider) connectionProvider).close();
 	}
 
 	/**
@@ -308,6 +421,9 @@ public class WindowController extends Controller {
 	/**
 	 * Präsentiert einen WindowController modal.
 	 *
+	 * Hat der präsentierte WindowController keinen eigenen Anbieter der
+	 * Verbindung, verwendet er den dieses Fensters.
+	 *
 	 * @param windowController
 	 *            Zu präsentierender WindowController.
 	 */
@@ -315,6 +431,8 @@ public class WindowController extends Controller {
 		windowController.getWindow().initStyle(StageStyle.UTILITY);
 		windowController.getWindow().initOwner(window);
 		windowController.getWindow().initModality(Modality.WINDOW_MODAL);
+		if (windowController.connectionProvider == null)
+			windowController.connectionProvider = connectionProvider;
 		windowController.show();
 	}
 
@@ -332,6 +450,15 @@ public class WindowController extends Controller {
 		window.setTitle(title);
 	}
 
+	/**
+	 * Getter für {@link #stallMonitor}.
+	 *
+	 * @return Überwachung des JavaFX-Threads.
+	 */
+	public static StallMonitor getStallMonitor() {
+		return stallMonitor;
+	}
+
 	/**
 	 * Getter für {@link #window}.
 	 *
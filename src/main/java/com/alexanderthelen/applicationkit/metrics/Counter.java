@@ -0,0 +1,51 @@
+package com.alexanderthelen.applicationkit.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ein {@code Counter} zählt Ereignisse (z.B. geladene Zeilen).
+ */
+public class Counter extends Metric implements CounterMBean {
+	/**
+	 * Stand des Zählers.
+	 */
+	private final AtomicLong count = new AtomicLong();
+
+	/**
+	 * Erstellt eine {@code Counter}-Instanz mit einem Namen (per
+	 * {@link MetricRegistry#getCounter(String)}).
+	 *
+	 * @param name
+	 *            Name des Zählers.
+	 */
+	Counter(String name) {
+		super(name);
+	}
+
+	/**
+	 * Erhöht den Zähler um eins.
+	 */
+	public void increment() {
+		count.incrementAndGet();
+	}
+
+	/**
+	 * Erhöht den Zähler.
+	 *
+	 * @param amount
+	 *            Betrag, um den der Zähler erhöht wird.
+	 */
+	public void increment(long amount) {
+		count.addAndGet(amount);
+	}
+
+	@Override
+	public long getCount() {
+		return count.get();
+	}
+
+	@Override
+	public String getSummary() {
+		return "count=" + getCount();
+	}
+}
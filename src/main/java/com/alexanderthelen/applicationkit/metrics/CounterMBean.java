@@ -0,0 +1,13 @@
+package com.alexanderthelen.applicationkit.metrics;
+
+/**
+ * JMX-Schnittstelle eines {@link Counter}s.
+ */
+public interface CounterMBean {
+	/**
+	 * Gibt den Stand des Zählers zurück.
+	 *
+	 * @return Stand des Zählers.
+	 */
+	long getCount();
+}
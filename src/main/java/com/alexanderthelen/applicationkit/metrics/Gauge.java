@@ -0,0 +1,38 @@
+package com.alexanderthelen.applicationkit.metrics;
+
+import java.util.function.Supplier;
+
+/**
+ * Ein {@code Gauge} liefert einen Messwert, der bei jeder Abfrage neu ermittelt
+ * wird (z.B. die Anzahl offener Fenster).
+ */
+public class Gauge extends Metric implements GaugeMBean {
+	/**
+	 * Liefert den Messwert.
+	 */
+	private final Supplier<? extends Number> supplier;
+
+	/**
+	 * Erstellt eine {@code Gauge}-Instanz mit einem Namen (per
+	 * {@link MetricRegistry#registerGauge(String, Supplier)}).
+	 *
+	 * @param name
+	 *            Name des Messwerts.
+	 * @param supplier
+	 *            Liefert den Messwert.
+	 */
+	Gauge(String name, Supplier<? extends Number> supplier) {
+		super(name);
+		this.supplier = supplier;
+	}
+
+	@Override
+	public Number getValue() {
+		return supplier.get();
+	}
+
+	@Override
+	public String getSummary() {
+		return "value=" + getValue();
+	}
+}
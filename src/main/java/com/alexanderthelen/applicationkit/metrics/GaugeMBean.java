@@ -0,0 +1,13 @@
+package com.alexanderthelen.applicationkit.metrics;
+
+/**
+ * JMX-Schnittstelle eines {@link Gauge}s.
+ */
+public interface GaugeMBean {
+	/**
+	 * Gibt den aktuellen Messwert zurück.
+	 *
+	 * @return Messwert.
+	 */
+	Number getValue();
+}
@@ -0,0 +1,47 @@
+package com.alexanderthelen.applicationkit.metrics;
+
+/**
+ * Abstrakte Basisklasse aller Metriken einer {@link MetricRegistry}.
+ */
+public abstract class Metric {
+	/**
+	 * Eindeutiger Name der Metrik (z.B. {@code connection.queries}).
+	 */
+	private final String name;
+
+	/**
+	 * Erstellt eine {@code Metric}-Instanz mit einem Namen.
+	 *
+	 * @param name
+	 *            Name der Metrik.
+	 */
+	protected Metric(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Gibt den aktuellen Stand der Metrik als Text zurück.
+	 *
+	 * @return Stand der Metrik.
+	 */
+	public abstract String getSummary();
+
+	/**
+	 * Getter für {@link #name}.
+	 *
+	 * @return Name der Metrik.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gibt den Namen und den aktuellen Stand der Metrik zurück.
+	 *
+	 * @return Name und Stand der Metrik.
+	 */
+	@Override
+	public String toString() {
+		return name + " " + getSummary();
+	}
+}
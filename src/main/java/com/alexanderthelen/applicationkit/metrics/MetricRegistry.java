@@ -0,0 +1,240 @@
+package com.alexanderthelen.applicationkit.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Die {@code MetricRegistry} verwaltet alle Metriken des Programms.
+ *
+ * Es gibt nur eine Instanz (siehe {@link #getInstance()}). Metriken werden
+ * über ihren Namen abgerufen und beim ersten Abruf erzeugt. Jede Metrik wird
+ * unter der Domain {@code com.alexanderthelen.applicationkit} als MBean
+ * registriert und kann so mit JConsole oder VisualVM beobachtet werden.
+ * Zusätzlich können alle Metriken regelmäßig in eine lokale Datei geschrieben
+ * werden (siehe {@link #startFileReporter(Path, long)}).
+ *
+ * Folgende Metriken werden vom Framework selbst erfasst:
+ * <ul>
+ * <li>{@code connection.queries} und {@code connection.updates}</li>
+ * <li>{@code table.<Name>.fill}, {@code table.<Name>.rowsLoaded} und
+ * {@code table.<Name>.estimatedSize} (siehe
+ * {@link com.alexanderthelen.applicationkit.database.Table#getNameOfMetrics()})</li>
+ * <li>{@code viewController.<Klasse>.viewWillAppear}</li>
+ * <li>{@code windowController.openWindows}</li>
+ * </ul>
+ */
+public class MetricRegistry {
+	/**
+	 * Domain der MBeans.
+	 */
+	private static final String DOMAIN = "com.alexanderthelen.applicationkit";
+	/**
+	 * Eindeutige Instanz der Metrikverwaltung.
+	 */
+	private static final MetricRegistry instance = new MetricRegistry();
+
+	/**
+	 * Alle Metriken, sortiert nach ihrem Namen.
+	 */
+	private final TreeMap<String, Metric> metrics = new TreeMap<>();
+	/**
+	 * Hintergrund-Thread, der die Metriken in eine Datei schreibt.
+	 */
+	private ScheduledExecutorService fileReporter;
+
+	/**
+	 * Getter für {@link #instance}.
+	 *
+	 * @return Instanz der Metrikverwaltung.
+	 */
+	public static MetricRegistry getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Erstellt die {@code MetricRegistry}-Instanz (per {@link #instance}).
+	 */
+	private MetricRegistry() {
+	}
+
+	/**
+	 * Gibt den Zähler mit dem gegebenen Namen zurück und erzeugt ihn ggf.
+	 *
+	 * @param name
+	 *            Name des Zählers.
+	 * @return Zähler.
+	 */
+	public synchronized Counter getCounter(String name) {
+		Metric metric = metrics.get(name);
+		if (metric == null) {
+			metric = register(new Counter(name));
+		}
+		return (Counter) metric;
+	}
+
+	/**
+	 * Gibt den Zeitmesser mit dem gegebenen Namen zurück und erzeugt ihn ggf.
+	 *
+	 * @param name
+	 *            Name des Zeitmessers.
+	 * @return Zeitmesser.
+	 */
+	public synchronized Timer getTimer(String name) {
+		Metric metric = metrics.get(name);
+		if (metric == null) {
+			metric = register(new Timer(name));
+		}
+		return (Timer) metric;
+	}
+
+	/**
+	 * Registriert einen Messwert. Ein bestehender Messwert mit dem gleichen
+	 * Namen wird ersetzt.
+	 *
+	 * @param name
+	 *            Name des Messwerts.
+	 * @param supplier
+	 *            Liefert den Messwert.
+	 * @return Messwert.
+	 */
+	public synchronized Gauge registerGauge(String name, Supplier<? extends Number> supplier) {
+		remove(name);
+		return (Gauge) register(new Gauge(name, supplier));
+	}
+
+	/**
+	 * Entfernt eine Metrik.
+	 *
+	 * @param name
+	 *            Name der Metrik.
+	 */
+	public synchronized void remove(String name) {
+		Metric metric = metrics.remove(name);
+		if (metric == null)
+			return;
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = getObjectName(metric);
+			if (server.isRegistered(objectName))
+				server.unregisterMBean(objectName);
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Gibt alle Metriken sortiert nach ihrem Namen zurück.
+	 *
+	 * @return Liste aller Metriken.
+	 */
+	public synchronized ArrayList<Metric> getMetrics() {
+		return new ArrayList<>(metrics.values());
+	}
+
+	/**
+	 * Schreibt den Stand aller Metriken.
+	 *
+	 * @param writer
+	 *            Ziel der Ausgabe.
+	 */
+	public void report(Writer writer) {
+		PrintWriter printWriter = new PrintWriter(writer);
+		printWriter.println("# " + new Date());
+		for (Metric metric : getMetrics()) {
+			printWriter.println(metric);
+		}
+		printWriter.flush();
+	}
+
+	/**
+	 * Startet das regelmäßige Schreiben aller Metriken in eine Datei.
+	 *
+	 * Die Datei wird jedes Mal vollständig ersetzt. Ein bereits laufendes
+	 * Schreiben wird vorher beendet.
+	 *
+	 * @param path
+	 *            Pfad zur Datei.
+	 * @param period
+	 *            Abstand in Sekunden.
+	 */
+	public synchronized void startFileReporter(Path path, long period) {
+		stopFileReporter();
+		fileReporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "MetricRegistry-FileReporter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		fileReporter.scheduleAtFixedRate(() -> {
+			try {
+				Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+				try (Writer writer = Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8)) {
+					report(writer);
+				}
+				Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}, period, period, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Beendet das regelmäßige Schreiben der Metriken.
+	 */
+	public synchronized void stopFileReporter() {
+		if (fileReporter == null)
+			return;
+		fileReporter.shutdown();
+		fileReporter = null;
+	}
+
+	/**
+	 * Nimmt eine Metrik auf und registriert sie als MBean.
+	 *
+	 * @param metric
+	 *            Metrik.
+	 * @return Metrik.
+	 */
+	private Metric register(Metric metric) {
+		metrics.put(metric.getName(), metric);
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = getObjectName(metric);
+			if (server.isRegistered(objectName))
+				server.unregisterMBean(objectName);
+			server.registerMBean(metric, objectName);
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+		return metric;
+	}
+
+	/**
+	 * Gibt den Namen des MBeans einer Metrik zurück.
+	 *
+	 * @param metric
+	 *            Metrik.
+	 * @return Name des MBeans.
+	 * @throws JMException
+	 *             wenn der Name ungültig ist.
+	 */
+	private static ObjectName getObjectName(Metric metric) throws JMException {
+		return new ObjectName(DOMAIN + ":type=" + metric.getClass().getSimpleName() + ",name="
+				+ ObjectName.quote(metric.getName()));
+	}
+}
@@ -0,0 +1,255 @@
+package com.alexanderthelen.applicationkit.metrics;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+/**
+ * Die {@code StartupTimeline} erfasst die Phasen beim Start des Programms.
+ *
+ * Jede Phase wird mit Beginn und Ende relativ zum Start der JVM erfasst und
+ * zusätzlich als Zeitmesser {@code startup.<Phase>} registriert (siehe
+ * {@link MetricRegistry}). Ist ein Zeitbudget gesetzt (siehe
+ * {@link #setBudget(long)} oder {@code -Dapplicationkit.startupBudget=<ms>})
+ * und wird es bis zum Abschluss des Starts (siehe {@link #finish()})
+ * überschritten, wird der Verlauf auf der Fehlerausgabe protokolliert.
+ */
+public class StartupTimeline {
+	/**
+	 * Zeitpunkt des Starts der JVM in Millisekunden.
+	 */
+	private final long startOfJVM;
+	/**
+	 * Alle begonnenen Phasen in der Reihenfolge ihres Beginns.
+	 */
+	private final ArrayList<Phase> phases = new ArrayList<>();
+	/**
+	 * Zeitbudget des gesamten Starts in Millisekunden. Bei {@code 0} gibt es
+	 * kein Budget.
+	 */
+	private long budget = Long.getLong("applicationkit.startupBudget", 0);
+	/**
+	 * Dauer des gesamten Starts in Millisekunden oder {@code -1}, solange der
+	 * Start nicht abgeschlossen ist.
+	 */
+	private long duration = -1;
+
+	/**
+	 * Erstellt eine neue {@code StartupTimeline}-Instanz.
+	 */
+	public StartupTimeline() {
+		startOfJVM = ManagementFactory.getRuntimeMXBean().getStartTime();
+	}
+
+	/**
+	 * Beginnt eine Phase.
+	 *
+	 * @param name
+	 *            Name der Phase.
+	 */
+	public synchronized void begin(String name) {
+		phases.add(new Phase(name, now()));
+	}
+
+	/**
+	 * Beendet die zuletzt begonnene, noch offene Phase mit dem gegebenen Namen.
+	 *
+	 * @param name
+	 *            Name der Phase.
+	 */
+	public synchronized void end(String name) {
+		for (int i = phases.size() - 1; i >= 0; i--) {
+			Phase phase = phases.get(i);
+			if (phase.name.equals(name) && phase.end < 0) {
+				phase.end = now();
+				MetricRegistry.getInstance().getTimer("startup." + name)
+						.record((phase.end - phase.start) * 1000000L);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Erfasst einen Zeitpunkt als Phase ohne Dauer.
+	 *
+	 * @param name
+	 *            Name des Zeitpunkts.
+	 */
+	public synchronized void mark(String name) {
+		Phase phase = new Phase(name, now());
+		phase.end = phase.start;
+		phases.add(phase);
+	}
+
+	/**
+	 * Schließt den Start ab.
+	 *
+	 * Die Dauer ist die Zeit vom Start der JVM bis zum Aufruf dieser Methode.
+	 * Wird das Budget überschritten, wird der Verlauf auf der Fehlerausgabe
+	 * protokolliert.
+	 */
+	public synchronized void finish() {
+		if (duration >= 0)
+			return;
+		duration = now();
+		MetricRegistry.getInstance().getTimer("startup.total").record(duration * 1000000L);
+		if (budget > 0 && duration > budget) {
+			System.err.println("Start hat das Budget von " + budget + " ms überschritten.");
+			System.err.print(this);
+		}
+	}
+
+	/**
+	 * Schreibt den Verlauf des Starts.
+	 *
+	 * @param writer
+	 *            Ziel der Ausgabe.
+	 */
+	public synchronized void report(Writer writer) {
+		PrintWriter printWriter = new PrintWriter(writer);
+		for (Phase phase : phases) {
+			printWriter.println(phase);
+		}
+		if (duration >= 0)
+			printWriter.println("total: " + duration + " ms");
+		printWriter.flush();
+	}
+
+	/**
+	 * Gibt eine Kopie aller Phasen zurück.
+	 *
+	 * @return Liste der Phasen.
+	 */
+	public synchronized ArrayList<Phase> getPhases() {
+		ArrayList<Phase> phases = new ArrayList<>();
+		for (Phase phase : this.phases) {
+			Phase copy = new Phase(phase.name, phase.start);
+			copy.end = phase.end;
+			phases.add(copy);
+		}
+		return phases;
+	}
+
+	/**
+	 * Getter für {@link #duration}.
+	 *
+	 * @return Dauer des gesamten Starts in Millisekunden oder {@code -1},
+	 *         solange der Start nicht abgeschlossen ist.
+	 */
+	public synchronized long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * Getter für {@link #budget}.
+	 *
+	 * @return Zeitbudget des gesamten Starts in Millisekunden.
+	 */
+	public synchronized long getBudget() {
+		return budget;
+	}
+
+	/**
+	 * Setter für {@link #budget}.
+	 *
+	 * @param budget
+	 *            Zeitbudget des gesamten Starts in Millisekunden. Bei
+	 *            {@code 0} gibt es kein Budget.
+	 */
+	public synchronized void setBudget(long budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Gibt die Zeit seit dem Start der JVM zurück.
+	 *
+	 * @return Zeit in Millisekunden.
+	 */
+	private long now() {
+		return System.currentTimeMillis() - startOfJVM;
+	}
+
+	@Override
+	public String toString() {
+		StringWriter writer = new StringWriter();
+		report(writer);
+		return writer.toString();
+	}
+
+	/**
+	 * Phase des Starts.
+	 */
+	public static class Phase {
+		/**
+		 * Name der Phase.
+		 */
+		private final String name;
+		/**
+		 * Beginn in Millisekunden seit dem Start der JVM.
+		 */
+		private final long start;
+		/**
+		 * Ende in Millisekunden seit dem Start der JVM oder {@code -1},
+		 * solange die Phase läuft.
+		 */
+		private long end = -1;
+
+		/**
+		 * Erstellt eine neue {@code Phase}-Instanz.
+		 *
+		 * @param name
+		 *            Name der Phase.
+		 * @param start
+		 *            Beginn in Millisekunden seit dem Start der JVM.
+		 */
+		private Phase(String name, long start) {
+			this.name = name;
+			this.start = start;
+		}
+
+		/**
+		 * Getter für {@link #name}.
+		 *
+		 * @return Name der Phase.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Getter für {@link #start}.
+		 *
+		 * @return Beginn in Millisekunden seit dem Start der JVM.
+		 */
+		public long getStart() {
+			return start;
+		}
+
+		/**
+		 * Getter für {@link #end}.
+		 *
+		 * @return Ende in Millisekunden seit dem Start der JVM oder {@code -1},
+		 *         solange die Phase läuft.
+		 */
+		public long getEnd() {
+			return end;
+		}
+
+		/**
+		 * Gibt die Dauer der Phase zurück.
+		 *
+		 * @return Dauer in Millisekunden oder {@code -1}, solange die Phase
+		 *         läuft.
+		 */
+		public long getDuration() {
+			return end < 0 ? -1 : end - start;
+		}
+
+		@Override
+		public String toString() {
+			return name + ": " + start + " ms -> " + (end < 0 ? "..." : end + " ms (" + getDuration() + " ms)");
+		}
+	}
+}
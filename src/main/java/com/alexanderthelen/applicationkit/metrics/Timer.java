@@ -0,0 +1,112 @@
+package com.alexanderthelen.applicationkit.metrics;
+
+import java.util.Locale;
+
+/**
+ * Ein {@code Timer} misst die Dauer von Vorgängen (z.B. Anfragen).
+ *
+ * Beispiel:
+ *
+ * <pre>
+ * {@code
+ * long start = timer.start();
+ * ... // Vorgang
+ * timer.stop(start);
+ * }
+ * </pre>
+ */
+public class Timer extends Metric implements TimerMBean {
+	/**
+	 * Anzahl der Messungen.
+	 */
+	private long count;
+	/**
+	 * Summe aller gemessenen Zeiten in Nanosekunden.
+	 */
+	private long total;
+	/**
+	 * Längste gemessene Zeit in Nanosekunden.
+	 */
+	private long maximum;
+	/**
+	 * Zuletzt gemessene Zeit in Nanosekunden.
+	 */
+	private long last;
+
+	/**
+	 * Erstellt eine {@code Timer}-Instanz mit einem Namen (per
+	 * {@link MetricRegistry#getTimer(String)}).
+	 *
+	 * @param name
+	 *            Name des Zeitmessers.
+	 */
+	Timer(String name) {
+		super(name);
+	}
+
+	/**
+	 * Beginnt eine Messung.
+	 *
+	 * @return Startzeitpunkt, der an {@link #stop(long)} übergeben wird.
+	 */
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Beendet eine Messung.
+	 *
+	 * @param start
+	 *            Startzeitpunkt (siehe {@link #start()}).
+	 * @return Gemessene Zeit in Nanosekunden.
+	 */
+	public long stop(long start) {
+		long duration = System.nanoTime() - start;
+		record(duration);
+		return duration;
+	}
+
+	/**
+	 * Zeichnet eine gemessene Zeit auf.
+	 *
+	 * @param duration
+	 *            Gemessene Zeit in Nanosekunden.
+	 */
+	public synchronized void record(long duration) {
+		count++;
+		total += duration;
+		maximum = Math.max(maximum, duration);
+		last = duration;
+	}
+
+	@Override
+	public synchronized long getCount() {
+		return count;
+	}
+
+	@Override
+	public synchronized double getTotalTime() {
+		return total / 1e6;
+	}
+
+	@Override
+	public synchronized double getMeanTime() {
+		return count == 0 ? 0 : total / (double) count / 1e6;
+	}
+
+	@Override
+	public synchronized double getMaximumTime() {
+		return maximum / 1e6;
+	}
+
+	@Override
+	public synchronized double getLastTime() {
+		return last / 1e6;
+	}
+
+	@Override
+	public synchronized String getSummary() {
+		return String.format(Locale.ROOT, "count=%d total=%.3fms mean=%.3fms max=%.3fms last=%.3fms", count,
+				getTotalTime(), getMeanTime(), getMaximumTime(), getLastTime());
+	}
+}
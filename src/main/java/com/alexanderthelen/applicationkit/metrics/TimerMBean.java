@@ -0,0 +1,41 @@
+package com.alexanderthelen.applicationkit.metrics;
+
+/**
+ * JMX-Schnittstelle eines {@link Timer}s.
+ */
+public interface TimerMBean {
+	/**
+	 * Gibt die Anzahl der Messungen zurück.
+	 *
+	 * @return Anzahl der Messungen.
+	 */
+	long getCount();
+
+	/**
+	 * Gibt die Summe aller gemessenen Zeiten zurück.
+	 *
+	 * @return Summe in Millisekunden.
+	 */
+	double getTotalTime();
+
+	/**
+	 * Gibt die durchschnittliche gemessene Zeit zurück.
+	 *
+	 * @return Durchschnitt in Millisekunden.
+	 */
+	double getMeanTime();
+
+	/**
+	 * Gibt die längste gemessene Zeit zurück.
+	 *
+	 * @return Maximum in Millisekunden.
+	 */
+	double getMaximumTime();
+
+	/**
+	 * Gibt die zuletzt gemessene Zeit zurück.
+	 *
+	 * @return Letzte Messung in Millisekunden.
+	 */
+	double getLastTime();
+}
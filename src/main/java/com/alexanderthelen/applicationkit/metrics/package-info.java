@@ -0,0 +1,5 @@
+/**
+ * Dieses Package beinhaltet eine einfache Metrikverwaltung (Zähler, Messwerte
+ * und Zeitmesser), die über JMX und eine Datei abgerufen werden kann.
+ */
+package com.alexanderthelen.applicationkit.metrics;